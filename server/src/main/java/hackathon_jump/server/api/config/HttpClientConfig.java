@@ -0,0 +1,138 @@
+package hackathon_jump.server.api.config;
+
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.apache.v2.ApacheHttpTransport;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * One pooled HTTP client per external integration (Recall, OpenAI, LinkedIn, Google Calendar).
+ *
+ * Each integration gets its own connection pool with keep-alive reuse, connect / read / pool wait timeouts
+ * and transparent gzip. Requests are timed through Spring's RestTemplate observation (http.client.requests,
+ * tagged with the host) and each pool reports its saturation (http.client.pool.*, tagged with the client).
+ * Timeouts and pool sizes are configured with app.http.{client}.* properties.
+ * Google's API client needs its own transport (Apache HttpClient 4); its connect / read timeouts are set per request by the client.
+ */
+@Configuration
+@Slf4j
+public class HttpClientConfig {
+    @Autowired
+    private Environment environment;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private RestTemplateBuilder restTemplateBuilder;
+
+    @Bean
+    public RestTemplate recallRestTemplate() {
+        return pooledRestTemplate("recall");
+    }
+
+    @Bean
+    public RestTemplate openAiRestTemplate() {
+        return pooledRestTemplate("openai");
+    }
+
+    @Bean
+    public RestTemplate linkedinRestTemplate() {
+        return pooledRestTemplate("linkedin");
+    }
+
+    @Bean
+    public HttpTransport googleHttpTransport() {
+        int maxConnections = property("google", "max-connections", 20);
+
+        org.apache.http.impl.conn.PoolingHttpClientConnectionManager connectionManager =
+                new org.apache.http.impl.conn.PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnections);
+        connectionManager.setValidateAfterInactivity(10_000);
+
+        org.apache.http.client.HttpClient httpClient = ApacheHttpTransport.newDefaultHttpClientBuilder()
+                .setConnectionManager(connectionManager)
+                .evictExpiredConnections()
+                .evictIdleConnections(1, TimeUnit.MINUTES)
+                .build();
+
+        poolGauge("google", "leased", connectionManager, pool -> pool.getTotalStats().getLeased());
+        poolGauge("google", "available", connectionManager, pool -> pool.getTotalStats().getAvailable());
+        poolGauge("google", "pending", connectionManager, pool -> pool.getTotalStats().getPending());
+        poolGauge("google", "max", connectionManager, pool -> pool.getTotalStats().getMax());
+
+        log.info("HTTP client google configured with {} connections", maxConnections);
+        return new ApacheHttpTransport(httpClient);
+    }
+
+    private RestTemplate pooledRestTemplate(String client) {
+        int maxConnections = property(client, "max-connections", 20);
+        long connectTimeoutMs = property(client, "connect-timeout-ms", 5000);
+        long readTimeoutMs = property(client, "read-timeout-ms", 30000);
+        long poolTimeoutMs = property(client, "pool-timeout-ms", 10000);
+
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnections)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(10))
+                        .build())
+                .build();
+
+        // content compression (Accept-Encoding: gzip and transparent decompression) is on by default
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(poolTimeoutMs))
+                        .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMinutes(1))
+                .build();
+
+        poolGauge(client, "leased", connectionManager, pool -> pool.getTotalStats().getLeased());
+        poolGauge(client, "available", connectionManager, pool -> pool.getTotalStats().getAvailable());
+        poolGauge(client, "pending", connectionManager, pool -> pool.getTotalStats().getPending());
+        poolGauge(client, "max", connectionManager, pool -> pool.getTotalStats().getMax());
+
+        log.info("HTTP client {} configured with {} connections, connect timeout {} ms, read timeout {} ms",
+                client, maxConnections, connectTimeoutMs, readTimeoutMs);
+        return restTemplateBuilder
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient))
+                .build();
+    }
+
+    private <T> void poolGauge(String client, String state, T connectionManager, ToDoubleFunction<T> value) {
+        Gauge.builder("http.client.pool." + state, connectionManager, value)
+                .tag("client", client)
+                .register(meterRegistry);
+    }
+
+    private int property(String client, String name, int defaultValue) {
+        return environment.getProperty("app.http." + client + "." + name, Integer.class, defaultValue);
+    }
+
+    private long property(String client, String name, long defaultValue) {
+        return environment.getProperty("app.http." + client + "." + name, Long.class, defaultValue);
+    }
+}
@@ -1,7 +1,9 @@
 package hackathon_jump.server.api.config;
 
+import hackathon_jump.server.api.controller.EventController;
 import hackathon_jump.server.api.filter.JwtAuthenticationFilter;
 import hackathon_jump.server.api.filter.RequestLoggingFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -18,6 +20,7 @@ import org.springframework.security.oauth2.client.userinfo.DefaultOAuth2UserServ
 import org.springframework.security.oauth2.client.userinfo.OAuth2UserRequest;
 import org.springframework.security.oauth2.client.userinfo.OAuth2UserService;
 import org.springframework.security.oauth2.client.web.DefaultOAuth2AuthorizationRequestResolver;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
 import org.springframework.security.oauth2.core.oidc.endpoint.OidcParameterNames;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.security.oauth2.client.endpoint.OAuth2AccessTokenResponseClient;
@@ -60,6 +63,8 @@ public class SecurityConfig {
                 .csrf(AbstractHttpConfigurer::disable)
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .authorizeHttpRequests(auth -> auth
+                        // the async dispatch closing a streamed response (SseEmitter) belongs to a request that was already authorized
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/auth/**").permitAll()
                         .requestMatchers("/login/**").permitAll()
                         .requestMatchers("/api/public/**").permitAll()
@@ -101,6 +106,7 @@ public class SecurityConfig {
         configuration.setAllowedOriginPatterns(List.of(corsAllowedOrigins));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(List.of("*"));
+        configuration.setExposedHeaders(List.of(EventController.CALENDAR_SYNC_FAILURES_HEADER));
         configuration.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -114,7 +120,17 @@ public class SecurityConfig {
                 new DefaultOAuth2AuthorizationRequestResolver(clientRegistrationRepository,
                         "/oauth2/authorization");
         requestResolver.setAuthorizationRequestCustomizer(c ->
-                c.attributes(stringObjectMap -> stringObjectMap.remove(OidcParameterNames.NONCE))
+                c.attributes(stringObjectMap -> {
+                            stringObjectMap.remove(OidcParameterNames.NONCE);
+                            // a refresh token, so the calendars can be synced once the access token expired;
+                            // Google only grants it on consent
+                            if ("google".equals(stringObjectMap.get(OAuth2ParameterNames.REGISTRATION_ID))) {
+                                c.additionalParameters(params -> {
+                                    params.put("access_type", "offline");
+                                    params.put("prompt", "consent");
+                                });
+                            }
+                        })
                         .parameters(params -> params.remove(OidcParameterNames.NONCE))
         );
 
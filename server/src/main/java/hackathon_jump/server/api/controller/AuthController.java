@@ -17,6 +17,9 @@ import org.springframework.web.bind.annotation.*;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 
 import java.util.List;
 import java.util.Map;
@@ -59,10 +62,12 @@ public class AuthController {
 //        String accessToken = oAuth2AuthorizedClient.getAccessToken().getTokenValue();
         String idToken = ((DefaultOidcUser) oauth2User).getIdToken().getTokenValue();
         String accessToken = oAuth2AuthorizedClient.getAccessToken().getTokenValue();
-        // todo add support for refresh tokens
+        // granted because the authorization request asks for offline access
         String refreshToken = oAuth2AuthorizedClient.getRefreshToken() == null ? "" :
                 oAuth2AuthorizedClient.getRefreshToken().getTokenValue();
-        userService.save(email, accessToken, EOauthProvider.GOOGLE);
+        Instant expiresAt = oAuth2AuthorizedClient.getAccessToken().getExpiresAt();
+        userService.save(email, accessToken, refreshToken,
+                expiresAt != null ? LocalDateTime.ofInstant(expiresAt, ZoneId.systemDefault()) : null, EOauthProvider.GOOGLE);
 
         Map<String, Object> claims = Map.of(
             "googleEmailAddresses", List.of(email)
@@ -3,7 +3,9 @@ package hackathon_jump.server.api.controller;
 import com.google.api.client.http.HttpStatusCodes;
 import hackathon_jump.server.business.service.calendar.EventService;
 import hackathon_jump.server.model.domain.Event;
+import hackathon_jump.server.model.dto.CalendarSyncFailure;
 import hackathon_jump.server.model.dto.Session;
+import hackathon_jump.server.model.dto.SyncedEvents;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.Logger;
@@ -13,19 +15,32 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/events")
 @Slf4j
 public class EventController {
+    public static final String CALENDAR_SYNC_FAILURES_HEADER = "X-Calendar-Sync-Failures";
+
     @Autowired
     private EventService eventService;
 
+    /**
+     * Calendars that could not be synced are listed in the X-Calendar-Sync-Failures header ("account/calendarId: reason", comma separated),
+     * the events of the others are still returned
+     */
     @GetMapping({"", "/"})
     public ResponseEntity<List<Event>> getEvents(@RequestAttribute("session") Session session) {
         try {
-            List<Event> events = eventService.getAll(session);
-            return ResponseEntity.ok(events);
+            SyncedEvents syncedEvents = eventService.getAll(session);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if(!syncedEvents.failures().isEmpty()) {
+                response.header(CALENDAR_SYNC_FAILURES_HEADER, syncedEvents.failures().stream()
+                        .map(CalendarSyncFailure::toString)
+                        .collect(Collectors.joining(", ")));
+            }
+            return response.body(syncedEvents.events());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatusCodes.STATUS_CODE_UNAUTHORIZED).build();
         }
@@ -11,16 +11,25 @@ import hackathon_jump.server.model.domain.EventReportAutomation;
 import hackathon_jump.server.model.domain.User;
 import hackathon_jump.server.model.dto.Session;
 import hackathon_jump.server.model.enums.EOauthProvider;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/event-report-automations")
@@ -41,6 +50,16 @@ public class EventReportAutomationController {
     
     @Autowired
     private LinkedinService linkedinService;
+
+    @Value("${app.llm.stream-timeout-ms:180000}")
+    private long streamTimeoutMs;
+
+    private final ExecutorService streamingExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @PreDestroy
+    public void shutdown() {
+        streamingExecutor.shutdownNow();
+    }
     
     /**
      * Get EventReportAutomation by automation and event report IDs.
@@ -175,6 +194,96 @@ public class EventReportAutomationController {
         }
     }
     
+    /**
+     * Streaming variant of {@link #getByAutomationAndEventReport}: the text is sent as server-sent "delta" events
+     * while it is generated, then the saved EventReportAutomation as a "done" event (or an "error" event)
+     */
+    @GetMapping(value = "/automation/{automationId}/event-report/{eventReportId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamByAutomationAndEventReport(
+            @PathVariable Long automationId,
+            @PathVariable Long eventReportId,
+            @RequestAttribute("session") Session session) {
+
+        log.info("Streaming EventReportAutomation for automation ID: {} and event report ID: {}",
+                automationId, eventReportId);
+
+        if (!hasAccessToAutomation(automationId, session)) {
+            log.warn("User does not have access to automation ID: {}", automationId);
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        Optional<Automation> automationOpt = automationRepository.findById(automationId);
+        Optional<EventReport> eventReportOpt = eventReportRepository.findById(eventReportId);
+        if (automationOpt.isEmpty() || eventReportOpt.isEmpty()) {
+            log.error("Automation {} or EventReport {} not found", automationId, eventReportId);
+            return ResponseEntity.notFound().build();
+        }
+
+        return ResponseEntity.ok(stream(onDelta -> eventReportAutomationService
+                .streamByAutomationAndEventReport(automationOpt.get(), eventReportOpt.get(), onDelta)));
+    }
+
+    /**
+     * Streaming variant of {@link #refresh}, with the same events as {@link #streamByAutomationAndEventReport}
+     */
+    @PutMapping(value = "/{id}/refresh/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamRefresh(
+            @PathVariable Long id,
+            @RequestAttribute("session") Session session) {
+
+        log.info("Streaming refresh of EventReportAutomation with ID: {}", id);
+
+        Optional<EventReportAutomation> eventReportAutomationOpt = eventReportAutomationService.getById(id);
+        if (eventReportAutomationOpt.isEmpty()) {
+            log.error("EventReportAutomation not found with ID: {}", id);
+            return ResponseEntity.notFound().build();
+        }
+        if (!hasAccessToAutomation(eventReportAutomationOpt.get().getAutomation().getId(), session)) {
+            log.warn("User does not have access to automation ID: {}", eventReportAutomationOpt.get().getAutomation().getId());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        return ResponseEntity.ok(stream(onDelta -> eventReportAutomationService.streamRefresh(id, onDelta)));
+    }
+
+    /**
+     * Runs the generation on a virtual thread, so no request thread waits for the model.
+     * If the client goes away, the generation still completes and is saved.
+     */
+    private SseEmitter stream(Function<Consumer<String>, EventReportAutomation> generation) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        AtomicBoolean open = new AtomicBoolean(true);
+        emitter.onCompletion(() -> open.set(false));
+        emitter.onTimeout(() -> open.set(false));
+        emitter.onError(e -> open.set(false));
+
+        streamingExecutor.execute(() -> {
+            try {
+                EventReportAutomation result = generation.apply(delta ->
+                        send(emitter, open, SseEmitter.event().name("delta").data(Map.of("text", delta))));
+                send(emitter, open, SseEmitter.event().name("done").data(result));
+            } catch (Exception e) {
+                log.error("Error streaming EventReportAutomation: {}", e.getMessage(), e);
+                send(emitter, open, SseEmitter.event().name("error").data(Map.of("message", "Failed to generate automation content")));
+            }
+            if (open.get()) {
+                emitter.complete();
+            }
+        });
+        return emitter;
+    }
+
+    private void send(SseEmitter emitter, AtomicBoolean open, SseEmitter.SseEventBuilder event) {
+        if (!open.get()) {
+            return;
+        }
+        try {
+            emitter.send(event);
+        } catch (Exception e) {
+            log.info("Client stopped listening to the automation stream: {}", e.getMessage());
+            open.set(false);
+        }
+    }
+
     /**
      * Post EventReportAutomation to LinkedIn
      */
@@ -0,0 +1,47 @@
+package hackathon_jump.server.api.controller;
+
+import hackathon_jump.server.business.background_task.CalendarWatchTask;
+import hackathon_jump.server.business.service.calendar.CalendarWatchService;
+import hackathon_jump.server.model.domain.CalendarWatchChannel;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Receives Google Calendar push notifications (public, authenticated by the token of the channel)
+ */
+@RestController
+@RequestMapping("/api/public/google/calendar")
+@Slf4j
+public class GoogleCalendarWebhookController {
+    @Autowired
+    private CalendarWatchService calendarWatchService;
+    @Autowired
+    private CalendarWatchTask calendarWatchTask;
+
+    /**
+     * A notification only says that something changed in the watched calendar, the changes are then listed with its sync token
+     */
+    @PostMapping("/notifications")
+    public ResponseEntity<Void> handleNotification(@RequestHeader("X-Goog-Channel-ID") String channelId,
+                                                   @RequestHeader(value = "X-Goog-Channel-Token", required = false) String token,
+                                                   @RequestHeader("X-Goog-Resource-ID") String resourceId,
+                                                   @RequestHeader("X-Goog-Resource-State") String resourceState) {
+        if ("sync".equals(resourceState)) {
+            // sent when a channel is opened, nothing changed yet
+            return ResponseEntity.ok().build();
+        }
+        CalendarWatchChannel channel = calendarWatchService.verify(channelId, token, resourceId);
+        if (channel == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        log.debug("Calendar {} of {} changed ({})", channel.getCalendarId(), channel.getOwner().getUsername(), resourceState);
+        calendarWatchTask.markChanged(channelId);
+        return ResponseEntity.ok().build();
+    }
+}
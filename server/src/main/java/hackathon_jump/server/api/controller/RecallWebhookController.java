@@ -0,0 +1,69 @@
+package hackathon_jump.server.api.controller;
+
+import hackathon_jump.server.business.service.webhook.RecallRealtimeService;
+import hackathon_jump.server.business.service.webhook.RecallWebhookService;
+import hackathon_jump.server.business.service.webhook.RecallWebhookVerifier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Receives Recall bot status and transcript webhooks (public, authenticated by the webhook signature)
+ */
+@RestController
+@RequestMapping("/api/public/recall")
+@Slf4j
+public class RecallWebhookController {
+    @Autowired
+    private RecallWebhookVerifier recallWebhookVerifier;
+    @Autowired
+    private RecallWebhookService recallWebhookService;
+    @Autowired
+    private RecallRealtimeService recallRealtimeService;
+
+    @PostMapping("/webhook")
+    public ResponseEntity<Void> handleWebhook(@RequestHeader HttpHeaders headers, @RequestBody String body) {
+        String messageId = recallWebhookVerifier.verify(headers, body);
+        if (messageId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        try {
+            recallWebhookService.ingest(messageId, body);
+            return ResponseEntity.ok().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error handling Recall webhook {}: {}", messageId, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Realtime endpoint of the bots (transcript.data / transcript.partial_data), see RecallAiService.createBot
+     */
+    @PostMapping("/realtime")
+    public ResponseEntity<Void> handleRealtime(@RequestParam(required = false) String token, @RequestBody String body) {
+        if (!recallWebhookVerifier.verifyRealtimeToken(token)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        try {
+            recallRealtimeService.ingest(body);
+            return ResponseEntity.ok().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error handling Recall realtime event: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
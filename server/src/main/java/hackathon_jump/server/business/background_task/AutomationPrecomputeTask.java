@@ -0,0 +1,158 @@
+package hackathon_jump.server.business.background_task;
+
+import hackathon_jump.server.business.service.calendar.EventReportAutomationService;
+import hackathon_jump.server.infrastructure.repository.IAutomationRepository;
+import hackathon_jump.server.infrastructure.repository.IEventReportRepository;
+import hackathon_jump.server.model.domain.Automation;
+import hackathon_jump.server.model.domain.EventReport;
+import hackathon_jump.server.model.domain.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Generates every automation of the event owner as soon as a report is finished,
+ * so opening an automation of a finished meeting is a DB read instead of a wait on the LLM.
+ *
+ * The jobs run on a few low priority workers, at most one generation start per {@code minIntervalMs},
+ * and hold back while users are waiting for generations of their own. Jobs are not persisted:
+ * the ones lost on a restart are generated on first view, as before.
+ */
+@Component
+@Slf4j
+public class AutomationPrecomputeTask {
+    @Autowired
+    private IAutomationRepository automationRepository;
+    @Autowired
+    private IEventReportRepository eventReportRepository;
+    @Autowired
+    private EventReportAutomationService eventReportAutomationService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.automation.precompute.workers:1}")
+    private int workers;
+    @Value("${app.automation.precompute.min-interval-ms:5000}")
+    private long minIntervalMs;
+    @Value("${app.automation.precompute.queue-capacity:1000}")
+    private int queueCapacity;
+    @Value("${app.automation.precompute.interactive-backoff-ms:1000}")
+    private long interactiveBackoffMs;
+
+    private record Job(Long automationId, Long eventReportId) {
+    }
+
+    private BlockingQueue<Job> queue;
+    /**
+     * the queued jobs, so a report finished twice does not queue its automations twice
+     */
+    private final Set<Job> queuedJobs = ConcurrentHashMap.newKeySet();
+    private ExecutorService executor;
+    private long nextStartAt;
+
+    @PostConstruct
+    public void init() {
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.executor = Executors.newFixedThreadPool(workers, Thread.ofPlatform()
+                .name("automation-precompute-", 0)
+                .priority(Thread.MIN_PRIORITY)
+                .daemon(true)
+                .factory());
+        for (int i = 0; i < workers; i++) {
+            this.executor.execute(this::work);
+        }
+        this.meterRegistry.gauge("automation_precompute.queue_depth", this.queue, BlockingQueue::size);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * Queues the generation of every automation of the report's event owner
+     */
+    public void enqueue(EventReport eventReport) {
+        User owner = eventReport.getEvent() != null ? eventReport.getEvent().getOwner() : null;
+        if (owner == null || !Boolean.TRUE.equals(eventReport.getTranscriptAvailable())) {
+            return;
+        }
+
+        List<Automation> automations = this.automationRepository.findByUsers(owner);
+        for (Automation automation : automations) {
+            Job job = new Job(automation.getId(), eventReport.getId());
+            if (!this.queuedJobs.add(job)) {
+                continue;
+            }
+            if (!this.queue.offer(job)) {
+                this.queuedJobs.remove(job);
+                this.meterRegistry.counter("automation_precompute.jobs", "result", "dropped").increment();
+                log.warn("Automation precompute queue is full, automation {} of event report {} will be generated on first view",
+                        automation.getId(), eventReport.getId());
+            }
+        }
+        log.info("Queued {} automations of event report {} for precomputation", automations.size(), eventReport.getId());
+    }
+
+    private void work() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Job job = this.queue.take();
+                try {
+                    waitForTurn();
+                    process(job);
+                } finally {
+                    this.queuedJobs.remove(job);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                this.meterRegistry.counter("automation_precompute.jobs", "result", "failed").increment();
+                log.error("Failed to precompute an automation: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Waits until no user is waiting for a generation and the rate limit allows one more start
+     */
+    private void waitForTurn() throws InterruptedException {
+        while (this.eventReportAutomationService.hasInteractiveGenerations()) {
+            Thread.sleep(this.interactiveBackoffMs);
+        }
+        long waitMs;
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            long startAt = Math.max(now, this.nextStartAt);
+            this.nextStartAt = startAt + this.minIntervalMs;
+            waitMs = startAt - now;
+        }
+        if (waitMs > 0) {
+            Thread.sleep(waitMs);
+        }
+    }
+
+    private void process(Job job) {
+        Automation automation = this.automationRepository.findById(job.automationId()).orElse(null);
+        EventReport eventReport = this.eventReportRepository.findById(job.eventReportId()).orElse(null);
+        if (automation == null || eventReport == null) {
+            log.debug("Automation {} or event report {} is gone, nothing to precompute", job.automationId(), job.eventReportId());
+            return;
+        }
+
+        boolean generated = this.eventReportAutomationService.precompute(automation, eventReport);
+        this.meterRegistry.counter("automation_precompute.jobs", "result", generated ? "generated" : "existing").increment();
+    }
+}
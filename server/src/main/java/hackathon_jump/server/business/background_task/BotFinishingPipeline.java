@@ -0,0 +1,236 @@
+package hackathon_jump.server.business.background_task;
+
+import hackathon_jump.server.business.service.external.ChatGptService;
+import hackathon_jump.server.business.service.external.RecallAiService;
+import hackathon_jump.server.business.service.summary.RollingSummaryService;
+import hackathon_jump.server.business.service.transcript.TranscriptNormalizer;
+import hackathon_jump.server.business.service.transcript.TranscriptStore;
+import hackathon_jump.server.business.service.webhook.RecallRealtimeService;
+import hackathon_jump.server.infrastructure.repository.IEventReportRepository;
+import hackathon_jump.server.infrastructure.repository.IEventRepository;
+import hackathon_jump.server.model.domain.Event;
+import hackathon_jump.server.model.domain.EventReport;
+import hackathon_jump.server.model.dto.BotSnapshot;
+import hackathon_jump.server.model.dto.ReportContent;
+import hackathon_jump.server.model.dto.RollingSummary;
+import hackathon_jump.server.model.enums.EMeetingPlatform;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Finishes bots in parallel on virtual threads.
+ *
+ * Each bot goes through three stages (Recall fetch, LLM generation, DB write), each stage
+ * being capped by its own number of permits, so a slow stage never holds back the others
+ * and we never flood Recall, OpenAI or SQLite.
+ */
+@Component
+@Slf4j
+public class BotFinishingPipeline {
+    @Autowired
+    private IEventReportRepository eventReportRepository;
+    @Autowired
+    private IEventRepository eventRepository;
+    @Autowired
+    private RecallAiService recallAiService;
+    @Autowired
+    private ChatGptService chatGptService;
+    @Autowired
+    private TranscriptStore transcriptStore;
+    @Autowired
+    private TranscriptNormalizer transcriptNormalizer;
+    @Autowired
+    private RecallRealtimeService recallRealtimeService;
+    @Autowired
+    private RollingSummaryService rollingSummaryService;
+    @Autowired
+    private AutomationPrecomputeTask automationPrecomputeTask;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.bot-finishing.recall-concurrency:4}")
+    private int recallConcurrency;
+    @Value("${app.bot-finishing.llm-concurrency:4}")
+    private int llmConcurrency;
+    @Value("${app.bot-finishing.db-concurrency:1}")
+    private int dbConcurrency;
+
+    private ExecutorService executor;
+    private Semaphore recallPermits;
+    private Semaphore llmPermits;
+    private Semaphore dbPermits;
+
+    private final Set<String> inFlightBotIds = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger queueDepth = new AtomicInteger();
+
+    private Timer recallStageTimer;
+    private Timer llmStageTimer;
+    private Timer dbStageTimer;
+    private Counter finishedBotsCounter;
+    private Counter failedBotsCounter;
+
+    @PostConstruct
+    public void init() {
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.recallPermits = new Semaphore(recallConcurrency);
+        this.llmPermits = new Semaphore(llmConcurrency);
+        this.dbPermits = new Semaphore(dbConcurrency);
+
+        this.meterRegistry.gauge("bot_finishing.queue_depth", this.queueDepth);
+        this.meterRegistry.gauge("bot_finishing.stage.waiting", Tags.of("stage", "recall"),
+                this.recallPermits, Semaphore::getQueueLength);
+        this.meterRegistry.gauge("bot_finishing.stage.waiting", Tags.of("stage", "llm"),
+                this.llmPermits, Semaphore::getQueueLength);
+        this.meterRegistry.gauge("bot_finishing.stage.waiting", Tags.of("stage", "db"),
+                this.dbPermits, Semaphore::getQueueLength);
+        this.recallStageTimer = stageTimer("recall");
+        this.llmStageTimer = stageTimer("llm");
+        this.dbStageTimer = stageTimer("db");
+        this.finishedBotsCounter = this.meterRegistry.counter("bot_finishing.bots", "result", "finished");
+        this.failedBotsCounter = this.meterRegistry.counter("bot_finishing.bots", "result", "failed");
+
+        log.info("Bot finishing pipeline started with concurrency recall={}, llm={}, db={}",
+                recallConcurrency, llmConcurrency, dbConcurrency);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * Checks whether the bot's transcript is available and, if it is, finishes the bot.
+     * A bot that is already going through the pipeline is not submitted a second time.
+     * @return a future completing with true if the bot was finished
+     */
+    public CompletableFuture<Boolean> submit(EventReport eventReport) {
+        String botId = eventReport.getBotId();
+        if (!this.inFlightBotIds.add(botId)) {
+            log.debug("Bot {} is already being finished", botId);
+            return CompletableFuture.completedFuture(false);
+        }
+
+        this.queueDepth.incrementAndGet();
+        return CompletableFuture.supplyAsync(() -> process(eventReport), this.executor)
+                .whenComplete((finished, e) -> {
+                    this.inFlightBotIds.remove(botId);
+                    this.queueDepth.decrementAndGet();
+                    if (e != null) {
+                        this.failedBotsCounter.increment();
+                        log.error("Failed to finish bot {}: {}", botId, e.getMessage());
+                    }
+                });
+    }
+
+    public int getQueueDepth() {
+        return this.queueDepth.get();
+    }
+
+    private boolean process(EventReport eventReport) {
+        String botId = eventReport.getBotId();
+
+        TranscriptStore.Writer transcriptWriter = this.transcriptStore.newWriter();
+        boolean available = inStage(this.recallPermits, this.recallStageTimer, () -> {
+            // one snapshot serves the availability check, the report fill and the transcript download
+            BotSnapshot botSnapshot = this.recallAiService.getBotSnapshot(botId);
+            // with a realtime transcript, the meeting only has to be over, there is nothing to download
+            boolean realtime = this.recallRealtimeService.hasUtterances(eventReport.getId());
+            if (realtime ? !isMeetingOver(botSnapshot) : !this.recallAiService.isTranscriptAvailable(botSnapshot)) {
+                return false;
+            }
+            eventReport.setPlatform(EMeetingPlatform.fromLink(eventReport.getEvent().getLink()));
+            this.recallAiService.fillEventReport(eventReport, botSnapshot);
+            if (realtime) {
+                int turnCnt = this.recallRealtimeService.drain(eventReport.getId(), transcriptWriter);
+                log.debug("Using the realtime transcript of bot {} ({} turns)", botId, turnCnt);
+            } else {
+                String downloadUrl = this.recallAiService.getTranscriptDownloadUrl(botSnapshot);
+                if (downloadUrl != null) {
+                    this.recallAiService.downloadTranscript(downloadUrl, transcriptWriter);
+                }
+            }
+            return true;
+        });
+        if (!available) {
+            return false;
+        }
+        eventReport.setTranscriptAvailable(transcriptWriter.getTurnCount() > 0);
+        if (eventReport.getTranscriptAvailable()) {
+            // the prompt text is built from the blocks as they are decoded, without the whole transcript as JSON
+            // (only a transcript long enough to be summarized is decoded whole, below)
+            eventReport.setNormalizedTranscript(this.transcriptNormalizer.normalize(this.transcriptStore.iterate(transcriptWriter)));
+        }
+
+        // a long transcript is summarized (what is left to fold is the part received since the last fold), a short one is sent whole
+        Optional<RollingSummary> summary = eventReport.getTranscriptAvailable()
+                ? inStage(this.llmPermits, this.llmStageTimer,
+                        () -> this.rollingSummaryService.summaryForPrompts(eventReport, () -> this.transcriptStore.turns(transcriptWriter)))
+                : Optional.empty();
+
+        // the email and the post come out of one structured request
+        ReportContent content = inStage(this.llmPermits, this.llmStageTimer,
+                () -> this.chatGptService.generateReportContent(eventReport, summary.orElse(null)));
+        eventReport.setEmailText(content.emailText());
+        eventReport.setPostText(content.postText());
+
+        inStage(this.dbPermits, this.dbStageTimer, () -> {
+            Event event = eventReport.getEvent();
+            event.setFinished(true);
+            this.eventRepository.save(event);
+            this.transcriptStore.save(eventReport.getId(), transcriptWriter);
+            EventReport saved = this.eventReportRepository.save(eventReport);
+            this.recallRealtimeService.clear(eventReport.getId());
+            return saved;
+        });
+        // the user's automations are generated ahead of their first view
+        this.automationPrecomputeTask.enqueue(eventReport);
+
+        this.finishedBotsCounter.increment();
+        log.info("Finished bot {}", botId);
+        return true;
+    }
+
+    private boolean isMeetingOver(BotSnapshot botSnapshot) {
+        String statusCode = botSnapshot.latestStatusCode();
+        return "recording_done".equals(statusCode) || "done".equals(statusCode);
+    }
+
+    private <T> T inStage(Semaphore permits, Timer timer, Supplier<T> work) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a pipeline stage", e);
+        }
+        try {
+            return timer.record(work);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private Timer stageTimer(String stage) {
+        return Timer.builder("bot_finishing.stage.duration")
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .register(this.meterRegistry);
+    }
+}
@@ -1,17 +1,25 @@
 package hackathon_jump.server.business.background_task;
 
-import hackathon_jump.server.business.service.external.ChatGptService;
+import hackathon_jump.server.business.service.external.RecallApiGuard;
 import hackathon_jump.server.business.service.external.RecallAiService;
 import hackathon_jump.server.infrastructure.repository.IEventReportRepository;
-import hackathon_jump.server.infrastructure.repository.IEventRepository;
-import hackathon_jump.server.model.domain.Event;
 import hackathon_jump.server.model.domain.EventReport;
-import hackathon_jump.server.model.enums.EMeetingPlatform;
+import hackathon_jump.server.model.dto.BotSnapshot;
+import hackathon_jump.server.model.enums.ERecallEndpoint;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
  * this background tasks name is Carla
  */
@@ -21,40 +29,119 @@ public class BotManagerTask {
     @Autowired
     private IEventReportRepository eventReportRepository;
     @Autowired
-    private IEventRepository eventRepository;
-    @Autowired
     private RecallAiService recallAiService;
     @Autowired
-    private ChatGptService chatGptService;
+    private BotFinishingPipeline botFinishingPipeline;
+    @Autowired
+    private BotPollScheduler botPollScheduler;
+    @Autowired
+    private RecallApiGuard recallApiGuard;
+    @Autowired
+    private MeterRegistry meterRegistry;
 
-    @Scheduled(fixedRate = 60000)
-    public void execute() {
-        int finishedBotsCnt = 0;
-        log.info("Carla says hi!");
+    private final Queue<String> readyBotIds = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean cycleRunning = new AtomicBoolean(false);
 
-        this.recallAiService.logApiKeyStatus();
+    /**
+     * Marks a bot as possibly finished (called when Recall notifies us through a webhook),
+     * so it gets finished on the next short tick instead of waiting for its next scheduled check
+     */
+    public void markReady(String botId) {
+        this.readyBotIds.add(botId);
+    }
 
-        for(EventReport eventReport : this.eventReportRepository.findAllByPlatformIsNull()) {
-            if(this.recallAiService.isTranscriptAvailable(eventReport.getBotId())) {
-                finishBot(eventReport);
-                ++ finishedBotsCnt;
+    @Scheduled(fixedDelayString = "${app.recall.ready-check-interval-ms:2000}")
+    public void finishReadyBots() {
+        if(!this.recallApiGuard.isAvailable(ERecallEndpoint.GET_BOT)) {
+            // the ready bots stay queued until Recall is back
+            return;
+        }
+        String botId;
+        while((botId = this.readyBotIds.poll()) != null) {
+            EventReport eventReport = this.eventReportRepository.findByBotId(botId).orElse(null);
+            if(eventReport == null || eventReport.getPlatform() != null) {
+                log.debug("Bot {} is unknown or already finished", botId);
+                continue;
             }
+            String readyBotId = botId;
+            this.botFinishingPipeline.submit(eventReport).thenAccept(finished -> {
+                if(finished) {
+                    this.botPollScheduler.remove(readyBotId);
+                } else {
+                    log.info("Transcript of bot {} is not available yet, checking it again soon.", readyBotId);
+                    this.botPollScheduler.expedite(readyBotId);
+                }
+            });
         }
-
-        log.info("Carla finished {} bots.", finishedBotsCnt);
     }
 
-    private void finishBot(EventReport eventReport) {
-        Event event = eventReport.getEvent();
-        event.setFinished(true);
-        this.eventRepository.save(event);
+    /**
+     * Checks the bots that are due according to the poll scheduler.
+     * This is also the safety net for bots whose webhook never arrives.
+     * A new cycle is only started once the previous one is over.
+     */
+    @Scheduled(fixedDelayString = "${app.recall.poll-tick-ms:15000}")
+    public void execute() {
+        if(!this.cycleRunning.compareAndSet(false, true)) {
+            log.debug("Carla is still busy with the previous cycle, skipping this one.");
+            return;
+        }
+        if(!this.recallApiGuard.isAvailable(ERecallEndpoint.GET_BOT)) {
+            // due bots stay in the queue, so they are checked as soon as the circuit lets calls through again
+            log.warn("Recall is unavailable (circuit open), Carla skips this cycle.");
+            this.cycleRunning.set(false);
+            return;
+        }
 
-        eventReport.setPlatform(EMeetingPlatform.fromLink(event.getLink()));
-        this.recallAiService.fillEventReport(eventReport);
+        List<String> dueBotIds = this.botPollScheduler.pollDue();
+        if(dueBotIds.isEmpty()) {
+            this.cycleRunning.set(false);
+            return;
+        }
+        log.info("Carla says hi! Checking {} of {} unfinished bots.", dueBotIds.size(), this.botPollScheduler.size());
 
-        eventReport.setEmailText(this.chatGptService.generateEmailSummary(eventReport));
-        eventReport.setPostText(this.chatGptService.generatePostSummary(eventReport));
+        Timer.Sample cycle = Timer.start(this.meterRegistry);
+        List<CompletableFuture<Boolean>> finishing = new ArrayList<>();
+        int checkedCnt = 0;
+        try {
+            for(String botId : dueBotIds) {
+                EventReport eventReport = this.eventReportRepository.findByBotId(botId).orElse(null);
+                if(eventReport == null || eventReport.getPlatform() != null) {
+                    this.botPollScheduler.remove(botId);
+                    checkedCnt++;
+                    continue;
+                }
+                finishing.add(this.botFinishingPipeline.submit(eventReport).handle((finished, e) -> {
+                    if(e == null && finished) {
+                        this.botPollScheduler.remove(botId);
+                        return true;
+                    }
+                    this.botPollScheduler.backOff(botId, latestStatusCode(botId));
+                    return false;
+                }));
+                checkedCnt++;
+            }
+        } catch (RuntimeException e) {
+            // the bots not handed to the pipeline go back to the queue, and the next tick starts a new cycle
+            log.error("Carla's cycle failed after {} of {} bots: {}", checkedCnt, dueBotIds.size(), e.getMessage(), e);
+            for(String botId : dueBotIds.subList(checkedCnt, dueBotIds.size())) {
+                this.botPollScheduler.backOff(botId, null);
+            }
+            this.cycleRunning.set(false);
+            return;
+        }
+
+        CompletableFuture.allOf(finishing.toArray(new CompletableFuture[0])).whenComplete((ignored, e) -> {
+            long finishedBotsCnt = finishing.stream().filter(CompletableFuture::join).count();
+            cycle.stop(this.meterRegistry.timer("bot_finishing.cycle"));
+            this.cycleRunning.set(false);
+            log.info("Carla finished {} bots.", finishedBotsCnt);
+        });
+    }
 
-        this.eventReportRepository.save(eventReport);
+    private String latestStatusCode(String botId) {
+        return this.recallAiService.peekBotSnapshot(botId)
+                .map(BotSnapshot::latestStatusCode)
+                .orElse(null);
     }
 }
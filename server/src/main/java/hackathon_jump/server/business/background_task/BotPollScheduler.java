@@ -0,0 +1,158 @@
+package hackathon_jump.server.business.background_task;
+
+import hackathon_jump.server.infrastructure.repository.IEventReportRepository;
+import hackathon_jump.server.model.domain.Event;
+import hackathon_jump.server.model.domain.EventReport;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Decides when each unfinished bot is checked next, so Recall is only asked about meetings that may have ended.
+ *
+ * A bot is first checked at the expected end of its meeting (start + duration from the calendar,
+ * or a default duration). When its transcript is not ready yet, the next check backs off exponentially:
+ * short delays while Recall is processing a call that ended, and never before the expected end while
+ * the bot is still in the call.
+ */
+@Component
+@Slf4j
+public class BotPollScheduler {
+    private static final Set<String> PROCESSING_STATUS_CODES = Set.of("call_ended", "recording_done", "done", "analysis_done");
+
+    @Autowired
+    private IEventReportRepository eventReportRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.recall.poll.default-meeting-minutes:60}")
+    private long defaultMeetingMinutes;
+    @Value("${app.recall.poll.min-backoff-ms:30000}")
+    private long minBackoffMs;
+    @Value("${app.recall.poll.max-backoff-ms:1800000}")
+    private long maxBackoffMs;
+
+    private record PollEntry(String botId, Instant expectedEnd, Instant nextCheckAt, int notReadyCount) {
+    }
+
+    private final PriorityQueue<PollEntry> queue = new PriorityQueue<>(Comparator.comparing(PollEntry::nextCheckAt));
+    /**
+     * the current entry of each bot; queue elements that are not current anymore are skipped (lazy removal)
+     */
+    private final Map<String, PollEntry> entries = new HashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<EventReport> pendingReports = eventReportRepository.findAllByPlatformIsNull();
+        synchronized (this) {
+            queue.clear();
+            entries.clear();
+            for (EventReport eventReport : pendingReports) {
+                schedule(eventReport.getBotId(), eventReport.getEvent());
+            }
+        }
+        meterRegistry.gauge("bot_poll.scheduled_bots", this, BotPollScheduler::size);
+        log.info("Rebuilt bot poll queue with {} unfinished bots", pendingReports.size());
+    }
+
+    /**
+     * Schedules the first check of a bot at the expected end of its meeting
+     */
+    public synchronized void schedule(String botId, Event event) {
+        Instant expectedEnd = expectedEnd(event);
+        put(new PollEntry(botId, expectedEnd, expectedEnd, 0));
+    }
+
+    public synchronized void remove(String botId) {
+        entries.remove(botId);
+    }
+
+    /**
+     * Brings the next check of a bot forward to the minimum backoff (e.g. Recall told us the call ended)
+     */
+    public synchronized void expedite(String botId) {
+        PollEntry entry = entries.get(botId);
+        if (entry != null) {
+            put(new PollEntry(botId, entry.expectedEnd(), Instant.now().plusMillis(minBackoffMs), 0));
+        }
+    }
+
+    /**
+     * Pushes the next check of a bot whose transcript was not ready
+     * @param statusCode the latest Recall status code of the bot, if known
+     */
+    public synchronized void backOff(String botId, String statusCode) {
+        PollEntry entry = entries.get(botId);
+        if (entry == null) {
+            return;
+        }
+
+        Instant now = Instant.now();
+        int notReadyCount = entry.notReadyCount() + 1;
+        long backoffMs = Math.min(maxBackoffMs, minBackoffMs << Math.min(notReadyCount - 1, 16));
+        Instant nextCheckAt = now.plusMillis(backoffMs);
+        if ((statusCode == null || !PROCESSING_STATUS_CODES.contains(statusCode)) && entry.expectedEnd().isAfter(nextCheckAt)) {
+            // the meeting is not over yet, there is nothing to look at before it ends
+            nextCheckAt = entry.expectedEnd();
+        }
+
+        log.debug("Transcript of bot {} not ready (status {}), next check at {}", botId, statusCode, nextCheckAt);
+        put(new PollEntry(botId, entry.expectedEnd(), nextCheckAt, notReadyCount));
+    }
+
+    /**
+     * Takes the bots that are due for a check out of the queue.
+     * They must be given back through {@link #backOff} (or dropped through {@link #remove}) once checked.
+     */
+    public synchronized List<String> pollDue() {
+        Instant now = Instant.now();
+        List<String> dueBotIds = new ArrayList<>();
+        while (!queue.isEmpty() && !queue.peek().nextCheckAt().isAfter(now)) {
+            PollEntry entry = queue.poll();
+            if (entries.get(entry.botId()) == entry) {
+                dueBotIds.add(entry.botId());
+            }
+        }
+        return dueBotIds;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void put(PollEntry entry) {
+        entries.put(entry.botId(), entry);
+        queue.add(entry);
+        if (queue.size() > 2 * entries.size() + 64) {
+            // drop the stale elements left behind by rescheduling
+            queue.removeIf(queued -> entries.get(queued.botId()) != queued);
+        }
+    }
+
+    private Instant expectedEnd(Event event) {
+        if (event == null || event.getStartDateTime() == null) {
+            return Instant.now();
+        }
+        LocalDateTime start = event.getStartDateTime();
+        LocalDateTime end = event.getEndDateTime() != null && event.getEndDateTime().isAfter(start)
+                ? event.getEndDateTime()
+                : start.plus(Duration.ofMinutes(defaultMeetingMinutes));
+        return end.atZone(ZoneId.systemDefault()).toInstant();
+    }
+}
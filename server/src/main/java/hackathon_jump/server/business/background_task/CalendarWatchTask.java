@@ -0,0 +1,102 @@
+package hackathon_jump.server.business.background_task;
+
+import hackathon_jump.server.business.service.calendar.CalendarWatchService;
+import hackathon_jump.server.business.service.calendar.EventService;
+import hackathon_jump.server.infrastructure.repository.ICalendarWatchChannelRepository;
+import hackathon_jump.server.model.domain.CalendarWatchChannel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Syncs the calendars Google notified a change in, and renews their watch channels before they expire
+ */
+@Component
+@Slf4j
+public class CalendarWatchTask {
+    @Autowired
+    private ICalendarWatchChannelRepository calendarWatchChannelRepository;
+    @Autowired
+    private EventService eventService;
+    @Autowired
+    private CalendarWatchService calendarWatchService;
+
+    private final Set<String> changedChannelIds = ConcurrentHashMap.newKeySet();
+    /**
+     * the channels whose calendar is being synced; a change notified meanwhile is synced once that sync is done
+     */
+    private final Set<String> syncingChannelIds = ConcurrentHashMap.newKeySet();
+    private ExecutorService syncExecutor;
+
+    @PostConstruct
+    public void init() {
+        this.syncExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.syncExecutor.shutdownNow();
+    }
+
+    /**
+     * Marks the calendar watched by a channel as changed (called when Google notifies us).
+     * The notifications of a calendar arriving before its next sync are handled by that one sync.
+     */
+    public void markChanged(String channelId) {
+        this.changedChannelIds.add(channelId);
+    }
+
+    /**
+     * Hands the sync of each changed calendar to its own virtual thread, so a slow Google call does not hold up the scheduler
+     */
+    @Scheduled(fixedDelayString = "${app.google.calendar.watch.sync-interval-ms:2000}")
+    public void syncChangedCalendars() {
+        Iterator<String> iterator = this.changedChannelIds.iterator();
+        while(iterator.hasNext()) {
+            String channelId = iterator.next();
+            if(!this.syncingChannelIds.add(channelId)) {
+                continue;
+            }
+            iterator.remove();
+            this.syncExecutor.execute(() -> {
+                try {
+                    syncChangedCalendar(channelId);
+                } finally {
+                    this.syncingChannelIds.remove(channelId);
+                }
+            });
+        }
+    }
+
+    private void syncChangedCalendar(String channelId) {
+        CalendarWatchChannel channel = this.calendarWatchChannelRepository.findByChannelId(channelId).orElse(null);
+        if(channel == null) {
+            log.debug("Channel {} was closed meanwhile", channelId);
+            return;
+        }
+        try {
+            this.eventService.syncCalendar(channel.getOwner(), channel.getCalendarId());
+        } catch (Exception e) {
+            // the calendar is synced again on the next refresh of its owner
+            log.warn("Failed to sync notified calendar {} of {}: {}", channel.getCalendarId(),
+                    channel.getOwner().getUsername(), e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.google.calendar.watch.renew-interval-ms:3600000}")
+    public void renewChannels() {
+        int renewedCnt = this.calendarWatchService.renewExpiring();
+        if(renewedCnt > 0) {
+            log.info("Renewed {} calendar watch channels", renewedCnt);
+        }
+    }
+}
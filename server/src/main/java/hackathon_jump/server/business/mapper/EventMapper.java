@@ -28,11 +28,13 @@ public interface EventMapper {
     @Mapping(source = "description", target = "description")
     @Mapping(source = "googleEvent", target = "link", qualifiedByName = "extractMeetingLink")
     @Mapping(source = "start", target = "startDateTime", qualifiedByName = "dateTimeToLocalDateTime")
+    @Mapping(source = "end", target = "endDateTime", qualifiedByName = "dateTimeToLocalDateTime")
     @Mapping(source = "attendees", target = "attendees", qualifiedByName = "attendeesToStringList")
     @Mapping(source = "creator.email", target = "creator")
     @Mapping(target = "shouldSendBot", constant = "false")
     @Mapping(target = "finished", constant = "false")
     @Mapping(target = "owner", ignore = true)
+    @Mapping(target = "calendarId", ignore = true)
     @Mapping(target = "eventReport", ignore = true)
     Event googleEventToEvent(com.google.api.services.calendar.model.Event googleEvent);
 
@@ -76,9 +78,16 @@ public interface EventMapper {
             event.setStartDateTime(other.getStartDateTime());
             result = true;
         }
+        if(other.getEndDateTime() != null) {
+            event.setEndDateTime(other.getEndDateTime());
+        }
         if(other.getTitle() != null) {
             event.setTitle(other.getTitle());
         }
+        // rows stored before calendars were tracked get theirs on the next sync
+        if(other.getCalendarId() != null) {
+            event.setCalendarId(other.getCalendarId());
+        }
         return result;
     }
 
@@ -0,0 +1,97 @@
+package hackathon_jump.server.business.service.auth;
+
+import com.google.api.client.auth.oauth2.TokenResponse;
+import com.google.api.client.googleapis.auth.oauth2.GoogleRefreshTokenRequest;
+import com.google.api.client.http.GenericUrl;
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.json.gson.GsonFactory;
+import hackathon_jump.server.infrastructure.repository.IUserRepository;
+import hackathon_jump.server.model.domain.User;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out the Google access token of a user, refreshed with the user's offline refresh token once it is about to
+ * expire, so the calendars can be synced and watched without the user logging in again.
+ */
+@Service
+@Slf4j
+public class GoogleTokenService {
+    @Autowired
+    private IUserRepository userRepository;
+    @Autowired
+    private ClientRegistrationRepository clientRegistrationRepository;
+    @Autowired
+    private HttpTransport httpTransport;
+
+    @Value("${app.google.oauth.refresh-before-seconds:300}")
+    private long refreshBeforeSeconds;
+
+    /**
+     * one refresh at a time, so concurrent syncs of a user do not each ask Google for a new token
+     */
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    /**
+     * @return an access token valid for at least app.google.oauth.refresh-before-seconds, refreshed (and stored) if needed;
+     *         the stored token if its expiry is unknown or it cannot be refreshed
+     */
+    public String accessToken(User user) {
+        if (!expiresSoon(user)) {
+            return user.getOauthToken();
+        }
+        if (user.getRefreshToken() == null) {
+            log.warn("Access token of {} expires at {} and no refresh token was granted, the user has to log in again",
+                    user.getUsername(), user.getOauthTokenExpiresAt());
+            return user.getOauthToken();
+        }
+
+        refreshLock.lock();
+        try {
+            // another thread may have refreshed it meanwhile
+            User stored = userRepository.findById(user.getId()).orElse(user);
+            if (expiresSoon(stored)) {
+                refresh(stored);
+            }
+            user.setOauthToken(stored.getOauthToken());
+            user.setOauthTokenExpiresAt(stored.getOauthTokenExpiresAt());
+            user.setRefreshToken(stored.getRefreshToken());
+        } catch (IOException e) {
+            log.warn("Failed to refresh the access token of {}: {}", user.getUsername(), e.getMessage());
+        } finally {
+            refreshLock.unlock();
+        }
+        return user.getOauthToken();
+    }
+
+    private boolean expiresSoon(User user) {
+        return user.getOauthTokenExpiresAt() != null
+                && user.getOauthTokenExpiresAt().isBefore(LocalDateTime.now().plusSeconds(refreshBeforeSeconds));
+    }
+
+    private void refresh(User user) throws IOException {
+        ClientRegistration google = clientRegistrationRepository.findByRegistrationId("google");
+        TokenResponse response = new GoogleRefreshTokenRequest(httpTransport, GsonFactory.getDefaultInstance(),
+                user.getRefreshToken(), google.getClientId(), google.getClientSecret())
+                .setTokenServerUrl(new GenericUrl(google.getProviderDetails().getTokenUri()))
+                .execute();
+
+        user.setOauthToken(response.getAccessToken());
+        user.setOauthTokenExpiresAt(response.getExpiresInSeconds() != null
+                ? LocalDateTime.now().plusSeconds(response.getExpiresInSeconds()) : null);
+        // Google may rotate the refresh token
+        if (response.getRefreshToken() != null) {
+            user.setRefreshToken(response.getRefreshToken());
+        }
+        userRepository.save(user);
+        log.info("Refreshed the access token of {}, valid until {}", user.getUsername(), user.getOauthTokenExpiresAt());
+    }
+}
@@ -14,6 +14,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Optional;
 
@@ -29,13 +30,26 @@ public class UserService {
     private EventReportService eventReportService;
 
     public void save(String username, String oauthToken, EOauthProvider provider) {
+        save(username, oauthToken, null, null, provider);
+    }
+
+    /**
+     * @param refreshToken the refresh token granted with the access token, null or empty to keep the stored one
+     * @param oauthTokenExpiresAt when the access token expires, null if unknown
+     */
+    public void save(String username, String oauthToken, String refreshToken, LocalDateTime oauthTokenExpiresAt, EOauthProvider provider) {
         Optional<User> optionalUser = userRepository.findByUsernameAndProvider(username, provider);
         if(optionalUser.isPresent()) {
             User user = userRepository.findByUsernameAndProvider(username, provider).orElseThrow();
             user.setOauthToken(oauthToken);
+            if(refreshToken != null && !refreshToken.isEmpty()) {
+                user.setRefreshToken(refreshToken);
+            }
+            user.setOauthTokenExpiresAt(oauthTokenExpiresAt);
             userRepository.save(user);
         } else {
-            User newUser = new User(null, username, oauthToken, provider, 0, new HashSet<>());
+            User newUser = new User(null, username, oauthToken, refreshToken != null && !refreshToken.isEmpty() ? refreshToken : null,
+                    oauthTokenExpiresAt, provider, 0, new HashSet<>());
             userRepository.save(newUser);
         }
     }
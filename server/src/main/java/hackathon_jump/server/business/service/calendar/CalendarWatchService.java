@@ -0,0 +1,203 @@
+package hackathon_jump.server.business.service.calendar;
+
+import com.google.api.services.calendar.model.Channel;
+import hackathon_jump.server.business.service.auth.GoogleTokenService;
+import hackathon_jump.server.business.service.external.GoogleCalendarNotificationStub;
+import hackathon_jump.server.business.service.external.GoogleCalendarService;
+import hackathon_jump.server.infrastructure.repository.ICalendarWatchChannelRepository;
+import hackathon_jump.server.model.domain.CalendarWatchChannel;
+import hackathon_jump.server.model.domain.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps a Google push notification channel open on each synced calendar, so a change in it
+ * (e.g. a meeting moved) is synced right away instead of the next time its owner opens the app.
+ *
+ * Enabled with app.google.calendar.watch.enabled; Google must be able to reach app.google.calendar.watch.address (HTTPS).
+ * With app.google.calendar.watch.stub.enabled the channels are opened on {@link GoogleCalendarNotificationStub} instead.
+ *
+ * The channels are renewed and the notified calendars synced long after the owner logged in, with the access token
+ * refreshed by {@link GoogleTokenService}; the channels of a user who granted no refresh token fail once it expires.
+ */
+@Service
+@Slf4j
+public class CalendarWatchService {
+    @Autowired
+    private ICalendarWatchChannelRepository calendarWatchChannelRepository;
+    @Autowired
+    private GoogleCalendarService googleCalendarService;
+    @Autowired
+    private GoogleTokenService googleTokenService;
+    @Autowired(required = false)
+    private GoogleCalendarNotificationStub notificationStub;
+
+    @Value("${app.google.calendar.watch.enabled:false}")
+    private boolean enabled;
+    @Value("${app.google.calendar.watch.address:}")
+    private String address;
+    @Value("${app.google.calendar.watch.ttl-hours:168}")
+    private long ttlHours;
+    @Value("${app.google.calendar.watch.renew-before-hours:24}")
+    private long renewBeforeHours;
+
+    /**
+     * the users whose channels are being updated, so overlapping refreshes do not open the same channels twice
+     */
+    private final Set<Long> updatingUserIds = ConcurrentHashMap.newKeySet();
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * Same as {@link #unwatch} then {@link #watch}, in the background, so the request that synced the calendars
+     * does not wait for Google. Skipped if the user's channels are already being updated, the next sync catches up.
+     * @param watchedCalendarIds the calendars the user sees
+     * @param unwatchedCalendarIds the calendars the user does not see anymore
+     */
+    public void update(User user, Collection<String> watchedCalendarIds, Collection<String> unwatchedCalendarIds) {
+        if(!enabled || !updatingUserIds.add(user.getId())) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                unwatch(user, unwatchedCalendarIds);
+                watch(user, watchedCalendarIds);
+            } catch (Exception e) {
+                log.warn("Failed to update the watch channels of {}: {}", user.getUsername(), e.getMessage());
+            } finally {
+                updatingUserIds.remove(user.getId());
+            }
+        });
+    }
+
+    /**
+     * Opens a channel on each of the user's calendars that has none yet.
+     * A calendar whose channel cannot be opened is only synced on refresh, as before.
+     */
+    public void watch(User user, Collection<String> calendarIds) {
+        if(!enabled || calendarIds.isEmpty()) {
+            return;
+        }
+        Set<String> watchedCalendarIds = calendarWatchChannelRepository.findAllByOwner(user).stream()
+                .map(CalendarWatchChannel::getCalendarId)
+                .collect(Collectors.toSet());
+        for(String calendarId : calendarIds) {
+            if(!watchedCalendarIds.contains(calendarId)) {
+                open(user, calendarId);
+            }
+        }
+    }
+
+    /**
+     * Closes the channels of calendars the user does not see anymore
+     */
+    public void unwatch(User user, Collection<String> calendarIds) {
+        if(!enabled || calendarIds.isEmpty()) {
+            return;
+        }
+        calendarWatchChannelRepository.findAllByOwner(user).stream()
+                .filter(channel -> calendarIds.contains(channel.getCalendarId()))
+                .forEach(this::close);
+    }
+
+    /**
+     * @return the channel a notification was sent on, or null if the channel is unknown or the notification is forged
+     */
+    public CalendarWatchChannel verify(String channelId, String token, String resourceId) {
+        CalendarWatchChannel channel = calendarWatchChannelRepository.findByChannelId(channelId).orElse(null);
+        if(channel == null) {
+            log.warn("Notification on unknown channel {}", channelId);
+            return null;
+        }
+        if(token == null || !MessageDigest.isEqual(channel.getToken().getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8))
+                || !channel.getResourceId().equals(resourceId)) {
+            log.warn("Notification on channel {} does not match the channel's token or resource", channelId);
+            return null;
+        }
+        return channel;
+    }
+
+    /**
+     * Replaces the channels expiring within app.google.calendar.watch.renew-before-hours.
+     * Google channels cannot be extended: a new channel is opened before the old one is closed, so no change goes unnotified.
+     * @return the number of renewed channels
+     */
+    public int renewExpiring() {
+        if(!enabled) {
+            return 0;
+        }
+        int renewedCnt = 0;
+        for(CalendarWatchChannel channel : calendarWatchChannelRepository.findAllByExpirationBefore(LocalDateTime.now().plusHours(renewBeforeHours))) {
+            // the old channel is kept until it expires if no new one can be opened
+            if(open(channel.getOwner(), channel.getCalendarId()) != null) {
+                close(channel);
+                renewedCnt++;
+            }
+        }
+        return renewedCnt;
+    }
+
+    private CalendarWatchChannel open(User user, String calendarId) {
+        String channelId = UUID.randomUUID().toString();
+        String token = UUID.randomUUID().toString();
+        Instant expiration = Instant.now().plus(Duration.ofHours(ttlHours));
+        Channel channel;
+        try {
+            channel = notificationStub != null
+                    ? notificationStub.watch(calendarId, channelId, token, address, expiration)
+                    : googleCalendarService.watchEvents(user.getUsername(), googleTokenService.accessToken(user), calendarId, channelId, token, address, expiration);
+        } catch (IOException e) {
+            log.warn("Failed to watch calendar {} of {}: {}", calendarId, user.getUsername(), e.getMessage());
+            return null;
+        }
+
+        // Google may shorten the requested lifetime
+        Instant actualExpiration = channel.getExpiration() != null ? Instant.ofEpochMilli(channel.getExpiration()) : expiration;
+        CalendarWatchChannel watchChannel = new CalendarWatchChannel(null, user, calendarId, channelId, channel.getResourceId(), token,
+                LocalDateTime.ofInstant(actualExpiration, ZoneId.systemDefault()));
+        log.info("Watching calendar {} of {} until {}", calendarId, user.getUsername(), watchChannel.getExpiration());
+        return calendarWatchChannelRepository.save(watchChannel);
+    }
+
+    private void close(CalendarWatchChannel channel) {
+        try {
+            if(notificationStub != null) {
+                notificationStub.stop(channel.getChannelId());
+            } else {
+                User owner = channel.getOwner();
+                googleCalendarService.stopChannel(owner.getUsername(), googleTokenService.accessToken(owner), channel.getChannelId(), channel.getResourceId());
+            }
+        } catch (IOException e) {
+            log.warn("Failed to stop channel {}, it is left to expire: {}", channel.getChannelId(), e.getMessage());
+        }
+        calendarWatchChannelRepository.delete(channel);
+    }
+}
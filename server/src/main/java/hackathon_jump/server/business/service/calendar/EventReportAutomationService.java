@@ -1,17 +1,31 @@
 package hackathon_jump.server.business.service.calendar;
 
 import hackathon_jump.server.business.service.external.ChatGptService;
+import hackathon_jump.server.business.service.llm.OpenAiRequestScheduler;
+import hackathon_jump.server.business.service.summary.RollingSummaryService;
+import hackathon_jump.server.business.service.transcript.TranscriptStore;
 import hackathon_jump.server.infrastructure.repository.IEventReportAutomationRepository;
 import hackathon_jump.server.model.domain.Automation;
 import hackathon_jump.server.model.domain.EventReport;
 import hackathon_jump.server.model.domain.EventReportAutomation;
+import hackathon_jump.server.model.dto.RollingSummary;
+import hackathon_jump.server.model.enums.ELlmPriority;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @Service
 @Slf4j
@@ -22,6 +36,25 @@ public class EventReportAutomationService {
     
     @Autowired
     private ChatGptService chatGptService;
+
+    @Autowired
+    private TranscriptStore transcriptStore;
+
+    @Autowired
+    private RollingSummaryService rollingSummaryService;
+
+    /**
+     * generations a user is waiting for; background precomputation holds back while there are any
+     */
+    private final AtomicInteger interactiveGenerations = new AtomicInteger();
+
+    private record GenerationKey(Long automationId, Long eventReportId) {
+    }
+
+    /**
+     * the generation in flight for each (automation, event report), shared by every caller asking for it meanwhile
+     */
+    private final Map<GenerationKey, CompletableFuture<EventReportAutomation>> inFlightGenerations = new ConcurrentHashMap<>();
     
     /**
      * Get EventReportAutomation by automation and event report.
@@ -40,7 +73,25 @@ public class EventReportAutomationService {
         }
         
         log.info("No existing EventReportAutomation found, creating new one with ChatGPT");
-        return createNewEventReportAutomation(automation, eventReport);
+        return interactive(() -> generateOnce(automation, eventReport, () -> createNewEventReportAutomation(automation, eventReport)));
+    }
+
+    /**
+     * Generates the automation of a report ahead of the user's first view, unless it already exists
+     * @return false if it already existed
+     */
+    public boolean precompute(Automation automation, EventReport eventReport) {
+        if (findExistingEventReportAutomation(automation, eventReport).isPresent()) {
+            return false;
+        }
+        log.info("Precomputing EventReportAutomation for automation ID: {} and event report ID: {}",
+                automation.getId(), eventReport.getId());
+        generateOnce(automation, eventReport, () -> createNewEventReportAutomation(automation, eventReport));
+        return true;
+    }
+
+    public boolean hasInteractiveGenerations() {
+        return interactiveGenerations.get() > 0;
     }
     
     /**
@@ -53,12 +104,127 @@ public class EventReportAutomationService {
 
     private EventReportAutomation createNewEventReportAutomation(Automation automation, EventReport eventReport) {
         // Generate content outside of transaction to avoid long-running database locks
-        EventReportAutomation newEventReportAutomation = chatGptService.generateEventReportAutomation(eventReport, automation);
+        transcriptStore.attach(eventReport);
+        EventReportAutomation newEventReportAutomation = chatGptService.generateEventReportAutomation(eventReport, automation, false, summaryOfLongTranscript(eventReport));
         
         // Save in a separate, short transaction
-        return saveEventReportAutomation(newEventReportAutomation);
+        return saveNewEventReportAutomation(newEventReportAutomation);
+    }
+
+    /**
+     * Runs the generation of an automation unless one is already in flight for the same (automation, event report),
+     * in which case the caller waits for that one's result instead
+     * @param generation generates and saves the automation
+     */
+    private EventReportAutomation generateOnce(Automation automation, EventReport eventReport, Supplier<EventReportAutomation> generation) {
+        GenerationKey key = new GenerationKey(automation.getId(), eventReport.getId());
+        CompletableFuture<EventReportAutomation> flight = new CompletableFuture<>();
+        CompletableFuture<EventReportAutomation> running = inFlightGenerations.putIfAbsent(key, flight);
+        if (running != null) {
+            log.info("EventReportAutomation for automation ID: {} and event report ID: {} is already being generated, waiting for it",
+                    automation.getId(), eventReport.getId());
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        try {
+            // the previous flight may have saved it between the caller's lookup and now
+            EventReportAutomation result = findExistingEventReportAutomation(automation, eventReport).orElseGet(generation);
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightGenerations.remove(key, flight);
+        }
+    }
+
+    /**
+     * Saves a newly generated automation; if another instance saved one for the same pair first, that one is kept
+     */
+    private EventReportAutomation saveNewEventReportAutomation(EventReportAutomation newEventReportAutomation) {
+        if (newEventReportAutomation == null) {
+            throw new RuntimeException("Failed to generate EventReportAutomation content");
+        }
+        try {
+            return saveEventReportAutomation(newEventReportAutomation);
+        } catch (DataIntegrityViolationException e) {
+            log.info("EventReportAutomation for automation ID: {} and event report ID: {} was saved concurrently, keeping that one",
+                    newEventReportAutomation.getAutomation().getId(), newEventReportAutomation.getEventReport().getId());
+            return findExistingEventReportAutomation(newEventReportAutomation.getAutomation(), newEventReportAutomation.getEventReport())
+                    .orElseThrow(() -> e);
+        }
     }
     
+    /**
+     * Same as {@link #getByAutomationAndEventReport}, but a newly generated text is handed to the consumer
+     * piece by piece while it is generated (an existing one in one piece). The result is saved as usual.
+     */
+    public EventReportAutomation streamByAutomationAndEventReport(Automation automation, EventReport eventReport, Consumer<String> onDelta) {
+        Optional<EventReportAutomation> existing = findExistingEventReportAutomation(automation, eventReport);
+        if (existing.isPresent()) {
+            log.info("Found existing EventReportAutomation with ID: {}", existing.get().getId());
+            onDelta.accept(existing.get().getText());
+            return existing.get();
+        }
+
+        log.info("No existing EventReportAutomation found, streaming a new one from ChatGPT");
+        AtomicBoolean streamed = new AtomicBoolean(false);
+        EventReportAutomation result = interactive(() -> generateOnce(automation, eventReport, () -> {
+            streamed.set(true);
+            transcriptStore.attach(eventReport);
+            return saveNewEventReportAutomation(chatGptService.streamEventReportAutomation(
+                    eventReport, automation, false, summaryOfLongTranscript(eventReport), onDelta));
+        }));
+        if (!streamed.get()) {
+            // generated by another caller's flight, which streamed it to that caller
+            onDelta.accept(result.getText());
+        }
+        return result;
+    }
+
+    /**
+     * Same as {@link #refresh}, but the new text is handed to the consumer piece by piece while it is generated
+     */
+    public EventReportAutomation streamRefresh(Long id, Consumer<String> onDelta) {
+        log.info("Refreshing EventReportAutomation with ID: {} (streaming)", id);
+
+        EventReportAutomation existing = getEventReportAutomationById(id);
+        EventReport eventReport = transcriptStore.attach(existing.getEventReport());
+        EventReportAutomation newEventReportAutomation = interactive(() -> chatGptService.streamEventReportAutomation(
+                eventReport, existing.getAutomation(), true, summaryOfLongTranscript(eventReport), onDelta));
+        if (newEventReportAutomation == null) {
+            throw new RuntimeException("Failed to generate EventReportAutomation content");
+        }
+
+        existing.setText(newEventReportAutomation.getText());
+        existing.setTitle(newEventReportAutomation.getTitle());
+        return updateEventReportAutomation(existing);
+    }
+
+    private <T> T interactive(Supplier<T> generation) {
+        interactiveGenerations.incrementAndGet();
+        try {
+            return OpenAiRequestScheduler.withPriority(ELlmPriority.INTERACTIVE, generation);
+        } finally {
+            interactiveGenerations.decrementAndGet();
+        }
+    }
+
+    /**
+     * @return the summary of the meeting if its transcript is too long to be sent whole, null otherwise
+     * (chosen like for the report, see {@link RollingSummaryService#summaryForPrompts})
+     */
+    private RollingSummary summaryOfLongTranscript(EventReport eventReport) {
+        // already complete for the bots finished by the pipeline, in which case nothing is folded again
+        return rollingSummaryService.summaryForPrompts(eventReport, () -> transcriptStore.readAll(eventReport.getId()))
+                .orElse(null);
+    }
+
     /**
      * Save EventReportAutomation in a separate, short transaction
      */
@@ -80,8 +246,10 @@ public class EventReportAutomationService {
         Automation automation = existing.getAutomation();
         EventReport eventReport = existing.getEventReport();
 
-        // Generate new content outside of transaction
-        EventReportAutomation newEventReportAutomation = chatGptService.generateEventReportAutomation(eventReport, automation);
+        // Generate new content outside of transaction, asking the model again instead of reusing a cached answer
+        transcriptStore.attach(eventReport);
+        EventReportAutomation newEventReportAutomation = interactive(() ->
+                chatGptService.generateEventReportAutomation(eventReport, automation, true, summaryOfLongTranscript(eventReport)));
         
         // Update the existing record with new content
         existing.setText(newEventReportAutomation.getText());
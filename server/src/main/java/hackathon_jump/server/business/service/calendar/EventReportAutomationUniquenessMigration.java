@@ -0,0 +1,34 @@
+package hackathon_jump.server.business.service.calendar;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adds the (automation, event report) unique index to event_report_automation tables created before it existed
+ * (schema updates do not add constraints to existing tables), keeping the oldest of any duplicated rows
+ */
+@Component
+@Slf4j
+public class EventReportAutomationUniquenessMigration {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        try {
+            int deletedCnt = jdbcTemplate.update("DELETE FROM event_report_automation WHERE id NOT IN " +
+                    "(SELECT MIN(id) FROM event_report_automation GROUP BY automation_id, event_report_id)");
+            jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS unique_automationAndEventReport " +
+                    "ON event_report_automation (automation_id, event_report_id)");
+            if (deletedCnt > 0) {
+                log.info("Deleted {} duplicated EventReportAutomation rows", deletedCnt);
+            }
+        } catch (Exception e) {
+            log.warn("Could not add the unique index of event_report_automation: {}", e.getMessage());
+        }
+    }
+}
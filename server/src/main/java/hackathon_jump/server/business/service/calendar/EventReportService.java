@@ -1,6 +1,9 @@
 package hackathon_jump.server.business.service.calendar;
 
+import hackathon_jump.server.business.background_task.BotPollScheduler;
 import hackathon_jump.server.business.service.external.RecallAiService;
+import hackathon_jump.server.business.service.summary.RollingSummaryService;
+import hackathon_jump.server.business.service.transcript.TranscriptStore;
 import hackathon_jump.server.infrastructure.repository.IEventReportRepository;
 import hackathon_jump.server.infrastructure.repository.IEventRepository;
 import hackathon_jump.server.infrastructure.repository.IUserRepository;
@@ -32,6 +35,12 @@ public class EventReportService {
     private IEventReportRepository eventReportRepository;
     @Autowired
     private RecallAiService recallAiService;
+    @Autowired
+    private BotPollScheduler botPollScheduler;
+    @Autowired
+    private TranscriptStore transcriptStore;
+    @Autowired
+    private RollingSummaryService rollingSummaryService;
 
     public List<EventReport> getAll(Session session) {
         List<EventReport> eventReports = new ArrayList<>();
@@ -82,7 +91,7 @@ public class EventReportService {
         }
         
         log.info("Successfully retrieved EventReport with ID: {}", id);
-        return Optional.of(eventReport);
+        return Optional.of(this.transcriptStore.attach(eventReport));
     }
 
     public EventReport createBot(Event event) {
@@ -106,6 +115,7 @@ public class EventReportService {
             EventReport savedEventReport = eventReportRepository.save(eventReport);
             event.setEventReport(eventReport);
             this.eventRepository.save(event);
+            this.botPollScheduler.schedule(botId, event);
             log.debug("Saved EventReport with ID: {} for bot: {}", savedEventReport.getId(), botId);
 
             return savedEventReport;
@@ -147,6 +157,8 @@ public class EventReportService {
             EventReport eventReport = event.getEventReport();
             eventReport.setBotId(newBotId);
             EventReport savedEventReport = eventReportRepository.save(eventReport);
+            this.botPollScheduler.remove(oldBotId);
+            this.botPollScheduler.schedule(newBotId, event);
             log.debug("Updated EventReport with ID: {} - Old bot: {}, New bot: {}",
                     savedEventReport.getId(), oldBotId, newBotId);
 
@@ -183,6 +195,9 @@ public class EventReportService {
         try {
             EventReport eventReport = eventReportRepository.findByBotId(botId).orElseThrow();
             eventReportRepository.delete(eventReport);
+            this.transcriptStore.delete(eventReport.getId());
+            this.rollingSummaryService.delete(eventReport.getId());
+            this.botPollScheduler.remove(botId);
 
             recallAiService.deleteScheduledBot(botId);
             log.debug("Successfully deleted bot: {} for event: {}", botId, event.getTitle());
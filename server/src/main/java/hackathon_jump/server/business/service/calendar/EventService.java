@@ -1,21 +1,32 @@
 package hackathon_jump.server.business.service.calendar;
 
 import hackathon_jump.server.business.mapper.EventMapper;
+import hackathon_jump.server.business.service.auth.GoogleTokenService;
 import hackathon_jump.server.business.service.external.GoogleCalendarService;
+import hackathon_jump.server.infrastructure.repository.ICalendarSyncStateRepository;
 import hackathon_jump.server.infrastructure.repository.IEventRepository;
 import hackathon_jump.server.infrastructure.repository.IUserRepository;
 import hackathon_jump.server.model.enums.EOauthProvider;
+import hackathon_jump.server.model.domain.CalendarSyncState;
 import hackathon_jump.server.model.domain.Event;
 import hackathon_jump.server.model.domain.User;
+import hackathon_jump.server.model.dto.CalendarChanges;
+import hackathon_jump.server.model.dto.CalendarSyncFailure;
+import hackathon_jump.server.model.dto.CalendarSyncResult;
 import hackathon_jump.server.model.dto.Session;
+import hackathon_jump.server.model.dto.SyncedEvents;
 import lombok.extern.slf4j.Slf4j;
 import org.checkerframework.checker.units.qual.A;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Service
 @Slf4j
@@ -30,13 +41,44 @@ public class EventService {
     private GoogleCalendarService googleCalendarService;
     @Autowired
     private EventMapper eventMapper;
+    @Autowired
+    private ICalendarSyncStateRepository calendarSyncStateRepository;
+    @Autowired
+    private CalendarWatchService calendarWatchService;
+    @Autowired
+    private GoogleTokenService googleTokenService;
+
+    @Value("${app.google.calendar.look-ahead-days:30}")
+    private long lookAheadDays;
+    @Value("${app.google.calendar.window-resync-hours:24}")
+    private long windowResyncHours;
+
+    private static final int USER_LOCK_STRIPES = 64;
+
+    /**
+     * the changes of a user's calendars are applied one sync at a time (a refresh and a notified calendar may overlap),
+     * users share a fixed set of locks so a lock is never dropped while held
+     */
+    private final Object[] userLocks = new Object[USER_LOCK_STRIPES];
+    {
+        Arrays.setAll(userLocks, ignored -> new Object());
+    }
+
+    /**
+     * @return the future events of the session's Google accounts, synced first, and the calendars that could not be synced
+     */
+    public SyncedEvents getAll(Session session) throws IOException {
+        List<User> users = new ArrayList<>();
+        List<CalendarSyncFailure> failures = syncFromGoogle(session, users);
 
-    public List<Event> getAll(Session session) throws IOException {
-        List<Event> events = getAllFromGoogle(session);
-        return saveAll(events)
-                .stream()
+        List<Event> events = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for(User user : users) {
+            events.addAll(this.eventRepository.findAllByOwnerAndEndDateTimeAfter(user, now));
+        }
+        return new SyncedEvents(events.stream()
                 .sorted(Comparator.comparingInt(event -> event.getStartDateTime().getSecond()))
-                .toList();
+                .toList(), failures);
     }
 
     public List<Event> getAllOngoing(Session session) {
@@ -52,33 +94,185 @@ public class EventService {
                 .toList();
     }
 
-    public void refreshAll(Session session) throws IOException {
-        List<Event> events = getAllFromGoogle(session);
-        saveAll(events);
+    public List<CalendarSyncFailure> refreshAll(Session session) throws IOException {
+        return syncFromGoogle(session, new ArrayList<>());
     }
 
-    private List<Event> getAllFromGoogle(Session session) throws IOException {
-        List<Event> allEvents = new ArrayList<>();
-
+    /**
+     * Brings the stored events of the session's Google accounts up to date with their calendars.
+     * The accounts are fetched from Google concurrently, their changes are then applied one account after the other,
+     * in session order.
+     * @param users filled with the users of the session's Google accounts
+     * @return the calendars (or accounts) that could not be synced
+     * @throws IOException if no account could be synced at all
+     */
+    private List<CalendarSyncFailure> syncFromGoogle(Session session, List<User> users) throws IOException {
+        LocalDateTime windowEnd = LocalDateTime.now().plusDays(lookAheadDays);
+        List<Map<String, CalendarSyncState>> allSyncStates = new ArrayList<>();
+        List<CompletableFuture<CalendarSyncResult>> fetches = new ArrayList<>();
         for(String googleEmailAddress : session.getGoogleEmailAddresses()) {
             User user = userRepository.findByUsernameAndProvider(googleEmailAddress, EOauthProvider.GOOGLE).orElseThrow();
-            List<com.google.api.services.calendar.model.Event> googleEvents = googleCalendarService.getCalendarEvents(user.getOauthToken());
+            Map<String, CalendarSyncState> syncStates = new HashMap<>();
+            for(CalendarSyncState syncState : this.calendarSyncStateRepository.findAllByOwner(user)) {
+                syncStates.put(syncState.getCalendarId(), syncState);
+            }
+            Map<String, String> syncTokens = new HashMap<>();
+            syncStates.forEach((calendarId, syncState) -> {
+                if(hasCurrentWindow(syncState, windowEnd)) {
+                    syncTokens.put(calendarId, syncState.getSyncToken());
+                }
+            });
+
+            users.add(user);
+            allSyncStates.add(syncStates);
+            fetches.add(googleCalendarService.getCalendarChangesAsync(googleEmailAddress, googleTokenService.accessToken(user), syncTokens,
+                    windowEnd.atZone(ZoneId.systemDefault()).toInstant()));
+        }
 
-            List<Event> mappedEvents = eventMapper.googleEventsToEvents(googleEvents, user);
-            allEvents.addAll(mappedEvents);
+        List<CalendarSyncFailure> failures = new ArrayList<>();
+        Throwable lastAccountFailure = null;
+        int failedAccountsCnt = 0;
+        for(int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            CalendarSyncResult result;
+            try {
+                result = fetches.get(i).join();
+            } catch (CompletionException e) {
+                lastAccountFailure = e.getCause();
+                failedAccountsCnt++;
+                log.error("Failed to sync the calendars of {}: {}", user.getUsername(), e.getCause().getMessage());
+                failures.add(new CalendarSyncFailure(user.getUsername(), null, e.getCause().getClass().getSimpleName()));
+                continue;
+            }
+            apply(user, result, allSyncStates.get(i), windowEnd);
+            failures.addAll(result.failures());
+        }
 
-            log.info("Mapped {} events for user: {}", mappedEvents.size(), googleEmailAddress);
+        if(failedAccountsCnt > 0 && failedAccountsCnt == users.size()) {
+            throw new IOException("Failed to sync the calendars of every account", lastAccountFailure);
         }
+        return failures;
+    }
+
+    /**
+     * Syncs one calendar of the user (Google notified a change in it)
+     * @throws IOException if the calendar cannot be listed
+     */
+    public void syncCalendar(User user, String calendarId) throws IOException {
+        LocalDateTime windowEnd = LocalDateTime.now().plusDays(lookAheadDays);
+        CalendarSyncState syncState = this.calendarSyncStateRepository.findByOwnerAndCalendarId(user, calendarId).orElse(null);
+        String syncToken = syncState != null && hasCurrentWindow(syncState, windowEnd) ? syncState.getSyncToken() : null;
+
+        CalendarChanges changes = googleCalendarService.getCalendarChanges(user.getUsername(), googleTokenService.accessToken(user), calendarId,
+                syncToken, windowEnd.atZone(ZoneId.systemDefault()).toInstant());
+        synchronized(userLock(user)) {
+            // read again, a refresh may have synced the calendar meanwhile
+            applyCalendar(user, changes, this.calendarSyncStateRepository.findByOwnerAndCalendarId(user, calendarId).orElse(null), windowEnd);
+        }
+    }
 
-        log.info("Total events retrieved: {}", allEvents.size());
-        return allEvents;
+    /**
+     * A calendar whose window lags too far behind is listed again in full, to pick up the events that entered the window
+     */
+    private boolean hasCurrentWindow(CalendarSyncState syncState, LocalDateTime windowEnd) {
+        return syncState.getWindowEnd() != null && !syncState.getWindowEnd().plusHours(windowResyncHours).isBefore(windowEnd);
+    }
+
+    private Object userLock(User user) {
+        return userLocks[Math.floorMod(user.getId().hashCode(), USER_LOCK_STRIPES)];
+    }
+
+    /**
+     * Applies the changes of the user's calendars since their last sync, and moves their sync tokens forward.
+     * The synced calendars are watched for changes from then on.
+     * @param syncStates the sync state of each calendar of the user, by calendar id
+     * @param windowEnd the end of the time window of the full listings
+     */
+    private void apply(User user, CalendarSyncResult result, Map<String, CalendarSyncState> syncStates, LocalDateTime windowEnd) {
+        synchronized(userLock(user)) {
+            for(CalendarChanges changes : result.changes()) {
+                applyCalendar(user, changes, syncStates.remove(changes.calendarId()), windowEnd);
+            }
+            // the failed calendars keep their token, the others left are calendars the user does not see anymore
+            result.failures().forEach(failure -> syncStates.remove(failure.calendarId()));
+            this.calendarSyncStateRepository.deleteAll(syncStates.values());
+        }
+
+        this.calendarWatchService.update(user, result.changes().stream().map(CalendarChanges::calendarId).toList(),
+                List.copyOf(syncStates.keySet()));
+    }
+
+    /**
+     * @param syncState the sync state of the calendar, null if it was never synced
+     */
+    private void applyCalendar(User user, CalendarChanges changes, CalendarSyncState syncState, LocalDateTime windowEnd) {
+        if(syncState == null) {
+            syncState = new CalendarSyncState();
+            syncState.setOwner(user);
+            syncState.setCalendarId(changes.calendarId());
+        }
+        if(changes.fullSync()) {
+            syncState.setWindowEnd(windowEnd);
+        }
+        applyCalendarChanges(user, changes, syncState.getWindowEnd());
+
+        syncState.setSyncToken(changes.nextSyncToken());
+        syncState.setLastSyncedAt(LocalDateTime.now());
+        this.calendarSyncStateRepository.save(syncState);
+    }
+
+    /**
+     * @param windowEnd the end of the window the calendar was last listed in full for; the new events beyond it are
+     *                  left for the full listing that moves the window, the stored ones moved beyond it are updated
+     */
+    private void applyCalendarChanges(User user, CalendarChanges changes, LocalDateTime windowEnd) {
+        List<Event> changedEvents = eventMapper.googleEventsToEvents(changes.changedEvents(), user);
+        changedEvents.forEach(event -> event.setCalendarId(changes.calendarId()));
+        saveAll(changedEvents.stream()
+                .filter(event -> event.getStartDateTime() == null || event.getStartDateTime().isBefore(windowEnd)
+                        || this.eventRepository.findOneByOwnerAndGoogleId(user, event.getGoogleId()).isPresent())
+                .toList());
+
+        for(String googleId : changes.cancelledEventIds()) {
+            // the same invite may be in another account of the user, with its own bot
+            this.eventRepository.findOneByOwnerAndGoogleId(user, googleId).ifPresent(this::deleteCancelled);
+        }
+        if(changes.fullSync()) {
+            // a full listing does not report cancellations: the future events it misses are gone
+            Set<String> listedGoogleIds = new HashSet<>();
+            changedEvents.forEach(event -> listedGoogleIds.add(event.getGoogleId()));
+            this.eventRepository.findAllByOwnerAndCalendarIdAndEndDateTimeAfter(user, changes.calendarId(), LocalDateTime.now())
+                    .stream()
+                    .filter(event -> !listedGoogleIds.contains(event.getGoogleId())
+                            && (event.getStartDateTime() == null || event.getStartDateTime().isBefore(windowEnd)))
+                    .forEach(this::deleteCancelled);
+        }
+        log.info("Synced {} changed and {} cancelled events of calendar {} for user: {}",
+                changedEvents.size(), changes.cancelledEventIds().size(), changes.calendarId(), user.getUsername());
+    }
+
+    /**
+     * Deletes an event cancelled in Google, with its bot.
+     * Events whose meeting was already recorded are kept, so their report stays available.
+     */
+    private void deleteCancelled(Event event) {
+        if(event.getEventReport() != null && event.getEventReport().getPlatform() != null) {
+            log.info("Keeping cancelled event {} (ID: {}), its meeting was already recorded", event.getTitle(), event.getId());
+            return;
+        }
+        if(event.getEventReport() != null) {
+            this.eventReportService.deleteBot(event);
+            event.setEventReport(null);
+        }
+        this.eventRepository.delete(event);
+        log.info("Deleted cancelled event {} (ID: {})", event.getTitle(), event.getId());
     }
 
     private List<Event> saveAll(List<Event> events) {
         List<Event> savedEvents = new ArrayList<>();
 
         for(Event event : events) {
-            Optional<Event> optionalOldEvent = eventRepository.findOneByGoogleId(event.getGoogleId());
+            Optional<Event> optionalOldEvent = eventRepository.findOneByOwnerAndGoogleId(event.getOwner(), event.getGoogleId());
             if(optionalOldEvent.isPresent()) {
                 Event oldEvent = optionalOldEvent.get();
                 if(eventMapper.updateEvent(oldEvent, event) && oldEvent.shouldUpdateBot()) {
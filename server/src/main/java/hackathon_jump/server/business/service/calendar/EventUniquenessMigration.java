@@ -0,0 +1,66 @@
+package hackathon_jump.server.business.service.calendar;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Makes the Google id of an event unique per owner instead of globally, so an invite shared by several accounts is
+ * stored once per account. Event tables created before keep their unique google_id column (schema updates do not
+ * drop constraints and SQLite cannot drop a column constraint), so they are rebuilt without it.
+ */
+@Component
+@Slf4j
+public class EventUniquenessMigration {
+    private static final Pattern UNIQUE_GOOGLE_ID = Pattern.compile("(google_id\\s+varchar\\(\\d+\\))\\s+unique", Pattern.CASE_INSENSITIVE);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        try {
+            List<String> tableSql = jdbcTemplate.queryForList("SELECT sql FROM sqlite_master WHERE type = 'table' AND name = 'event'", String.class);
+            if (!tableSql.isEmpty() && UNIQUE_GOOGLE_ID.matcher(tableSql.getFirst()).find()) {
+                rebuildWithoutUniqueGoogleId(tableSql.getFirst());
+            }
+            jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS unique_ownerAndGoogleId ON event (owner_id, google_id)");
+        } catch (Exception e) {
+            log.warn("Could not make the Google id of events unique per owner: {}", e.getMessage());
+        }
+    }
+
+    private void rebuildWithoutUniqueGoogleId(String tableSql) {
+        String newTableSql = UNIQUE_GOOGLE_ID.matcher(tableSql).replaceFirst("$1")
+                .replaceFirst("(?i)CREATE TABLE\\s+\"?event\"?", "CREATE TABLE event_migrated");
+        // one connection for the whole transaction; same columns in the same order, so the rows copy as they are
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("DROP TABLE IF EXISTS event_migrated");
+                statement.execute(newTableSql);
+                statement.execute("INSERT INTO event_migrated SELECT * FROM event");
+                statement.execute("DROP TABLE event");
+                statement.execute("ALTER TABLE event_migrated RENAME TO event");
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+            return null;
+        });
+        log.info("Rebuilt the event table without its globally unique Google id");
+    }
+}
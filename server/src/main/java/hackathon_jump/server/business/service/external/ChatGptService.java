@@ -1,106 +1,217 @@
 package hackathon_jump.server.business.service.external;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hackathon_jump.server.business.service.llm.LlmClient;
+import hackathon_jump.server.business.service.llm.LlmResponseCache;
+import hackathon_jump.server.business.service.summary.RollingSummaryService;
+import hackathon_jump.server.business.service.transcript.TranscriptNormalizer;
 import hackathon_jump.server.model.domain.Automation;
 import hackathon_jump.server.model.domain.EventReport;
 import hackathon_jump.server.model.domain.EventReportAutomation;
+import hackathon_jump.server.model.dto.LlmCompletion;
+import hackathon_jump.server.model.dto.LlmRequest;
+import hackathon_jump.server.model.dto.ReportContent;
+import hackathon_jump.server.model.dto.RollingSummary;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.client.HttpClientErrorException;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 @Service
 @Slf4j
 public class ChatGptService {
-    @Value("${app.openai.api-key}")
-    private String apiKey;
-    @Value("${app.openai.api-base-url}")
-    private String apiBaseUrl;
+    @Value("${app.openai.max-completion-tokens:11024}")
+    private int maxCompletionTokens;
     
-    private final RestTemplate restTemplate;
-    
-    public ChatGptService() {
-        this.restTemplate = new RestTemplate();
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private LlmResponseCache llmResponseCache;
+    @Autowired
+    private TranscriptNormalizer transcriptNormalizer;
+    @Autowired
+    private LlmClient llmClient;
+
+    /**
+     * Followed by the task; only the meeting fills it in, so it is identical for every prompt about the same report
+     */
+    private static final String MEETING_PREFIX = "You write follow-up content from business meetings, based only on what " +
+            "was said in the meeting.\n\n" +
+            "Meeting Details:\n" +
+            "- Date: %s\n" +
+            "- Attendees: %s\n" +
+            "- Platform: %s\n\n" +
+            "%s:\n%s\n\n" +
+            "Task:\n";
+    private static final String EMAIL_INSTRUCTIONS = "Please create a concise email summary that includes:\n" +
+            "1. Key discussion points\n" +
+            "2. Decisions made\n" +
+            "3. Action items\n" +
+            "4. Next steps\n\n" +
+            "Format as a professional email with appropriate subject line and closing.";
+    private static final String POST_INSTRUCTIONS = "Please create a Social Media post that:\n" +
+            "1. Is more casual and friendly\n" +
+            "2. Highlights interesting points or outcomes\n" +
+            "3. Is engaging for a broader audience\n" +
+            "4. Includes appropriate emojis\n" +
+            "5. Is conversational in tone";
+
+    /**
+     * Generates the email and the post of a report in a single structured request.
+     * Falls back to one request per text if the answer does not match the schema.
+     * @param summary the rolling summary of the meeting, null to work from the transcript
+     */
+    public ReportContent generateReportContent(EventReport eventReport, RollingSummary summary) {
+        if (summary == null && (eventReport == null || !eventReport.hasTranscript())) {
+            log.warn("Cannot generate report content: transcript is empty");
+            return new ReportContent("", "");
+        }
+
+        String prompt = meetingPrefix(eventReport, summary) +
+                "Generate a professional email summary (emailText) and a social media post (postText).\n\n" +
+                "Email (emailText): " + EMAIL_INSTRUCTIONS + "\n\n" +
+                "Post (postText): " + POST_INSTRUCTIONS;
+
+        JsonNode content = getStructuredResponse(prompt, false, "meeting_report", "emailText", "postText");
+        String emailText = requiredText(content, "emailText");
+        String postText = requiredText(content, "postText");
+        if (emailText != null && postText != null) {
+            return new ReportContent(emailText, postText);
+        }
+
+        log.warn("Invalid structured report content, falling back to one request per text");
+        return summary != null
+                ? new ReportContent(generateEmailSummary(eventReport, summary), generatePostSummary(eventReport, summary))
+                : new ReportContent(generateEmailSummary(eventReport), generatePostSummary(eventReport));
     }
 
     public String generateEmailSummary(EventReport eventReport) {
-        if (eventReport == null || eventReport.getTranscript() == null || eventReport.getTranscript().isEmpty()) {
+        if (eventReport == null || !eventReport.hasTranscript()) {
             log.warn("Cannot generate email summary: transcript is empty");
             return "";
         }
-        
-        String prompt = buildEmailPrompt(eventReport);
-        return getChatGptResponse(prompt);
-    }
-
-    private String buildEmailPrompt(EventReport eventReport) {
-        return String.format(
-                "Based on the following meeting transcript, generate a professional email summary:\n\n" +
-                        "Meeting Details:\n" +
-                        "- Date: %s\n" +
-                        "- Attendees: %s\n" +
-                        "- Platform: %s\n\n" +
-                        "Transcript:\n%s\n\n" +
-                        "Please create a concise email summary that includes:\n" +
-                        "1. Key discussion points\n" +
-                        "2. Decisions made\n" +
-                        "3. Action items\n" +
-                        "4. Next steps\n\n" +
-                        "Format as a professional email with appropriate subject line and closing.",
-                eventReport.getStartDateTime(),
-                eventReport.getAttendees(),
-                eventReport.getPlatform(),
-                eventReport.getTranscript()
-        );
+        return generateEmailSummary(eventReport, null);
+    }
+
+    /**
+     * @param summary the rolling summary of the meeting to write from instead of its whole transcript, null to use the transcript
+     */
+    public String generateEmailSummary(EventReport eventReport, RollingSummary summary) {
+        return getChatGptResponse(meetingPrefix(eventReport, summary) +
+                "Generate a professional email summary.\n" + EMAIL_INSTRUCTIONS);
     }
 
     public String generatePostSummary(EventReport eventReport) {
-        if (eventReport == null || eventReport.getTranscript() == null || eventReport.getTranscript().isEmpty()) {
+        if (eventReport == null || !eventReport.hasTranscript()) {
             log.warn("Cannot generate post: transcript is empty");
             return "";
         }
-        
-        String prompt = buildPostPrompt(eventReport);
-        return getChatGptResponse(prompt);
-    }
-
-    private String buildPostPrompt(EventReport eventReport) {
-        String postInstructions = "Please create a Social Media post that:\n" +
-                "1. Is more casual and friendly\n" +
-                "2. Highlights interesting points or outcomes\n" +
-                "3. Is engaging for a broader audience\n" +
-                "4. Includes appropriate emojis\n" +
-                "5. Is conversational in tone";
-
-        return String.format(
-                "Based on the following meeting transcript, generate a social media post:\n\n" +
-                        "Meeting Details:\n" +
-                        "- Date: %s\n" +
-                        "- Attendees: %s\n" +
-                        "- Platform: %s\n\n" +
-                        "Transcript:\n%s\n\n" +
-                        postInstructions,
-                eventReport.getStartDateTime(),
-                eventReport.getAttendees(),
-                eventReport.getPlatform(),
-                eventReport.getTranscript()
-        );
+        return generatePostSummary(eventReport, null);
+    }
+
+    /**
+     * @param summary the rolling summary of the meeting to write from instead of its whole transcript, null to use the transcript
+     */
+    public String generatePostSummary(EventReport eventReport, RollingSummary summary) {
+        return getChatGptResponse(meetingPrefix(eventReport, summary) +
+                "Generate a social media post.\n" + POST_INSTRUCTIONS);
+    }
+
+    /**
+     * Folds the next transcript chunk of a meeting into its running summary
+     * @param currentSummary the summary so far as JSON, null for the first chunk
+     * @param transcriptChunk "Speaker: text" lines
+     * @return the updated summary as JSON (as answered by the model, to be validated by the caller)
+     */
+    public String foldSummary(String currentSummary, String transcriptChunk) {
+        return getSummaryResponse(String.format(
+                "You keep a running summary of a meeting whose transcript arrives in chunks.\n\n" +
+                        "Summary so far (JSON):\n%s\n\n" +
+                        "Next transcript chunk:\n%s\n" +
+                        "Update the summary with this chunk: merge related key points, record the decisions made " +
+                        "and the action items (with their owner when it is mentioned). Keep what is still relevant " +
+                        "from the summary so far and keep each item to one sentence.\n" +
+                        "Answer with the JSON only, in this form: " +
+                        "{\"keyPoints\": [\"...\"], \"decisions\": [\"...\"], \"actionItems\": [\"...\"]}",
+                currentSummary != null ? currentSummary : "{\"keyPoints\": [], \"decisions\": [], \"actionItems\": []}",
+                transcriptChunk
+        ));
+    }
+
+    /**
+     * Summarizes one chunk of a long transcript on its own (map step of the chunked summarization)
+     * @param transcriptChunk "Speaker: text" lines
+     * @return the summary of the chunk as JSON (as answered by the model, to be validated by the caller)
+     */
+    public String summarizeChunk(String transcriptChunk, int chunkIndex, int chunkCount) {
+        return getSummaryResponse(String.format(
+                "You summarize part %d of %d of a long meeting transcript.\n\n" +
+                        "Transcript part:\n%s\n" +
+                        "List the key points discussed, the decisions made and the action items (with their owner " +
+                        "when it is mentioned) in this part only. Keep each item to one sentence.\n" +
+                        "Answer with the JSON only, in this form: " +
+                        "{\"keyPoints\": [\"...\"], \"decisions\": [\"...\"], \"actionItems\": [\"...\"]}",
+                chunkIndex + 1, chunkCount, transcriptChunk
+        ));
+    }
+
+    /**
+     * Merges the summaries of consecutive parts of a meeting into one (reduce step of the chunked summarization)
+     * @param partSummaries the summaries as JSON, in meeting order
+     * @return the merged summary as JSON (as answered by the model, to be validated by the caller)
+     */
+    public String mergeSummaries(List<String> partSummaries) {
+        StringBuilder parts = new StringBuilder();
+        for (int i = 0; i < partSummaries.size(); i++) {
+            parts.append("Part ").append(i + 1).append(":\n").append(partSummaries.get(i)).append("\n\n");
+        }
+        return getSummaryResponse(String.format(
+                "You merge the summaries of consecutive parts of one meeting, given in meeting order.\n\n" +
+                        "%s" +
+                        "Merge them into a single summary: combine duplicate or related key points, keep every decision " +
+                        "and action item (a later part may revise an earlier one) and keep each item to one sentence.\n" +
+                        "Answer with the JSON only, in this form: " +
+                        "{\"keyPoints\": [\"...\"], \"decisions\": [\"...\"], \"actionItems\": [\"...\"]}",
+                parts
+        ));
     }
 
     public EventReportAutomation generateEventReportAutomation(EventReport eventReport, Automation automation) {
-        if (eventReport == null || eventReport.getTranscript() == null || eventReport.getTranscript().isEmpty()) {
+        return generateEventReportAutomation(eventReport, automation, false, null);
+    }
+
+    /**
+     * @param bypassCache whether to ask the model again even if the same automation was generated before
+     * @param summary the summary of the meeting to work from instead of its transcript (too long to send whole), null to use the transcript
+     */
+    public EventReportAutomation generateEventReportAutomation(EventReport eventReport, Automation automation, boolean bypassCache, RollingSummary summary) {
+        if (eventReport == null || !eventReport.hasTranscript()) {
             log.error("Cannot generate automation content: transcript is empty");
             return null;
         }
 
-        String textPrompt = buildTextPrompt(eventReport, automation);
-        String titlePrompt = buildTitlePrompt(eventReport, automation);
-        
-        String generatedText = getChatGptResponse(textPrompt);
-        String generatedTitle = getChatGptResponse(titlePrompt);
+        String meetingPrefix = meetingPrefix(eventReport, summary);
+        String textPrompt = buildTextPrompt(meetingPrefix, automation);
+        JsonNode content = getStructuredResponse(textPrompt +
+                "\nAnswer with the content (text) and a good title for it (title).",
+                bypassCache, "automation_content", "title", "text");
+        String generatedText = requiredText(content, "text");
+        String generatedTitle = requiredText(content, "title");
+        if (generatedText == null || generatedTitle == null) {
+            log.warn("Invalid structured automation content, falling back to separate text and title requests");
+            generatedText = getChatGptResponse(textPrompt, bypassCache);
+            generatedTitle = getChatGptResponse(buildTitlePrompt(meetingPrefix, automation), bypassCache);
+        }
 
         EventReportAutomation newEventReportAutomation = new EventReportAutomation();
         newEventReportAutomation.setAutomation(automation);
@@ -111,15 +222,58 @@ public class ChatGptService {
         return newEventReportAutomation;
     }
 
-    private String buildTextPrompt(EventReport eventReport, Automation automation) {
-        StringBuilder prompt = new StringBuilder();
-        
-        prompt.append("Based on the following meeting transcript, generate content for a ");
+    /**
+     * Same as {@link #generateEventReportAutomation(EventReport, Automation, boolean, RollingSummary)}, but the text
+     * is streamed to the consumer while it is generated; the title follows once the text is complete.
+     * @return the generated automation, null if the text could not be generated
+     */
+    public EventReportAutomation streamEventReportAutomation(EventReport eventReport, Automation automation, boolean bypassCache,
+                                                             RollingSummary summary, Consumer<String> onDelta) {
+        if (eventReport == null || !eventReport.hasTranscript()) {
+            log.error("Cannot generate automation content: transcript is empty");
+            return null;
+        }
+
+        String meetingPrefix = meetingPrefix(eventReport, summary);
+        String generatedText = streamChatGptResponse(buildTextPrompt(meetingPrefix, automation), bypassCache, onDelta);
+        if (generatedText.isEmpty()) {
+            return null;
+        }
+        String generatedTitle = getChatGptResponse(buildTitlePrompt(meetingPrefix, automation), bypassCache);
+
+        EventReportAutomation newEventReportAutomation = new EventReportAutomation();
+        newEventReportAutomation.setAutomation(automation);
+        newEventReportAutomation.setEventReport(eventReport);
+        newEventReportAutomation.setText(generatedText);
+        newEventReportAutomation.setTitle(generatedTitle);
+
+        return newEventReportAutomation;
+    }
+
+    /**
+     * The start shared by every prompt about a meeting: the general instructions, the meeting details and
+     * its transcript (or summary). The task comes after it, so OpenAI's prompt caching can reuse this prefix
+     * across the email, the post and the automations of a report.
+     * @param summary the summary of the meeting to use instead of its transcript, null to use the transcript
+     */
+    private String meetingPrefix(EventReport eventReport, RollingSummary summary) {
+        return String.format(MEETING_PREFIX,
+                eventReport.getStartDateTime(),
+                eventReport.getAttendees(),
+                eventReport.getPlatform(),
+                summary != null ? "Summary" : "Transcript",
+                summary != null ? summary.toOutline() : transcriptNormalizer.normalize(eventReport));
+    }
+
+    private String buildTextPrompt(String meetingPrefix, Automation automation) {
+        StringBuilder prompt = new StringBuilder(meetingPrefix);
+
+        prompt.append("Generate content for a ");
         prompt.append(automation.getAutomationType().toString().toLowerCase().replace("_", " "));
         prompt.append(" for ");
         prompt.append(automation.getMediaPlatform().toString().toLowerCase());
-        prompt.append("(just tell me the content, nothing else):\n\n");
-        
+        prompt.append(" (just tell me the content, nothing else).\n\n");
+
         prompt.append("Automation Details:\n");
         prompt.append("- Title: ").append(automation.getTitle()).append("\n");
         prompt.append("- Type: ").append(automation.getAutomationType()).append("\n");
@@ -128,75 +282,205 @@ public class ChatGptService {
         if (automation.getExample() != null && !automation.getExample().isEmpty()) {
             prompt.append("- Example: ").append(automation.getExample()).append("\n");
         }
-        prompt.append("\n");
-        
-        prompt.append("Meeting Details:\n");
-        prompt.append("- Date: ").append(eventReport.getStartDateTime()).append("\n");
-        prompt.append("- Attendees: ").append(eventReport.getAttendees()).append("\n");
-        prompt.append("- Platform: ").append(eventReport.getPlatform()).append("\n\n");
-        
-        prompt.append("Transcript:\n").append(eventReport.getTranscript()).append("\n\n");
-        
+
         return prompt.toString();
     }
 
-    private String buildTitlePrompt(EventReport eventReport, Automation automation) {
-        return String.format("Give me a good title(just a title, nothing else) for %s with this text:\n\n%s",
-            automation.getMediaPlatform().toString().toLowerCase(), 
-            eventReport.getTranscript());
+    private String buildTitlePrompt(String meetingPrefix, Automation automation) {
+        return meetingPrefix + String.format("Give me a good title (just a title, nothing else) for a %s post about this meeting.",
+            automation.getMediaPlatform().toString().toLowerCase());
     }
 
     public String getChatGptResponse(String prompt) {
-        log.info("Sending request to ChatGPT API");
-        
-        String apiUrl = apiBaseUrl + "/v1/chat/completions";
-        
-        HttpHeaders headers = new HttpHeaders();
-        headers.set("Authorization", "Bearer " + apiKey);
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        
-        Map<String, Object> requestBody = new HashMap<>();
-        requestBody.put("model", "gpt-5-mini");
-        requestBody.put("max_completion_tokens", 11024);
-        
-        Map<String, Object> message = new HashMap<>();
-        message.put("role", "user");
-        message.put("content", prompt);
-        requestBody.put("messages", new Object[]{message});
-        
-        HttpEntity<Map<String, Object>> requestEntity = new HttpEntity<>(requestBody, headers);
-        
+        return getChatGptResponse(prompt, false);
+    }
+
+    /**
+     * @param bypassCache whether to ask the model again even if the same request was answered before
+     */
+    public String getChatGptResponse(String prompt, boolean bypassCache) {
+        return sendChatCompletion(prompt, null, bypassCache, answer -> true);
+    }
+
+    /**
+     * Sends a prompt answered with a summary as JSON; only an answer that reads as a summary is cached
+     */
+    private String getSummaryResponse(String prompt) {
+        return sendChatCompletion(prompt, null, false, answer -> RollingSummaryService.parse(objectMapper, answer) != null);
+    }
+
+    /**
+     * Sends a request constrained by a JSON schema whose properties are the given required string fields
+     * @return the parsed answer, null if the request failed or the answer is not JSON
+     */
+    private JsonNode getStructuredResponse(String prompt, boolean bypassCache, String schemaName, String... fields) {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        for (String field : fields) {
+            properties.put(field, Map.of("type", "string"));
+        }
+        Map<String, Object> schema = Map.of(
+                "type", "object",
+                "properties", properties,
+                "required", List.of(fields),
+                "additionalProperties", false);
+        Map<String, Object> responseFormat = Map.of(
+                "type", "json_schema",
+                "json_schema", Map.of("name", schemaName, "strict", true, "schema", schema));
+
+        String content = sendChatCompletion(prompt, responseFormat, bypassCache, answer -> hasRequiredText(answer, fields));
+        if (content.isEmpty()) {
+            return null;
+        }
+        try {
+            return objectMapper.readTree(content);
+        } catch (Exception e) {
+            log.warn("Structured ChatGPT response {} is not valid JSON: {}", schemaName, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @return whether the answer is JSON with a non blank value for each field
+     */
+    private boolean hasRequiredText(String answer, String... fields) {
         try {
-            @SuppressWarnings("unchecked")
-            ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
-                apiUrl, HttpMethod.POST, requestEntity, (Class<Map<String, Object>>) (Class<?>) Map.class);
-            
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                Map<String, Object> responseBody = response.getBody();
-                
-                if (responseBody.containsKey("choices")) {
-                    @SuppressWarnings("unchecked")
-                    java.util.List<Map<String, Object>> choices = (java.util.List<Map<String, Object>>) responseBody.get("choices");
-                    
-                    if (!choices.isEmpty()) {
-                        Map<String, Object> firstChoice = choices.get(0);
-                        if (firstChoice.containsKey("message")) {
-                            @SuppressWarnings("unchecked")
-                            Map<String, Object> messageObj = (Map<String, Object>) firstChoice.get("message");
-                            String content = (String) messageObj.get("content");
-                            log.info("Successfully received ChatGPT response, length: {} characters", content.length());
-                            return content.trim();
-                        }
-                    }
+            JsonNode content = objectMapper.readTree(answer);
+            for (String field : fields) {
+                if (requiredText(content, field) == null) {
+                    return false;
                 }
             }
-            
-            log.error("Unexpected response format from ChatGPT API");
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return the trimmed value of the field, null if it is missing or blank
+     */
+    private static String requiredText(JsonNode content, String field) {
+        if (content == null || !content.path(field).isTextual() || content.path(field).asText().isBlank()) {
+            return null;
+        }
+        return content.path(field).asText().trim();
+    }
+
+    /**
+     * @param cacheable whether an answer can be used by the caller; any other answer is neither cached nor taken from the cache
+     */
+    private String sendChatCompletion(String prompt, Map<String, Object> responseFormat, boolean bypassCache, Predicate<String> cacheable) {
+        log.info("Sending request to {}", llmClient.model());
+
+        String cacheKey = llmResponseCache.key(cacheKeyBody(prompt, responseFormat));
+        if (bypassCache) {
+            llmResponseCache.countBypass();
+        } else {
+            Optional<String> cached = llmResponseCache.get(cacheKey);
+            if (cached.isPresent() && cacheable.test(cached.get())) {
+                log.info("Using cached ChatGPT response, length: {} characters", cached.get().length());
+                return cached.get();
+            }
+            if (cached.isPresent()) {
+                // cached before answers were validated, the new answer replaces it
+                log.warn("Ignoring cached ChatGPT response that cannot be used, length: {} characters", cached.get().length());
+            }
+        }
+
+        LlmCompletion completion;
+        try {
+            completion = llmClient.complete(new LlmRequest(prompt, responseFormat, maxCompletionTokens));
+        } catch (HttpClientErrorException.TooManyRequests e) {
+            log.error("ChatGPT API rate limit exceeded: {}", e.getMessage());
             return "";
-            
         } catch (Exception e) {
             log.error("Error calling ChatGPT API: {}", e.getMessage());
             return "";
         }
+
+        String content = completion.content();
+        if (completion.isTruncated()) {
+            // the answer was cut at max_completion_tokens: never cache it, and never hand out a cut JSON
+            log.error("ChatGPT response was truncated at {} completion tokens (prompt of {} characters)",
+                    maxCompletionTokens, prompt.length());
+            return responseFormat != null ? "" : content.trim();
+        }
+        log.info("Successfully received ChatGPT response, length: {} characters, {} prompt ({} cached) + {} completion tokens",
+                content.length(), completion.promptTokens(), completion.cachedPromptTokens(), completion.completionTokens());
+        String answer = content.trim();
+        if (!answer.isEmpty() && cacheable.test(answer)) {
+            llmResponseCache.put(cacheKey, llmClient.model(), answer);
+        } else if (!answer.isEmpty()) {
+            log.warn("Not caching ChatGPT response that cannot be used, length: {} characters", answer.length());
+        }
+        return answer;
+    }
+
+    /**
+     * Streams the answer to a plain text prompt, handing each piece of text to the consumer as it arrives.
+     * A cached answer is handed over in one piece.
+     * @return the whole answer, "" if the request failed
+     */
+    public String streamChatGptResponse(String prompt, boolean bypassCache, Consumer<String> onDelta) {
+        log.info("Sending streaming request to {}", llmClient.model());
+
+        // same key as the non-streaming request, both give the same answer
+        String cacheKey = llmResponseCache.key(cacheKeyBody(prompt, null));
+        if (bypassCache) {
+            llmResponseCache.countBypass();
+        } else {
+            Optional<String> cached = llmResponseCache.get(cacheKey);
+            if (cached.isPresent()) {
+                log.info("Using cached ChatGPT response, length: {} characters", cached.get().length());
+                onDelta.accept(cached.get());
+                return cached.get();
+            }
+        }
+
+        StringBuilder streamed = new StringBuilder();
+        LlmCompletion completion;
+        try {
+            completion = llmClient.stream(new LlmRequest(prompt, null, maxCompletionTokens), delta -> {
+                streamed.append(delta);
+                onDelta.accept(delta);
+            });
+        } catch (HttpClientErrorException.TooManyRequests e) {
+            log.error("ChatGPT API rate limit exceeded while streaming: {}", e.getMessage());
+            return "";
+        } catch (Exception e) {
+            log.error("Error streaming from ChatGPT API after {} characters: {}", streamed.length(), e.getMessage());
+            return "";
+        }
+
+        String result = completion.content().trim();
+        if (completion.isTruncated()) {
+            log.error("Streamed ChatGPT response was truncated at {} completion tokens (prompt of {} characters)",
+                    maxCompletionTokens, prompt.length());
+            return result;
+        }
+        log.info("Successfully streamed ChatGPT response, length: {} characters, {} prompt ({} cached) + {} completion tokens",
+                result.length(), completion.promptTokens(), completion.cachedPromptTokens(), completion.completionTokens());
+        if (!result.isEmpty()) {
+            llmResponseCache.put(cacheKey, llmClient.model(), result);
+        }
+        return result;
+    }
+
+    /**
+     * The request as the OpenAI API sees it, so the keys of the answers cached before stay valid
+     */
+    private Map<String, Object> cacheKeyBody(String prompt, Map<String, Object> responseFormat) {
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("model", llmClient.model());
+        requestBody.put("max_completion_tokens", maxCompletionTokens);
+
+        Map<String, Object> message = new HashMap<>();
+        message.put("role", "user");
+        message.put("content", prompt);
+        requestBody.put("messages", new Object[]{message});
+        if (responseFormat != null) {
+            requestBody.put("response_format", responseFormat);
+        }
+        return requestBody;
     }
 }
@@ -0,0 +1,122 @@
+package hackathon_jump.server.business.service.external;
+
+import com.google.api.services.calendar.model.Channel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for Google's push notifications, to run the watch channel path offline and in tests
+ * (channels are then opened here instead of at Google).
+ *
+ * Like Google, it posts a "sync" notification when a channel is opened, then an "exists" notification for each change
+ * of the calendar, with the X-Goog-* headers and an empty body. Changes are triggered with {@link #emitChange}, or
+ * simulated on every open channel each app.google.calendar.watch.stub.interval-ms (0 to disable).
+ */
+@Component
+@ConditionalOnProperty(name = "app.google.calendar.watch.stub.enabled", havingValue = "true")
+@Slf4j
+public class GoogleCalendarNotificationStub {
+    @Value("${app.google.calendar.watch.stub.interval-ms:0}")
+    private long intervalMs;
+
+    private record StubChannel(String calendarId, String channelId, String resourceId, String token, String address,
+                               Instant expiration, AtomicLong messageNumber) {
+    }
+
+    private final Map<String, StubChannel> channels = new ConcurrentHashMap<>();
+    private HttpClient httpClient;
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void start() {
+        httpClient = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+        scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().factory());
+        if (intervalMs > 0) {
+            scheduler.scheduleWithFixedDelay(() -> channels.values().forEach(channel -> emitChange(channel.calendarId())),
+                    intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        }
+        log.info("Google calendar notification stub started (simulated change every {} ms)", intervalMs);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+        httpClient.close();
+    }
+
+    public Channel watch(String calendarId, String channelId, String token, String address, Instant expiration) {
+        StubChannel channel = new StubChannel(calendarId, channelId, "stub-" + calendarId, token, address, expiration, new AtomicLong());
+        channels.put(channelId, channel);
+        scheduler.execute(() -> send(channel, "sync"));
+        return new Channel()
+                .setId(channelId)
+                .setResourceId(channel.resourceId())
+                .setExpiration(expiration.toEpochMilli());
+    }
+
+    public void stop(String channelId) {
+        channels.remove(channelId);
+    }
+
+    /**
+     * Notifies the channels watching the calendar that it changed
+     * @return the number of notifications the server accepted
+     */
+    public int emitChange(String calendarId) {
+        int acceptedCnt = 0;
+        for (StubChannel channel : channels.values()) {
+            if (channel.calendarId().equals(calendarId) && send(channel, "exists")) {
+                acceptedCnt++;
+            }
+        }
+        return acceptedCnt;
+    }
+
+    private boolean send(StubChannel channel, String resourceState) {
+        if (channel.expiration().isBefore(Instant.now())) {
+            channels.remove(channel.channelId());
+            return false;
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(channel.address()))
+                .header("X-Goog-Channel-ID", channel.channelId())
+                .header("X-Goog-Channel-Token", channel.token())
+                .header("X-Goog-Channel-Expiration", channel.expiration().toString())
+                .header("X-Goog-Resource-ID", channel.resourceId())
+                .header("X-Goog-Resource-URI", "https://www.googleapis.com/calendar/v3/calendars/" +
+                        URLEncoder.encode(channel.calendarId(), StandardCharsets.UTF_8) + "/events?alt=json")
+                .header("X-Goog-Resource-State", resourceState)
+                .header("X-Goog-Message-Number", String.valueOf(channel.messageNumber().incrementAndGet()))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        try {
+            int status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            log.debug("Notified {} of calendar {} on channel {}: {}", resourceState, channel.calendarId(), channel.channelId(), status);
+            return status / 100 == 2;
+        } catch (IOException e) {
+            log.warn("Failed to notify channel {}: {}", channel.channelId(), e.getMessage());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -2,75 +2,362 @@ package hackathon_jump.server.business.service.external;
 
 import com.google.api.client.auth.oauth2.Credential;
 import com.google.api.client.googleapis.auth.oauth2.GoogleCredential;
-import com.google.api.client.googleapis.javanet.GoogleNetHttpTransport;
-import com.google.api.client.http.javanet.NetHttpTransport;
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
+import com.google.api.client.http.HttpTransport;
 import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.client.util.DateTime;
 import com.google.api.services.calendar.Calendar;
 import com.google.api.services.calendar.model.CalendarList;
 import com.google.api.services.calendar.model.CalendarListEntry;
+import com.google.api.services.calendar.model.Channel;
 import com.google.api.services.calendar.model.Event;
 import com.google.api.services.calendar.model.Events;
+import hackathon_jump.server.model.dto.CalendarChanges;
+import hackathon_jump.server.model.dto.CalendarSyncFailure;
+import hackathon_jump.server.model.dto.CalendarSyncResult;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
-import java.security.GeneralSecurityException;
+import java.io.UncheckedIOException;
 import java.time.Instant;
-import java.time.ZoneOffset;
-import java.time.format.DateTimeFormatter;
-
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 
 @Service
 @Slf4j
 public class GoogleCalendarService {
 
-    private static final String APPLICATION_NAME = "MeetScribe Server";
-    private static final NetHttpTransport HTTP_TRANSPORT;
+    // Google only compresses responses for user agents containing "gzip"
+    private static final String APPLICATION_NAME = "MeetScribe Server (gzip)";
+    /**
+     * the only parts of an event that are read (see EventMapper), plus its status for cancellations
+     */
+    private static final String EVENT_FIELDS = "nextPageToken,nextSyncToken," +
+            "items(id,status,summary,description,location,start,end,attendees/email,creator/email)";
+    private static final String CALENDAR_FIELDS = "etag,nextPageToken,items(id,summary)";
+    private static final int MAX_PAGE_SIZE = 2500;
+    private static final int MAX_CALENDAR_PAGE_SIZE = 250;
 
-    static {
-        try {
-            HTTP_TRANSPORT = GoogleNetHttpTransport.newTrustedTransport();
-        } catch (GeneralSecurityException | IOException e) {
-            throw new RuntimeException("Failed to initialize HTTP transport", e);
+    @Autowired
+    private HttpTransport httpTransport;
+
+    @Value("${app.google.calendar.max-concurrent-per-user:4}")
+    private int maxConcurrentPerUser;
+    @Value("${app.google.calendar.client-cache-size:500}")
+    private int clientCacheSize;
+
+    private record AccountClient(String accessToken, Calendar calendar) {
+    }
+
+    private record CachedCalendarList(String etag, List<CalendarListEntry> calendars) {
+    }
+
+    /**
+     * the Calendar client of each account, rebuilt when the account's access token changes
+     */
+    private final Map<String, AccountClient> clients = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, AccountClient> eldest) {
+            return size() > clientCacheSize;
+        }
+    };
+    /**
+     * the calendar list of each account, revalidated with its ETag (If-None-Match) on every sync
+     */
+    private final Map<String, CachedCalendarList> calendarLists = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedCalendarList> eldest) {
+            return size() > clientCacheSize;
         }
+    };
+
+    private ExecutorService executor;
+    /**
+     * bounds the concurrent Google calls of each account, whatever the number of requests syncing it
+     * (kept for the app.google.calendar.client-cache-size most recently synced accounts)
+     */
+    private final Map<String, Semaphore> accountPermits = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Semaphore> eldest) {
+            return size() > clientCacheSize;
+        }
+    };
+
+    @PostConstruct
+    public void init() {
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
     }
 
-    public List<Event> getCalendarEvents(String accessToken) throws IOException {
-        Credential credential = new GoogleCredential()
-                .setAccessToken(accessToken);
+    @PreDestroy
+    public void shutdown() {
+        this.executor.shutdownNow();
+    }
 
-        Calendar service = new Calendar.Builder(HTTP_TRANSPORT, GsonFactory.getDefaultInstance(), credential)
-                .setApplicationName(APPLICATION_NAME)
-                .build();
+    /**
+     * Same as {@link #getCalendarChanges}, on a virtual thread, so the accounts of a session are synced together
+     */
+    public CompletableFuture<CalendarSyncResult> getCalendarChangesAsync(String account, String accessToken, Map<String, String> syncTokens,
+                                                                         Instant windowEnd) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return getCalendarChanges(account, accessToken, syncTokens, windowEnd);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor);
+    }
 
-        // Get all calendars
-        CalendarList calendarList = service.calendarList().list().execute();
-        List<CalendarListEntry> calendars = calendarList.getItems();
+    /**
+     * Lists what changed in each calendar of the account since its last sync. The calendars are fetched concurrently
+     * (at most app.google.calendar.max-concurrent-per-user calls at a time per account, so the calendars take
+     * one round trip per that many calendars after the calendar list); a calendar that fails is
+     * reported in the failures instead of failing the others.
+     * A calendar without a sync token, or whose token expired (410 Gone), gets a full listing of its events from now to the window end instead.
+     * @param account the Google account (email address) the token belongs to
+     * @param syncTokens the nextSyncToken of the last sync of each calendar, by calendar id
+     * @param windowEnd the end of the time window of the full listings (recurring events are expanded up to it)
+     * @throws IOException if the calendars of the account cannot be listed
+     */
+    public CalendarSyncResult getCalendarChanges(String account, String accessToken, Map<String, String> syncTokens, Instant windowEnd) throws IOException {
+        Calendar service = calendarClient(account, accessToken);
+        Semaphore permits = permits(account);
 
-        List<Event> allEvents = new ArrayList<>();
+        List<CalendarListEntry> calendars = withPermit(permits, () -> listCalendars(account, service));
 
-        // Fetch events from each calendar
+        List<Future<CalendarChanges>> futures = new ArrayList<>();
         for (CalendarListEntry calendar : calendars) {
-            // Get current time in RFC3339 format for Google Calendar API
-            String currentTime = Instant.now().atOffset(ZoneOffset.UTC).format(DateTimeFormatter.ISO_INSTANT);
-            
-            Events events = service.events()
-                    .list(calendar.getId())
-                    .setOrderBy("startTime")
+            futures.add(executor.submit(() -> withPermit(permits, () -> syncCalendar(service, calendar, syncTokens.get(calendar.getId()), windowEnd))));
+        }
+
+        // merged in calendar list order, whatever order the calls finish in
+        List<CalendarChanges> allChanges = new ArrayList<>();
+        List<CalendarSyncFailure> failures = new ArrayList<>();
+        for (int i = 0; i < calendars.size(); i++) {
+            CalendarListEntry calendar = calendars.get(i);
+            try {
+                allChanges.add(futures.get(i).get());
+            } catch (ExecutionException e) {
+                log.error("Failed to sync calendar {} of {}: {}", calendar.getSummary(), account, e.getCause().getMessage());
+                failures.add(new CalendarSyncFailure(account, calendar.getId(), failureReason(e.getCause())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while syncing the calendars of " + account, e);
+            }
+        }
+        return new CalendarSyncResult(allChanges, failures);
+    }
+
+    /**
+     * Lists what changed in one calendar of the account since its last sync (e.g. when Google notified a change in it)
+     * @param syncToken null for a full listing of its events from now to the window end
+     * @throws IOException if the calendar cannot be listed
+     */
+    public CalendarChanges getCalendarChanges(String account, String accessToken, String calendarId, String syncToken,
+                                              Instant windowEnd) throws IOException {
+        Calendar service = calendarClient(account, accessToken);
+        CalendarListEntry calendar = new CalendarListEntry().setId(calendarId).setSummary(calendarId);
+        return withPermit(permits(account), () -> syncCalendar(service, calendar, syncToken, windowEnd));
+    }
+
+    /**
+     * Asks Google to push a notification to the address whenever an event of the calendar changes
+     * @param token the secret Google sends back in every notification of the channel
+     * @return the channel opened by Google, with the id of the watched resource and the actual expiration
+     */
+    public Channel watchEvents(String account, String accessToken, String calendarId, String channelId, String token,
+                               String address, Instant expiration) throws IOException {
+        Calendar service = calendarClient(account, accessToken);
+        Channel channel = new Channel()
+                .setId(channelId)
+                .setType("web_hook")
+                .setAddress(address)
+                .setToken(token)
+                .setExpiration(expiration.toEpochMilli());
+        return withPermit(permits(account), () -> service.events().watch(calendarId, channel).execute());
+    }
+
+    public void stopChannel(String account, String accessToken, String channelId, String resourceId) throws IOException {
+        Calendar service = calendarClient(account, accessToken);
+        Channel channel = new Channel()
+                .setId(channelId)
+                .setResourceId(resourceId);
+        withPermit(permits(account), () -> service.channels().stop(channel).execute());
+    }
+
+    private Semaphore permits(String account) {
+        synchronized (accountPermits) {
+            return accountPermits.computeIfAbsent(account, ignored -> new Semaphore(maxConcurrentPerUser));
+        }
+    }
+
+    /**
+     * Lists the calendars of the account. A list that fits in one page is cached, and only downloaded again
+     * when Google reports that it changed (its ETag does not match anymore).
+     */
+    private List<CalendarListEntry> listCalendars(String account, Calendar service) throws IOException {
+        CachedCalendarList cached;
+        synchronized (calendarLists) {
+            cached = calendarLists.get(account);
+        }
+
+        List<CalendarListEntry> calendars = new ArrayList<>();
+        String etag = null;
+        String pageToken = null;
+        int pages = 0;
+        do {
+            Calendar.CalendarList.List request = service.calendarList().list()
+                    .setFields(CALENDAR_FIELDS)
+                    .setMaxResults(MAX_CALENDAR_PAGE_SIZE)
+                    .setPageToken(pageToken);
+            if (cached != null) {
+                request.getRequestHeaders().setIfNoneMatch(cached.etag());
+            }
+            CalendarList calendarList;
+            try {
+                calendarList = request.execute();
+            } catch (GoogleJsonResponseException e) {
+                if (cached == null || e.getStatusCode() != HttpStatus.NOT_MODIFIED.value()) {
+                    throw e;
+                }
+                log.debug("Calendar list of {} not modified", account);
+                return cached.calendars();
+            }
+            // only the first page is revalidated, a list spanning more pages is listed in full every time
+            cached = null;
+            if (pages++ == 0) {
+                etag = calendarList.getEtag();
+            }
+            if (calendarList.getItems() != null) {
+                calendars.addAll(calendarList.getItems());
+            }
+            pageToken = calendarList.getNextPageToken();
+        } while (pageToken != null);
+
+        synchronized (calendarLists) {
+            if (pages == 1 && etag != null) {
+                calendarLists.put(account, new CachedCalendarList(etag, List.copyOf(calendars)));
+            } else {
+                calendarLists.remove(account);
+            }
+        }
+        return calendars;
+    }
+
+    private CalendarChanges syncCalendar(Calendar service, CalendarListEntry calendar, String syncToken, Instant windowEnd) throws IOException {
+        CalendarChanges changes;
+        try {
+            changes = listChanges(service, calendar.getId(), syncToken, windowEnd);
+        } catch (GoogleJsonResponseException e) {
+            if (syncToken == null || e.getStatusCode() != HttpStatus.GONE.value()) {
+                throw e;
+            }
+            log.info("Sync token of calendar {} expired, doing a full sync", calendar.getSummary());
+            changes = listChanges(service, calendar.getId(), null, windowEnd);
+        }
+        log.info("Retrieved {} changed and {} cancelled events from calendar: {}{}", changes.changedEvents().size(),
+                changes.cancelledEventIds().size(), calendar.getSummary(), changes.fullSync() ? " (full sync)" : "");
+        return changes;
+    }
+
+    private interface GoogleCall<T> {
+        T execute() throws IOException;
+    }
+
+    private static <T> T withPermit(Semaphore permits, GoogleCall<T> call) throws IOException {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting to call Google", e);
+        }
+        try {
+            return call.execute();
+        } finally {
+            permits.release();
+        }
+    }
+
+    private static String failureReason(Throwable e) {
+        if (e instanceof GoogleJsonResponseException googleException) {
+            return googleException.getStatusCode() + " " + googleException.getStatusMessage();
+        }
+        return e.getClass().getSimpleName();
+    }
+
+    /**
+     * Lists the changes of a calendar, page by page up to the last one (which carries the next sync token).
+     * Only the fields the server reads are requested.
+     * @param syncToken null for a full listing of the events from now to the window end
+     */
+    private CalendarChanges listChanges(Calendar service, String calendarId, String syncToken, Instant windowEnd) throws IOException {
+        List<Event> changedEvents = new ArrayList<>();
+        List<String> cancelledEventIds = new ArrayList<>();
+        String pageToken = null;
+        Events events;
+        do {
+            Calendar.Events.List request = service.events()
+                    .list(calendarId)
                     .setSingleEvents(true)
-                    .setTimeMin(new com.google.api.client.util.DateTime(currentTime))
-                    .execute();
+                    .setMaxResults(MAX_PAGE_SIZE)
+                    .setFields(EVENT_FIELDS)
+                    .setPageToken(pageToken);
+            if (syncToken != null) {
+                // a sync token cannot be combined with a time range or an order
+                request.setSyncToken(syncToken);
+            } else {
+                request.setTimeMin(new DateTime(System.currentTimeMillis()));
+                request.setTimeMax(new DateTime(windowEnd.toEpochMilli()));
+            }
+            events = request.execute();
 
-            List<Event> googleEvents = events.getItems();
-            if (googleEvents != null) {
-                allEvents.addAll(googleEvents);
-                log.info("Retrieved {} events from calendar: {}", googleEvents.size(), calendar.getSummary());
+            if (events.getItems() != null) {
+                for (Event event : events.getItems()) {
+                    if ("cancelled".equals(event.getStatus())) {
+                        cancelledEventIds.add(event.getId());
+                    } else {
+                        changedEvents.add(event);
+                    }
+                }
+            }
+            pageToken = events.getNextPageToken();
+        } while (pageToken != null);
+
+        return new CalendarChanges(calendarId, changedEvents, cancelledEventIds, events.getNextSyncToken(), syncToken == null);
+    }
+
+    /**
+     * @return the cached Calendar client of the account, or a new one if the account has none yet or its token changed
+     */
+    private Calendar calendarClient(String account, String accessToken) {
+        synchronized (clients) {
+            AccountClient cached = clients.get(account);
+            if (cached != null && cached.accessToken().equals(accessToken)) {
+                return cached.calendar();
             }
         }
 
-        log.info("Retrieved {} total future calendar events from {} calendars", allEvents.size(), calendars.size());
-        return allEvents;
+        Credential credential = new GoogleCredential()
+                .setAccessToken(accessToken);
+        Calendar calendar = new Calendar.Builder(httpTransport, GsonFactory.getDefaultInstance(), credential)
+                .setApplicationName(APPLICATION_NAME)
+                .build();
+        synchronized (clients) {
+            clients.put(account, new AccountClient(accessToken, calendar));
+        }
+        return calendar;
     }
 }
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import hackathon_jump.server.infrastructure.repository.IUserRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
@@ -21,11 +22,12 @@ public class LinkedinService {
     @Value("${app.linkedin.api-base-url}")
     private String linkedinApiBaseUrl;
     
-    private final RestTemplate restTemplate;
+    @Autowired
+    @Qualifier("linkedinRestTemplate")
+    private RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
     
     public LinkedinService() {
-        this.restTemplate = new RestTemplate();
         this.objectMapper = new ObjectMapper();
     }
     
@@ -1,18 +1,39 @@
 package hackathon_jump.server.business.service.external;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import hackathon_jump.server.model.domain.EventReport;
+import hackathon_jump.server.model.dto.BotSnapshot;
+import hackathon_jump.server.model.dto.TranscriptTurn;
+import hackathon_jump.server.model.enums.ERecallEndpoint;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 @Service
 @Slf4j
@@ -21,11 +42,28 @@ public class RecallAiService {
     private String apiKey;
     @Value("${app.recall.api-base-url}")
     private String apiBaseUrl;
+    @Value("${app.recall.snapshot-ttl-ms:20000}")
+    private long snapshotTtlMs;
+    @Value("${app.base-url:}")
+    private String baseUrl;
+    @Value("${app.recall.realtime-token:}")
+    private String realtimeToken;
     
-    private final RestTemplate restTemplate;
+    @Autowired
+    private RecallTranscriptParser recallTranscriptParser;
+    @Autowired
+    private RecallApiGuard recallApiGuard;
     
-    public RecallAiService() {
-        this.restTemplate = new RestTemplate();
+    @Autowired
+    @Qualifier("recallRestTemplate")
+    private RestTemplate restTemplate;
+
+    /**
+     * short lived memo of bot snapshots, so the scheduler and the controllers fetch each bot once per cycle
+     */
+    private final Map<String, TimedSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    private record TimedSnapshot(BotSnapshot snapshot, Instant fetchedAt) {
     }
     
     public void logApiKeyStatus() {
@@ -52,7 +90,7 @@ public class RecallAiService {
      */
     public String createBot(String meetingUrl, String joinAt) {
         // Use Assembly AI streaming as default transcript provider
-        return createBot(meetingUrl, joinAt, "assembly_ai_streaming", null);
+        return createBot(meetingUrl, joinAt, "assembly_ai_streaming", realtimeWebhookUrl());
     }
     
     /**
@@ -77,7 +115,8 @@ public class RecallAiService {
         HttpEntity<Map<String, Object>> requestEntity = createRequestEntityWithTranscript(meetingUrl, joinAt, transcriptProvider, webhookUrl, headers);
         
         try {
-            ResponseEntity<Map<String, Object>> response = restTemplate.postForEntity(apiBaseUrl, requestEntity, (Class<Map<String, Object>>) (Class<?>) Map.class);
+            ResponseEntity<Map<String, Object>> response = recallApiGuard.call(ERecallEndpoint.CREATE_BOT,
+                    () -> restTemplate.postForEntity(apiBaseUrl, requestEntity, (Class<Map<String, Object>>) (Class<?>) Map.class));
             
             if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
                 String botId = (String) response.getBody().get("id");
@@ -97,69 +136,43 @@ public class RecallAiService {
             log.warn("Cannot fill EventReport: botId is null");
             return;
         }
-        
+        fillEventReport(eventReport, getBotSnapshot(eventReport.getBotId()));
+    }
+
+    /**
+     * Fills start time and attendees of the report from an already fetched bot snapshot.
+     * The transcript is downloaded separately, see {@link #downloadTranscript(String, Consumer)}
+     */
+    public void fillEventReport(EventReport eventReport, BotSnapshot botSnapshot) {
         String botId = eventReport.getBotId();
         log.info("Filling EventReport for bot: {}", botId);
         
         try {
-            // Get bot details
-            Map<String, Object> botDetails = retrieveBot(botId);
-            if (botDetails == null) {
-                log.warn("Bot details not found for botId: {}", botId);
-                return;
-            }
-            
             // Fill startDateTime from bot
-            if (botDetails.containsKey("join_at")) {
-                String joinAt = (String) botDetails.get("join_at");
-                if (joinAt != null && !joinAt.isEmpty()) {
-                    try {
-                        Instant instant = Instant.parse(joinAt);
-                        eventReport.setStartDateTime(instant.atOffset(ZoneOffset.UTC).toLocalDateTime());
-                        log.debug("Set startDateTime from bot: {}", eventReport.getStartDateTime());
-                    } catch (Exception e) {
-                        log.warn("Failed to parse join_at time: {}", joinAt);
-                    }
+            String joinAt = botSnapshot.joinAt();
+            if (joinAt != null && !joinAt.isEmpty()) {
+                try {
+                    Instant instant = Instant.parse(joinAt);
+                    eventReport.setStartDateTime(instant.atOffset(ZoneOffset.UTC).toLocalDateTime());
+                    log.debug("Set startDateTime from bot: {}", eventReport.getStartDateTime());
+                } catch (Exception e) {
+                    log.warn("Failed to parse join_at time: {}", joinAt);
                 }
             }
             
             // Fill attendees from meeting_participants (if available in bot details)
-            if (botDetails.containsKey("meeting_participants")) {
-                Object participantsObj = botDetails.get("meeting_participants");
-                if (participantsObj instanceof java.util.List) {
-                    @SuppressWarnings("unchecked")
-                    java.util.List<Map<String, Object>> participants = (java.util.List<Map<String, Object>>) participantsObj;
-                    
-                    java.util.List<String> attendeeNames = new java.util.ArrayList<>();
-                    for (Map<String, Object> participant : participants) {
-                        if (participant.containsKey("name")) {
-                            String name = (String) participant.get("name");
-                            if (name != null && !name.trim().isEmpty()) {
-                                attendeeNames.add(name);
-                            }
-                        }
-                    }
-                    
-                    if (!attendeeNames.isEmpty()) {
-                        eventReport.setAttendees(String.join(", ", attendeeNames));
-                        log.debug("Set attendees from meeting_participants: {}", eventReport.getAttendees());
+            if (botSnapshot.meetingParticipants() != null) {
+                List<String> attendeeNames = new ArrayList<>();
+                for (BotSnapshot.Participant participant : botSnapshot.meetingParticipants()) {
+                    if (participant.name() != null && !participant.name().trim().isEmpty()) {
+                        attendeeNames.add(participant.name());
                     }
                 }
-            }
-            
-            // Fill transcript if available
-            if (isTranscriptAvailable(botId)) {
-                try {
-                    String transcript = getTranscript(botId);
-                    if (transcript != null && !transcript.isEmpty()) {
-                        eventReport.setTranscript(transcript);
-                        log.debug("Set transcript from bot, length: {} characters", transcript.length());
-                    }
-                } catch (Exception e) {
-                    log.warn("Failed to get transcript for bot {}: {}", botId, e.getMessage());
+                
+                if (!attendeeNames.isEmpty()) {
+                    eventReport.setAttendees(String.join(", ", attendeeNames));
+                    log.debug("Set attendees from meeting_participants: {}", eventReport.getAttendees());
                 }
-            } else {
-                log.debug("Transcript not yet available for bot: {}", botId);
             }
             
             log.info("Successfully filled EventReport for bot: {}", botId);
@@ -169,6 +182,66 @@ public class RecallAiService {
             throw new RuntimeException("Failed to fill EventReport", e);
         }
     }
+
+    /**
+     * Returns the typed snapshot of a bot, fetched from Recall at most once per TTL
+     * @param botId The unique identifier of the bot
+     * @throws RuntimeException if the API call fails
+     */
+    public BotSnapshot getBotSnapshot(String botId) {
+        TimedSnapshot cached = snapshots.get(botId);
+        if (cached != null && cached.fetchedAt().plusMillis(snapshotTtlMs).isAfter(Instant.now())) {
+            log.debug("Using memoized snapshot of bot {}", botId);
+            return cached.snapshot();
+        }
+
+        BotSnapshot snapshot = fetchBotSnapshot(botId);
+        if (snapshots.size() > 1024) {
+            Instant expiredBefore = Instant.now().minus(Duration.ofMillis(snapshotTtlMs));
+            snapshots.values().removeIf(timed -> timed.fetchedAt().isBefore(expiredBefore));
+        }
+        snapshots.put(botId, new TimedSnapshot(snapshot, Instant.now()));
+        return snapshot;
+    }
+
+    /**
+     * @return the memoized snapshot of a bot, without calling Recall, if there is a fresh one
+     */
+    public Optional<BotSnapshot> peekBotSnapshot(String botId) {
+        TimedSnapshot cached = snapshots.get(botId);
+        if (cached == null || cached.fetchedAt().plusMillis(snapshotTtlMs).isBefore(Instant.now())) {
+            return Optional.empty();
+        }
+        return Optional.of(cached.snapshot());
+    }
+
+    /**
+     * Drops the memoized snapshot of a bot (after it was changed or deleted)
+     */
+    public void evictBotSnapshot(String botId) {
+        snapshots.remove(botId);
+    }
+
+    private BotSnapshot fetchBotSnapshot(String botId) {
+        log.info("Retrieving bot snapshot for ID: {}", botId);
+
+        String apiUrl = apiBaseUrl + botId + "/";
+        HttpEntity<Void> requestEntity = new HttpEntity<>(createHeaders());
+
+        try {
+            ResponseEntity<BotSnapshot> response = recallApiGuard.call(ERecallEndpoint.GET_BOT,
+                    () -> restTemplate.exchange(apiUrl, HttpMethod.GET, requestEntity, BotSnapshot.class));
+
+            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
+                return response.getBody();
+            } else {
+                throw new RuntimeException("Failed to retrieve bot: " + response.getStatusCode());
+            }
+        } catch (Exception e) {
+            log.error("Error retrieving bot {}: {}", botId, e.getMessage());
+            throw new RuntimeException("Failed to retrieve bot", e);
+        }
+    }
     
     /**
      * Retrieves details of a bot using its unique identifier
@@ -184,7 +257,8 @@ public class RecallAiService {
         HttpEntity<Void> requestEntity = new HttpEntity<>(headers);
         
         try {
-            ResponseEntity<Map<String, Object>> response = restTemplate.exchange(apiUrl, HttpMethod.GET, requestEntity, (Class<Map<String, Object>>) (Class<?>) Map.class);
+            ResponseEntity<Map<String, Object>> response = recallApiGuard.call(ERecallEndpoint.GET_BOT,
+                    () -> restTemplate.exchange(apiUrl, HttpMethod.GET, requestEntity, (Class<Map<String, Object>>) (Class<?>) Map.class));
             
             if (response.getStatusCode().is2xxSuccessful()) {
                 log.info("Successfully retrieved bot details for ID: {}", botId);
@@ -205,13 +279,15 @@ public class RecallAiService {
      */
     public void deleteScheduledBot(String botId) {
         log.info("Deleting scheduled bot with ID: {}", botId);
+        evictBotSnapshot(botId);
         
         String apiUrl = apiBaseUrl + botId + "/";
         HttpHeaders headers = createHeaders();
         HttpEntity<Void> requestEntity = new HttpEntity<>(headers);
         
         try {
-            ResponseEntity<Void> response = restTemplate.exchange(apiUrl, HttpMethod.DELETE, requestEntity, Void.class);
+            ResponseEntity<Void> response = recallApiGuard.call(ERecallEndpoint.DELETE_BOT,
+                    () -> restTemplate.exchange(apiUrl, HttpMethod.DELETE, requestEntity, Void.class));
             
             if (response.getStatusCode().is2xxSuccessful()) {
                 log.info("Successfully deleted bot with ID: {}", botId);
@@ -249,55 +325,15 @@ public class RecallAiService {
         try {
             // Step 1: Retrieve current bot details to preserve configuration
             log.info("Step 1: Retrieving current bot details for bot: {}", botId);
-            Map<String, Object> currentBotDetails = retrieveBot(botId);
-            
-            if (currentBotDetails == null) {
-                throw new RuntimeException("Bot not found: " + botId);
-            }
+            BotSnapshot currentBot = fetchBotSnapshot(botId);
             
             // Extract transcript configuration from current bot if it exists
-            String transcriptProvider = null;
-            String webhookUrl = null;
-            
-            if (currentBotDetails.containsKey("recording_config")) {
-                @SuppressWarnings("unchecked")
-                Map<String, Object> recordingConfig = (Map<String, Object>) currentBotDetails.get("recording_config");
-                
-                if (recordingConfig.containsKey("transcript")) {
-                    @SuppressWarnings("unchecked")
-                    Map<String, Object> transcript = (Map<String, Object>) recordingConfig.get("transcript");
-                    
-                    if (transcript.containsKey("provider")) {
-                        @SuppressWarnings("unchecked")
-                        Map<String, Object> provider = (Map<String, Object>) transcript.get("provider");
-                        
-                        // Find the transcript provider (could be assembly_ai_streaming, deepgram, etc.)
-                        for (String key : provider.keySet()) {
-                            if (!key.equals("provider")) {
-                                transcriptProvider = key;
-                                break;
-                            }
-                        }
-                    }
-                }
-                
-                // Extract webhook URL if it exists
-                if (recordingConfig.containsKey("realtime_endpoints")) {
-                    @SuppressWarnings("unchecked")
-                    java.util.List<Map<String, Object>> endpoints = (java.util.List<Map<String, Object>>) recordingConfig.get("realtime_endpoints");
-                    
-                    for (Map<String, Object> endpoint : endpoints) {
-                        if ("webhook".equals(endpoint.get("type"))) {
-                            webhookUrl = (String) endpoint.get("url");
-                            break;
-                        }
-                    }
-                }
-            }
+            String transcriptProvider = currentBot.transcriptProvider();
+            String webhookUrl = currentBot.realtimeWebhookUrl();
             
             log.info("Extracted configuration - Transcript provider: {}, Webhook URL: {}", 
                     transcriptProvider != null ? transcriptProvider : "none", 
-                    webhookUrl != null ? webhookUrl : "none");
+                    webhookUrl != null ? redactToken(webhookUrl) : "none");
             
             // Step 2: Delete the existing bot
             log.info("Step 2: Deleting existing bot: {}", botId);
@@ -320,10 +356,11 @@ public class RecallAiService {
             
             // Step 4: Verify the new bot was created correctly
             log.info("Step 4: Verifying new bot configuration");
-            Map<String, Object> newBotDetails = retrieveBot(newBotId);
+            BotSnapshot newBot = getBotSnapshot(newBotId);
             
-            if (newBotDetails != null) {
-                log.info("New bot verification successful. Bot details: {}", newBotDetails);
+            if (newBot != null) {
+                // the snapshot holds the realtime webhook URL and its token, only the id and status are logged
+                log.info("New bot verification successful. Bot {} is {}", newBot.id(), newBot.latestStatusCode());
             } else {
                 log.warn("Warning: Could not retrieve details for newly created bot: {}", newBotId);
             }
@@ -337,6 +374,23 @@ public class RecallAiService {
         }
     }
     
+    /**
+     * @return the URL of our realtime transcript endpoint, null if realtime transcripts are not configured
+     */
+    private String realtimeWebhookUrl() {
+        if (baseUrl == null || baseUrl.isEmpty() || realtimeToken == null || realtimeToken.isEmpty()) {
+            return null;
+        }
+        return baseUrl + "/api/public/recall/realtime?token=" + URLEncoder.encode(realtimeToken, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the URL with the value of its token parameter masked, for logging
+     */
+    private static String redactToken(String url) {
+        return url == null ? null : url.replaceAll("([?&]token=)[^&]*", "$1***");
+    }
+
     /**
      * Creates HTTP headers with authorization and content type
      */
@@ -420,7 +474,7 @@ public class RecallAiService {
             }
             
             requestBody.put("recording_config", recordingConfig);
-            log.debug("Added transcript configuration with provider: {} and webhook: {}", transcriptProvider, webhookUrl);
+            log.debug("Added transcript configuration with provider: {} and webhook: {}", transcriptProvider, redactToken(webhookUrl));
         }
         
         return new HttpEntity<>(requestBody, headers);
@@ -433,45 +487,31 @@ public class RecallAiService {
      * @throws RuntimeException if the API call fails
      */
     public String getTranscriptDownloadUrl(String botId) {
-        log.info("Retrieving transcript download URL for bot: {}", botId);
-        
-        try {
-            // Step 1: Get bot details to find transcript ID
-            Map<String, Object> botDetails = retrieveBot(botId);
-            
-            if (botDetails != null && botDetails.containsKey("recordings")) {
-                Object recordingsObj = botDetails.get("recordings");
-                if (recordingsObj instanceof java.util.List) {
-                    @SuppressWarnings("unchecked")
-                    java.util.List<Map<String, Object>> recordings = (java.util.List<Map<String, Object>>) recordingsObj;
-                    
-                    for (Map<String, Object> recording : recordings) {
-                        if (recording.containsKey("media_shortcuts")) {
-                            @SuppressWarnings("unchecked")
-                            Map<String, Object> mediaShortcuts = (Map<String, Object>) recording.get("media_shortcuts");
-                            
-                            if (mediaShortcuts.containsKey("transcript")) {
-                                @SuppressWarnings("unchecked")
-                                Map<String, Object> transcript = (Map<String, Object>) mediaShortcuts.get("transcript");
-                                
-                                if (transcript.containsKey("id")) {
-                                    String transcriptId = (String) transcript.get("id");
-                                    log.info("Found transcript ID for bot {}: {}", botId, transcriptId);
-                                    
-                                    // Step 2: Call transcript API to get download URL
-                                    return getTranscriptDownloadUrlFromId(transcriptId);
-                                }
-                            }
-                        }
-                    }
-                }
-            }
-            
-            log.warn("No transcript ID found for bot: {}", botId);
+        return getTranscriptDownloadUrl(getBotSnapshot(botId));
+    }
+
+    /**
+     * Retrieves the transcript download URL from an already fetched bot snapshot.
+     * Recall includes the URL in the bot's media shortcuts; the transcript API is only called when it does not.
+     * @return The transcript download URL if available, null otherwise
+     * @throws RuntimeException if the API call fails
+     */
+    public String getTranscriptDownloadUrl(BotSnapshot botSnapshot) {
+        BotSnapshot.MediaShortcut transcript = botSnapshot.transcript();
+        if (transcript == null) {
+            log.warn("No transcript ID found for bot: {}", botSnapshot.id());
             return null;
-            
+        }
+
+        if (transcript.data() != null && transcript.data().downloadUrl() != null) {
+            return transcript.data().downloadUrl();
+        }
+
+        try {
+            log.info("Found transcript ID for bot {}: {}", botSnapshot.id(), transcript.id());
+            return getTranscriptDownloadUrlFromId(transcript.id());
         } catch (Exception e) {
-            log.error("Error retrieving transcript download URL for bot {}: {}", botId, e.getMessage());
+            log.error("Error retrieving transcript download URL for bot {}: {}", botSnapshot.id(), e.getMessage());
             throw new RuntimeException("Failed to retrieve transcript download URL", e);
         }
     }
@@ -490,7 +530,8 @@ public class RecallAiService {
         HttpEntity<Void> requestEntity = new HttpEntity<>(headers);
         
         try {
-            ResponseEntity<Map<String, Object>> response = restTemplate.exchange(apiUrl, HttpMethod.GET, requestEntity, (Class<Map<String, Object>>) (Class<?>) Map.class);
+            ResponseEntity<Map<String, Object>> response = recallApiGuard.call(ERecallEndpoint.GET_TRANSCRIPT,
+                    () -> restTemplate.exchange(apiUrl, HttpMethod.GET, requestEntity, (Class<Map<String, Object>>) (Class<?>) Map.class));
             
             if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
                 Map<String, Object> transcriptData = response.getBody();
@@ -520,32 +561,65 @@ public class RecallAiService {
     /**
      * Downloads and retrieves the transcript content from a download URL
      * @param downloadUrl The transcript download URL
-     * @return The transcript content as a string (JSON format)
+     * @return The transcript as compact speaker turns (JSON format)
      * @throws RuntimeException if the download fails
      */
     public String downloadTranscript(String downloadUrl) {
+        StringWriter out = new StringWriter();
+        try (JsonGenerator generator = recallTranscriptParser.compactWriter(out)) {
+            downloadTranscript(downloadUrl, turn -> {
+                try {
+                    recallTranscriptParser.writeCompact(generator, turn);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.writeEndArray();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write transcript", e);
+        }
+        log.info("Compacted transcript to {} characters", out.getBuffer().length());
+        return out.toString();
+    }
+
+    /**
+     * Streams the transcript from a download URL to a temporary file, then parses it incrementally,
+     * so a long meeting never sits on the heap as per-word JSON
+     * @param downloadUrl The transcript download URL
+     * @param consumer receives the speaker turns in order
+     * @throws RuntimeException if the download fails
+     */
+    public void downloadTranscript(String downloadUrl, Consumer<TranscriptTurn> consumer) {
         log.info("Downloading transcript from URL: {}", downloadUrl);
-        
-        // For S3 downloads, don't use our API key - the URL already contains authentication
-        HttpHeaders headers = new HttpHeaders();
-        headers.set("Accept", "application/json");
-        HttpEntity<Void> requestEntity = new HttpEntity<>(headers);
-        
+
+        Path tempFile = null;
         try {
             URI uri = UriComponentsBuilder.fromUriString(downloadUrl)
                     .build(true)     // true = components are ALREADY encoded
                     .toUri();
-            ResponseEntity<String> response = restTemplate.exchange(uri, HttpMethod.GET, requestEntity, String.class);
-            
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                log.info("Successfully downloaded transcript, content length: {} characters", response.getBody().length());
-                return response.getBody();
-            } else {
-                throw new RuntimeException("Failed to download transcript: " + response.getStatusCode());
+            tempFile = Files.createTempFile("transcript-", ".json");
+            Path target = tempFile;
+
+            // For S3 downloads, don't use our API key - the URL already contains authentication
+            long size = recallApiGuard.call(ERecallEndpoint.DOWNLOAD_TRANSCRIPT, () -> restTemplate.execute(uri, HttpMethod.GET,
+                    request -> request.getHeaders().set("Accept", "application/json"),
+                    response -> Files.copy(response.getBody(), target, StandardCopyOption.REPLACE_EXISTING)));
+            log.info("Successfully downloaded transcript, content length: {} bytes", size);
+
+            try (InputStream in = Files.newInputStream(tempFile)) {
+                recallTranscriptParser.parse(in, consumer);
             }
         } catch (Exception e) {
             log.error("Error downloading transcript from {}: {}", downloadUrl, e.getMessage());
             throw new RuntimeException("Failed to download transcript", e);
+        } finally {
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (IOException e) {
+                    log.warn("Failed to delete temporary transcript file {}", tempFile);
+                }
+            }
         }
     }
     
@@ -556,19 +630,23 @@ public class RecallAiService {
      * @throws RuntimeException if the API calls fail
      */
     public String getTranscript(String botId) {
-        log.info("Retrieving complete transcript for bot: {}", botId);
+        return getTranscript(getBotSnapshot(botId));
+    }
+
+    public String getTranscript(BotSnapshot botSnapshot) {
+        log.info("Retrieving complete transcript for bot: {}", botSnapshot.id());
         
         try {
-            String downloadUrl = getTranscriptDownloadUrl(botId);
+            String downloadUrl = getTranscriptDownloadUrl(botSnapshot);
             
             if (downloadUrl != null) {
                 return downloadTranscript(downloadUrl);
             } else {
-                log.warn("No transcript available for bot: {}", botId);
+                log.warn("No transcript available for bot: {}", botSnapshot.id());
                 return null;
             }
         } catch (Exception e) {
-            log.error("Error retrieving transcript for bot {}: {}", botId, e.getMessage());
+            log.error("Error retrieving transcript for bot {}: {}", botSnapshot.id(), e.getMessage());
             throw new RuntimeException("Failed to retrieve transcript", e);
         }
     }
@@ -580,11 +658,29 @@ public class RecallAiService {
      */
     public boolean isTranscriptAvailable(String botId) {
         try {
-            String downloadUrl = getTranscriptDownloadUrl(botId);
-            return downloadUrl != null;
+            return isTranscriptAvailable(getBotSnapshot(botId));
         } catch (Exception e) {
             log.error("Error checking transcript availability for bot {}: {}", botId, e.getMessage());
             return false;
         }
     }
+
+    /**
+     * Checks if a transcript is available in an already fetched bot snapshot
+     */
+    public boolean isTranscriptAvailable(BotSnapshot botSnapshot) {
+        BotSnapshot.MediaShortcut transcript = botSnapshot.transcript();
+        if (transcript == null) {
+            return false;
+        }
+        if (transcript.status() != null && transcript.status().code() != null) {
+            return "done".equals(transcript.status().code());
+        }
+        try {
+            return getTranscriptDownloadUrl(botSnapshot) != null;
+        } catch (Exception e) {
+            log.error("Error checking transcript availability for bot {}: {}", botSnapshot.id(), e.getMessage());
+            return false;
+        }
+    }
 }
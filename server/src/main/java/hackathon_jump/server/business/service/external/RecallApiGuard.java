@@ -0,0 +1,265 @@
+package hackathon_jump.server.business.service.external;
+
+import hackathon_jump.server.model.enums.ERecallEndpoint;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.net.ConnectException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Protects the Recall API (and us from it) around every call of RecallAiService:
+ * - a circuit breaker per endpoint opens after consecutive failures and lets one probe call through after a cool down
+ * - a bulkhead caps the number of concurrent Recall calls
+ * - failed calls are retried with full-jitter exponential backoff, or after the delay given by Retry-After
+ * Client errors (4xx other than 429) are neither retried nor counted against the breaker.
+ */
+@Component
+@Slf4j
+public class RecallApiGuard {
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.recall.guard.max-concurrent-calls:8}")
+    private int maxConcurrentCalls;
+    @Value("${app.recall.guard.bulkhead-wait-ms:5000}")
+    private long bulkheadWaitMs;
+    @Value("${app.recall.guard.max-attempts:3}")
+    private int maxAttempts;
+    @Value("${app.recall.guard.base-backoff-ms:500}")
+    private long baseBackoffMs;
+    @Value("${app.recall.guard.max-backoff-ms:10000}")
+    private long maxBackoffMs;
+    @Value("${app.recall.guard.failure-threshold:5}")
+    private int failureThreshold;
+    @Value("${app.recall.guard.open-ms:30000}")
+    private long openMs;
+
+    /**
+     * thrown instead of calling Recall while the breaker of the endpoint is open
+     */
+    public static class CircuitOpenException extends RuntimeException {
+        public CircuitOpenException(ERecallEndpoint endpoint) {
+            super("Recall endpoint " + endpoint + " is unavailable (circuit open)");
+        }
+    }
+
+    private enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private static class Breaker {
+        private State state = State.CLOSED;
+        private int consecutiveFailures;
+        private Instant openUntil = Instant.MIN;
+    }
+
+    private final Map<ERecallEndpoint, Breaker> breakers = new EnumMap<>(ERecallEndpoint.class);
+    private Semaphore bulkhead;
+    private Counter retriesCounter;
+    private Counter rejectedCounter;
+
+    @PostConstruct
+    public void init() {
+        this.bulkhead = new Semaphore(maxConcurrentCalls);
+        for (ERecallEndpoint endpoint : ERecallEndpoint.values()) {
+            Breaker breaker = new Breaker();
+            breakers.put(endpoint, breaker);
+            Gauge.builder("recall.circuit.state", breaker, b -> stateOf(b).ordinal())
+                    .description("0 = closed, 1 = open, 2 = half open")
+                    .tag("endpoint", endpoint.name().toLowerCase())
+                    .register(meterRegistry);
+        }
+        meterRegistry.gauge("recall.bulkhead.available", bulkhead, Semaphore::availablePermits);
+        this.retriesCounter = meterRegistry.counter("recall.retries");
+        this.rejectedCounter = meterRegistry.counter("recall.rejected");
+    }
+
+    /**
+     * @return false while the breaker of the endpoint is open, true if a call would go through
+     */
+    public boolean isAvailable(ERecallEndpoint endpoint) {
+        return stateOf(breakers.get(endpoint)) != State.OPEN;
+    }
+
+    public <T> T call(ERecallEndpoint endpoint, Supplier<T> call) {
+        Breaker breaker = breakers.get(endpoint);
+        for (int attempt = 1; ; attempt++) {
+            acquire(endpoint, breaker);
+            long delayMs;
+            try {
+                T result = call.get();
+                onSuccess(endpoint, breaker);
+                return result;
+            } catch (RuntimeException e) {
+                if (!isFailure(e)) {
+                    // the endpoint works, the request was wrong
+                    onSuccess(endpoint, breaker);
+                    throw e;
+                }
+                onFailure(endpoint, breaker);
+                if (attempt >= maxAttempts || !isRetryable(endpoint, e) || !isAvailable(endpoint)) {
+                    throw e;
+                }
+                delayMs = retryDelayMs(e, attempt);
+                if (delayMs < 0) {
+                    log.warn("Recall {} call failed ({}), it asks to wait longer than {} ms, not retrying", endpoint, e.getMessage(), maxBackoffMs);
+                    throw e;
+                }
+                log.warn("Recall {} call failed ({}), retry {} in {} ms", endpoint, e.getMessage(), attempt, delayMs);
+                retriesCounter.increment();
+            } finally {
+                bulkhead.release();
+            }
+            // the slot is given back while waiting
+            sleep(delayMs);
+        }
+    }
+
+    private void acquire(ERecallEndpoint endpoint, Breaker breaker) {
+        boolean probe = false;
+        synchronized (breaker) {
+            State state = stateOf(breaker);
+            if (state == State.OPEN) {
+                rejectedCounter.increment();
+                throw new CircuitOpenException(endpoint);
+            }
+            if (state == State.HALF_OPEN) {
+                // let this call be the only probe, the others wait for its outcome
+                breaker.state = State.OPEN;
+                breaker.openUntil = Instant.now().plusMillis(openMs);
+                probe = true;
+            }
+        }
+        boolean acquired = false;
+        try {
+            acquired = bulkhead.tryAcquire(bulkheadWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!acquired) {
+            if (probe) {
+                // the probe never reached Recall, the next call probes instead
+                synchronized (breaker) {
+                    breaker.state = State.HALF_OPEN;
+                }
+            }
+            rejectedCounter.increment();
+            throw new RuntimeException(Thread.currentThread().isInterrupted()
+                    ? "Interrupted while waiting for a Recall call slot" : "Too many concurrent Recall calls");
+        }
+    }
+
+    private void onSuccess(ERecallEndpoint endpoint, Breaker breaker) {
+        synchronized (breaker) {
+            if (breaker.state != State.CLOSED) {
+                log.info("Recall endpoint {} recovered, closing circuit", endpoint);
+            }
+            breaker.state = State.CLOSED;
+            breaker.consecutiveFailures = 0;
+        }
+    }
+
+    private void onFailure(ERecallEndpoint endpoint, Breaker breaker) {
+        synchronized (breaker) {
+            breaker.consecutiveFailures++;
+            if (breaker.state != State.CLOSED || breaker.consecutiveFailures >= failureThreshold) {
+                if (breaker.state == State.CLOSED) {
+                    log.warn("Recall endpoint {} failed {} times in a row, opening circuit for {} ms", endpoint, breaker.consecutiveFailures, openMs);
+                }
+                breaker.state = State.OPEN;
+                breaker.openUntil = Instant.now().plusMillis(openMs);
+            }
+        }
+    }
+
+    private State stateOf(Breaker breaker) {
+        synchronized (breaker) {
+            if (breaker.state == State.OPEN && !breaker.openUntil.isAfter(Instant.now())) {
+                breaker.state = State.HALF_OPEN;
+            }
+            return breaker.state;
+        }
+    }
+
+    /**
+     * @return whether the error says something about the health of Recall (server errors, throttling, I/O)
+     */
+    private static boolean isFailure(RuntimeException e) {
+        if (e instanceof HttpStatusCodeException statusError) {
+            return statusError.getStatusCode().is5xxServerError() || statusError.getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value();
+        }
+        return e instanceof ResourceAccessException;
+    }
+
+    private static boolean isRetryable(ERecallEndpoint endpoint, RuntimeException e) {
+        if (endpoint.isIdempotent()) {
+            return true;
+        }
+        // the request was certainly not processed
+        if (e instanceof HttpStatusCodeException statusError) {
+            int status = statusError.getStatusCode().value();
+            return status == HttpStatus.TOO_MANY_REQUESTS.value() || status == HttpStatus.SERVICE_UNAVAILABLE.value();
+        }
+        return e.getCause() instanceof ConnectException;
+    }
+
+    /**
+     * @return the delay before the next attempt, -1 if Recall asks (Retry-After) to wait longer than the max backoff
+     */
+    private long retryDelayMs(RuntimeException e, int attempt) {
+        if (e instanceof HttpStatusCodeException statusError && statusError.getResponseHeaders() != null) {
+            Long retryAfterMs = parseRetryAfterMs(statusError.getResponseHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+            if (retryAfterMs != null) {
+                return retryAfterMs > maxBackoffMs ? -1 : Math.max(retryAfterMs, 0);
+            }
+        }
+        long ceiling = Math.min(maxBackoffMs, baseBackoffMs << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * @param retryAfter seconds or an HTTP date
+     */
+    static Long parseRetryAfterMs(String retryAfter) {
+        if (retryAfter == null || retryAfter.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(retryAfter.trim()) * 1000;
+        } catch (NumberFormatException e) {
+            try {
+                ZonedDateTime date = ZonedDateTime.parse(retryAfter.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                return Duration.between(Instant.now(), date.toInstant()).toMillis();
+            } catch (Exception ignored) {
+                return null;
+            }
+        }
+    }
+
+    private static void sleep(long delayMs) {
+        try {
+            Thread.sleep(delayMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting to retry a Recall call", e);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package hackathon_jump.server.business.service.external;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import hackathon_jump.server.model.dto.TranscriptTurn;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.function.Consumer;
+
+/**
+ * Incrementally parses Recall transcripts into speaker turns, without materializing the per-word JSON.
+ *
+ * Supports the current format ([{"participant": {"name": ..}, "words": [{"text": .., "start_timestamp": {"relative": ..}}]}])
+ * and the legacy one ([{"speaker": .., "words": [{"text": .., "start_time": ..}]}]).
+ * Also reads back the compact format written by {@link #writeCompact}.
+ */
+@Component
+public class RecallTranscriptParser {
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    public void parse(InputStream in, Consumer<TranscriptTurn> consumer) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(in)) {
+            parse(parser, consumer);
+        }
+    }
+
+    public void parse(Reader in, Consumer<TranscriptTurn> consumer) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(in)) {
+            parse(parser, consumer);
+        }
+    }
+
+    /**
+     * Writes turns as a compact JSON array: [{"speaker": .., "start": ms, "end": ms, "text": ..}]
+     */
+    public JsonGenerator compactWriter(Writer out) throws IOException {
+        JsonGenerator generator = jsonFactory.createGenerator(out);
+        generator.writeStartArray();
+        return generator;
+    }
+
+    public void writeCompact(JsonGenerator generator, TranscriptTurn turn) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("speaker", turn.speaker());
+        generator.writeNumberField("start", turn.startMs());
+        generator.writeNumberField("end", turn.endMs());
+        generator.writeStringField("text", turn.text());
+        generator.writeEndObject();
+    }
+
+    public String toCompactJson(Iterable<TranscriptTurn> turns) {
+        StringWriter out = new StringWriter();
+        try (JsonGenerator generator = compactWriter(out)) {
+            for (TranscriptTurn turn : turns) {
+                writeCompact(generator, turn);
+            }
+            generator.writeEndArray();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write compact transcript", e);
+        }
+        return out.toString();
+    }
+
+    private void parse(JsonParser parser, Consumer<TranscriptTurn> consumer) throws IOException {
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            throw new IOException("Transcript is not a JSON array");
+        }
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            TranscriptTurn turn = parseSegment(parser);
+            if (turn != null) {
+                consumer.accept(turn);
+            }
+        }
+    }
+
+    private TranscriptTurn parseSegment(JsonParser parser) throws IOException {
+        String speaker = null;
+        StringBuilder text = new StringBuilder();
+        long startMs = -1;
+        long endMs = -1;
+        String compactText = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "participant" -> speaker = parseParticipantName(parser);
+                case "speaker" -> speaker = parser.getValueAsString();
+                case "start" -> startMs = parser.getLongValue();
+                case "end" -> endMs = parser.getLongValue();
+                case "text" -> compactText = parser.getValueAsString();
+                case "words" -> {
+                    if (parser.currentToken() != JsonToken.START_ARRAY) {
+                        // null or malformed, nothing to read
+                        parser.skipChildren();
+                        break;
+                    }
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        long[] wordTimes = parseWord(parser, text);
+                        if (startMs < 0 && wordTimes[0] >= 0) {
+                            startMs = wordTimes[0];
+                        }
+                        if (wordTimes[1] >= 0) {
+                            endMs = wordTimes[1];
+                        }
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+
+        String turnText = compactText != null ? compactText : text.toString();
+        if (turnText.isBlank()) {
+            return null;
+        }
+        return new TranscriptTurn(speaker != null ? speaker : "Unknown", Math.max(startMs, 0), Math.max(endMs, 0), turnText);
+    }
+
+    private String parseParticipantName(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            return null;
+        }
+        String name = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("name".equals(field)) {
+                name = parser.getValueAsString();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return name;
+    }
+
+    /**
+     * Appends the word to the text and returns its [start, end] offsets in ms (-1 when missing)
+     */
+    private long[] parseWord(JsonParser parser, StringBuilder text) throws IOException {
+        long[] times = {-1, -1};
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "text" -> {
+                    String word = parser.getValueAsString();
+                    if (word != null && !word.isBlank()) {
+                        if (!text.isEmpty()) {
+                            text.append(' ');
+                        }
+                        text.append(word.trim());
+                    }
+                }
+                case "start_timestamp" -> times[0] = parseRelativeMs(parser);
+                case "end_timestamp" -> times[1] = parseRelativeMs(parser);
+                case "start_time" -> times[0] = Math.round(parser.getDoubleValue() * 1000);
+                case "end_time" -> times[1] = Math.round(parser.getDoubleValue() * 1000);
+                default -> parser.skipChildren();
+            }
+        }
+        return times;
+    }
+
+    private long parseRelativeMs(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return -1;
+        }
+        long ms = -1;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("relative".equals(field) && parser.currentToken().isNumeric()) {
+                ms = Math.round(parser.getDoubleValue() * 1000);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return ms;
+    }
+}
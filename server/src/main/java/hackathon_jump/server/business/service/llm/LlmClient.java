@@ -0,0 +1,24 @@
+package hackathon_jump.server.business.service.llm;
+
+import hackathon_jump.server.model.dto.LlmCompletion;
+import hackathon_jump.server.model.dto.LlmRequest;
+
+import java.util.function.Consumer;
+
+/**
+ * Sends completion requests to an LLM provider.
+ * Failures (transport, provider errors, unreadable answers) are thrown as RuntimeException.
+ */
+public interface LlmClient {
+    /**
+     * @return the model answering the requests, part of the cache key of the answers
+     */
+    String model();
+
+    LlmCompletion complete(LlmRequest request);
+
+    /**
+     * Same as {@link #complete}, handing each piece of the answer to the consumer as it is generated
+     */
+    LlmCompletion stream(LlmRequest request, Consumer<String> onDelta);
+}
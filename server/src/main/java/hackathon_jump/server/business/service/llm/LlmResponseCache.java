@@ -0,0 +1,150 @@
+package hackathon_jump.server.business.service.llm;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import hackathon_jump.server.infrastructure.repository.ILlmCacheEntryRepository;
+import hackathon_jump.server.model.domain.LlmCacheEntry;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Content-addressed cache of LLM answers: identical requests (same model, prompt and parameters) are answered once.
+ *
+ * Lookups go through a small in-memory LRU first, then through SQLite. Entries expire after a TTL and the
+ * table is trimmed to a maximum number of entries, least recently used first.
+ */
+@Service
+@Slf4j
+public class LlmResponseCache {
+    @Autowired
+    private ILlmCacheEntryRepository llmCacheEntryRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.llm.cache.memory-entries:256}")
+    private int memoryEntries;
+    @Value("${app.llm.cache.max-entries:5000}")
+    private int maxEntries;
+    @Value("${app.llm.cache.ttl-hours:168}")
+    private long ttlHours;
+
+    private Map<String, String> memory;
+
+    @PostConstruct
+    public void init() {
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > memoryEntries;
+            }
+        };
+        meterRegistry.gauge("llm.cache.memory_entries", this, cache -> cache.memorySize());
+    }
+
+    /**
+     * @param request the request body sent to the LLM (without credentials)
+     * @return the hex SHA-256 of the request, map keys sorted so equal requests always hash the same
+     */
+    public String key(Map<String, Object> request) {
+        try {
+            byte[] canonical = objectMapper.writer()
+                    .with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+                    .writeValueAsString(request)
+                    .getBytes(StandardCharsets.UTF_8);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(canonical));
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to hash LLM request", e);
+        }
+    }
+
+    public Optional<String> get(String key) {
+        String cached;
+        synchronized (this) {
+            cached = memory.get(key);
+        }
+        if (cached != null) {
+            count("hit_memory");
+            return Optional.of(cached);
+        }
+
+        Optional<LlmCacheEntry> entry = llmCacheEntryRepository.findById(key)
+                .filter(found -> found.getCreatedAt().isAfter(LocalDateTime.now().minusHours(ttlHours)));
+        if (entry.isEmpty()) {
+            count("miss");
+            return Optional.empty();
+        }
+
+        LlmCacheEntry found = entry.get();
+        found.setLastAccessedAt(LocalDateTime.now());
+        found.setHitCount(found.getHitCount() + 1);
+        llmCacheEntryRepository.save(found);
+        synchronized (this) {
+            memory.put(key, found.getResponse());
+        }
+        count("hit_db");
+        return Optional.of(found.getResponse());
+    }
+
+    public void put(String key, String model, String response) {
+        synchronized (this) {
+            memory.put(key, response);
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            llmCacheEntryRepository.save(new LlmCacheEntry(key, model, response, now, now, 0));
+        } catch (Exception e) {
+            // a lost cache entry only costs a future request
+            log.warn("Failed to store LLM cache entry {}: {}", key, e.getMessage());
+        }
+    }
+
+    /**
+     * Counts a request that skipped the cache on purpose (e.g. a refresh asked by the user)
+     */
+    public void countBypass() {
+        count("bypass");
+    }
+
+    @Scheduled(fixedDelayString = "${app.llm.cache.eviction-interval-ms:3600000}")
+    @Transactional
+    public void evict() {
+        int expiredCnt = llmCacheEntryRepository.deleteExpired(LocalDateTime.now().minusHours(ttlHours));
+        long overflow = llmCacheEntryRepository.count() - maxEntries;
+        if (overflow > 0) {
+            List<String> leastRecentlyUsed = llmCacheEntryRepository.findLeastRecentlyUsed(PageRequest.of(0, (int) overflow));
+            llmCacheEntryRepository.deleteAllById(leastRecentlyUsed);
+        }
+        if (expiredCnt > 0 || overflow > 0) {
+            synchronized (this) {
+                memory.clear();
+            }
+            log.info("Evicted {} expired and {} least recently used LLM cache entries", expiredCnt, Math.max(overflow, 0));
+        }
+    }
+
+    private synchronized int memorySize() {
+        return memory.size();
+    }
+
+    private void count(String result) {
+        meterRegistry.counter("llm.cache.requests", "result", result).increment();
+    }
+}
@@ -0,0 +1,344 @@
+package hackathon_jump.server.business.service.llm;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import hackathon_jump.server.model.enums.ELatencyDistribution;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for OpenAI's chat completions API, to run the finishing and automation paths offline
+ * (point app.openai.api-base-url at it).
+ *
+ * Answers are made up but deterministic for a prompt: JSON following the requested json_schema,
+ * a rolling summary when the prompt asks for one, plain text otherwise. Answers longer than
+ * max_completion_tokens are cut with finish_reason "length". Streaming (stream: true) is supported.
+ *
+ * The server simulates the provider's behaviour: a time to first token drawn from a latency distribution
+ * plus a delay per prompt token, a delay per generated token, a share of failed requests (500) and per-minute
+ * request / token budgets, reported in x-ratelimit-* headers and enforced with 429 + retry-after-ms.
+ * Like OpenAI's prompt caching, a prompt starting with a prefix seen before only pays the prompt delay for
+ * the rest, and the cached part is reported in usage.prompt_tokens_details. Tokens are accounted with {@link TokenEstimator}.
+ */
+@Component
+@ConditionalOnProperty(name = "app.llm.stub.enabled", havingValue = "true")
+@Slf4j
+public class LlmStubServer {
+    /**
+     * prompt prefixes are cached by blocks of this many characters
+     */
+    private static final int PREFIX_BLOCK_CHARS = 512;
+    private static final int PREFIX_CACHE_ENTRIES = 100_000;
+    private static final String[] WORDS = ("the team discussed project timeline budget client onboarding release plan risks " +
+            "quarterly goals hiring roadmap feedback next steps metrics customer launch review design meeting agreed follow up")
+            .split(" ");
+
+    @Value("${app.llm.stub.port:8089}")
+    private int port;
+    @Value("${app.llm.stub.latency-distribution:LOG_NORMAL}")
+    private ELatencyDistribution latencyDistribution;
+    @Value("${app.llm.stub.first-token-ms:500}")
+    private long firstTokenMs;
+    @Value("${app.llm.stub.first-token-spread-ms:250}")
+    private long firstTokenSpreadMs;
+    @Value("${app.llm.stub.per-prompt-token-ms:0.05}")
+    private double perPromptTokenMs;
+    @Value("${app.llm.stub.prompt-cache-min-tokens:1024}")
+    private long promptCacheMinTokens;
+    @Value("${app.llm.stub.per-token-ms:10}")
+    private double perTokenMs;
+    @Value("${app.llm.stub.completion-tokens:300}")
+    private int completionTokens;
+    @Value("${app.llm.stub.error-rate:0.0}")
+    private double errorRate;
+    @Value("${app.llm.stub.requests-per-minute:500}")
+    private long requestsPerMinute;
+    @Value("${app.llm.stub.tokens-per-minute:200000}")
+    private long tokensPerMinute;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    private final Map<Long, Boolean> prefixCache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+            return size() > PREFIX_CACHE_ENTRIES;
+        }
+    };
+
+    private long windowStartMs;
+    private long windowRequests;
+    private long windowTokens;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong failedRequests = new AtomicLong();
+    private final AtomicLong rateLimitedRequests = new AtomicLong();
+    private final AtomicLong promptTokens = new AtomicLong();
+    private final AtomicLong cachedPromptTokens = new AtomicLong();
+    private final AtomicLong generatedTokens = new AtomicLong();
+
+    /**
+     * What the stub served so far
+     */
+    public record Stats(long requests, long failedRequests, long rateLimitedRequests, long promptTokens, long cachedPromptTokens,
+                        long completionTokens) {
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        server.createContext("/v1/chat/completions", this::handle);
+        server.setExecutor(executor);
+        server.start();
+        windowStartMs = System.currentTimeMillis();
+        log.info("LLM stub listening on http://127.0.0.1:{} ({} first token latency of {}ms, {}ms per token, error rate {})",
+                getPort(), latencyDistribution, firstTokenMs, perTokenMs, errorRate);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            log.info("LLM stub stopped: {}", stats());
+        }
+    }
+
+    /**
+     * @return the port the stub listens on (the actual one when configured with 0)
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public Stats stats() {
+        return new Stats(requests.get(), failedRequests.get(), rateLimitedRequests.get(), promptTokens.get(), cachedPromptTokens.get(),
+                generatedTokens.get());
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            requests.incrementAndGet();
+            JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+            String prompt = request.path("messages").path(0).path("content").asText("");
+            int maxCompletionTokens = request.path("max_completion_tokens").asInt(Integer.MAX_VALUE);
+            long requestPromptTokens = TokenEstimator.estimate(prompt);
+
+            // like OpenAI, the completion limit counts against the token budget until the answer is known
+            long retryAfterMs = reserve(requestPromptTokens + Math.min(maxCompletionTokens, completionTokens * 2L), exchange);
+            if (retryAfterMs > 0) {
+                rateLimitedRequests.incrementAndGet();
+                exchange.getResponseHeaders().set("retry-after-ms", String.valueOf(retryAfterMs));
+                sendJson(exchange, 429, Map.of("error", Map.of("type", "requests", "code", "rate_limit_exceeded",
+                        "message", "Rate limit reached, please try again in " + retryAfterMs + "ms.")));
+                return;
+            }
+
+            long requestCachedTokens = cachedPrefixTokens(prompt, request.path("response_format"));
+            Thread.sleep(sampleFirstTokenMs() + Math.round((requestPromptTokens - requestCachedTokens) * perPromptTokenMs));
+            if (ThreadLocalRandom.current().nextDouble() < errorRate) {
+                failedRequests.incrementAndGet();
+                sendJson(exchange, 500, Map.of("error", Map.of("type", "server_error", "message", "The stub failed on purpose.")));
+                return;
+            }
+
+            List<String> pieces = answer(prompt, request.path("response_format"));
+            List<String> sent = new ArrayList<>();
+            long tokens = 0;
+            String finishReason = "stop";
+            for (String piece : pieces) {
+                long pieceTokens = TokenEstimator.estimate(piece);
+                if (tokens + pieceTokens > maxCompletionTokens) {
+                    finishReason = "length";
+                    break;
+                }
+                tokens += pieceTokens;
+                sent.add(piece);
+            }
+            promptTokens.addAndGet(requestPromptTokens);
+            cachedPromptTokens.addAndGet(requestCachedTokens);
+            generatedTokens.addAndGet(tokens);
+            Map<String, Object> usage = Map.of("prompt_tokens", requestPromptTokens, "completion_tokens", tokens,
+                    "total_tokens", requestPromptTokens + tokens,
+                    "prompt_tokens_details", Map.of("cached_tokens", requestCachedTokens));
+
+            if (request.path("stream").asBoolean(false)) {
+                stream(exchange, sent, finishReason, request.path("stream_options").path("include_usage").asBoolean(false) ? usage : null);
+            } else {
+                Thread.sleep(Math.round(tokens * perTokenMs));
+                Map<String, Object> choice = new LinkedHashMap<>();
+                choice.put("index", 0);
+                choice.put("message", Map.of("role", "assistant", "content", String.join("", sent)));
+                choice.put("finish_reason", finishReason);
+                sendJson(exchange, 200, Map.of("id", "stub-" + requests.get(), "object", "chat.completion",
+                        "model", request.path("model").asText(), "choices", List.of(choice), "usage", usage));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void stream(HttpExchange exchange, List<String> pieces, String finishReason, Map<String, Object> usage)
+            throws IOException, InterruptedException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = exchange.getResponseBody();
+        for (String piece : pieces) {
+            Thread.sleep(Math.round(TokenEstimator.estimate(piece) * perTokenMs));
+            writeEvent(out, Map.of("choices", List.of(Map.of("index", 0, "delta", Map.of("content", piece)))));
+        }
+        Map<String, Object> last = new LinkedHashMap<>();
+        last.put("index", 0);
+        last.put("delta", Map.of());
+        last.put("finish_reason", finishReason);
+        writeEvent(out, Map.of("choices", List.of(last)));
+        if (usage != null) {
+            writeEvent(out, Map.of("choices", List.of(), "usage", usage));
+        }
+        out.write("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private void writeEvent(OutputStream out, Object chunk) throws IOException {
+        out.write(("data: " + objectMapper.writeValueAsString(chunk) + "\n\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private void sendJson(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    /**
+     * Takes a request and its tokens from the budgets of the current minute, and reports what is left in the headers
+     * @return 0 if the request may go on, else the ms until the budgets are reset
+     */
+    private synchronized long reserve(long tokens, HttpExchange exchange) {
+        long now = System.currentTimeMillis();
+        if (now - windowStartMs >= 60_000) {
+            windowStartMs = now;
+            windowRequests = 0;
+            windowTokens = 0;
+        }
+        long resetMs = Math.max(1, windowStartMs + 60_000 - now);
+        boolean allowed = windowRequests < requestsPerMinute && windowTokens + tokens <= tokensPerMinute;
+        if (allowed) {
+            windowRequests++;
+            windowTokens += tokens;
+        }
+        exchange.getResponseHeaders().set("x-ratelimit-limit-requests", String.valueOf(requestsPerMinute));
+        exchange.getResponseHeaders().set("x-ratelimit-limit-tokens", String.valueOf(tokensPerMinute));
+        exchange.getResponseHeaders().set("x-ratelimit-remaining-requests", String.valueOf(requestsPerMinute - windowRequests));
+        exchange.getResponseHeaders().set("x-ratelimit-remaining-tokens", String.valueOf(Math.max(0, tokensPerMinute - windowTokens)));
+        exchange.getResponseHeaders().set("x-ratelimit-reset-requests", resetMs + "ms");
+        exchange.getResponseHeaders().set("x-ratelimit-reset-tokens", resetMs + "ms");
+        return allowed ? 0 : resetMs;
+    }
+
+    /**
+     * Remembers the prefixes of the prompt (by whole blocks). Like OpenAI, which reads the response format before
+     * the messages, a prefix is only found again under the same response format.
+     * @return the tokens of the longest prefix that was already seen, 0 if it is shorter than the cache minimum
+     */
+    private long cachedPrefixTokens(String prompt, JsonNode responseFormat) {
+        int cachedChars = 0;
+        int hash = responseFormat.isMissingNode() ? 0 : responseFormat.toString().hashCode();
+        synchronized (prefixCache) {
+            for (int i = 0; i < prompt.length(); i++) {
+                hash = 31 * hash + prompt.charAt(i);
+                if ((i + 1) % PREFIX_BLOCK_CHARS == 0) {
+                    long key = ((long) hash << 32) | (i + 1);
+                    if (prefixCache.put(key, Boolean.TRUE) != null && cachedChars == i + 1 - PREFIX_BLOCK_CHARS) {
+                        cachedChars = i + 1;
+                    }
+                }
+            }
+        }
+        long cachedTokens = TokenEstimator.estimate(prompt.substring(0, cachedChars));
+        return cachedTokens >= promptCacheMinTokens ? cachedTokens : 0;
+    }
+
+    private long sampleFirstTokenMs() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double ms = switch (latencyDistribution) {
+            case FIXED -> firstTokenMs;
+            case UNIFORM -> firstTokenMs - firstTokenSpreadMs + random.nextDouble() * 2 * firstTokenSpreadMs;
+            // median firstTokenMs, with a long tail set by the spread
+            case LOG_NORMAL -> firstTokenMs * Math.exp(random.nextGaussian() * Math.log1p((double) firstTokenSpreadMs / Math.max(1, firstTokenMs)));
+        };
+        return Math.max(0, Math.round(ms));
+    }
+
+    /**
+     * @return the answer to a prompt, in the pieces it is streamed in
+     */
+    private List<String> answer(String prompt, JsonNode responseFormat) throws IOException {
+        Random random = new Random(prompt.hashCode());
+        JsonNode properties = responseFormat.path("json_schema").path("schema").path("properties");
+        if (properties.isObject()) {
+            Map<String, Object> answer = new LinkedHashMap<>();
+            Iterator<String> fields = properties.fieldNames();
+            int fieldsCnt = Math.max(1, properties.size());
+            while (fields.hasNext()) {
+                answer.put(fields.next(), sentence(random, completionTokens / fieldsCnt));
+            }
+            return pieces(objectMapper.writeValueAsString(answer));
+        }
+        if (prompt.contains("keyPoints")) {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("keyPoints", List.of(sentence(random, 20), sentence(random, 20), sentence(random, 20)));
+            summary.put("decisions", List.of(sentence(random, 15)));
+            summary.put("actionItems", List.of(sentence(random, 15), sentence(random, 15)));
+            return pieces(objectMapper.writeValueAsString(summary));
+        }
+        return pieces(sentence(random, completionTokens / 2 + random.nextInt(completionTokens + 1)));
+    }
+
+    private static String sentence(Random random, int words) {
+        StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < Math.max(1, words); i++) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            sentence.append(i == 0 ? Character.toUpperCase(word.charAt(0)) + word.substring(1) : " " + word);
+        }
+        return sentence.append('.').toString();
+    }
+
+    /**
+     * Splits a text in pieces of a few characters, like the deltas of a stream
+     */
+    private static List<String> pieces(String text) {
+        List<String> pieces = new ArrayList<>();
+        for (int i = 0; i < text.length(); i += 8) {
+            pieces.add(text.substring(i, Math.min(text.length(), i + 8)));
+        }
+        return pieces;
+    }
+}
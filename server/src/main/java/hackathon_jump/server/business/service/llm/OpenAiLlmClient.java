@@ -0,0 +1,187 @@
+package hackathon_jump.server.business.service.llm;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hackathon_jump.server.model.dto.LlmCompletion;
+import hackathon_jump.server.model.dto.LlmRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * {@link LlmClient} for OpenAI's chat completions API (or anything speaking it, like the {@link LlmStubServer}).
+ * Every request goes through the {@link OpenAiRequestScheduler}.
+ */
+@Component
+@Slf4j
+public class OpenAiLlmClient implements LlmClient {
+    @Value("${app.openai.api-key}")
+    private String apiKey;
+    @Value("${app.openai.api-base-url}")
+    private String apiBaseUrl;
+    @Value("${app.openai.model:gpt-5-mini}")
+    private String model;
+
+    @Autowired
+    @Qualifier("openAiRestTemplate")
+    private RestTemplate restTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private OpenAiRequestScheduler openAiRequestScheduler;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Override
+    public String model() {
+        return model;
+    }
+
+    @Override
+    public LlmCompletion complete(LlmRequest request) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "Bearer " + apiKey);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        HttpEntity<Map<String, Object>> requestEntity = new HttpEntity<>(requestBody(request, false), headers);
+
+        ResponseEntity<String> response;
+        try {
+            response = openAiRequestScheduler.submit(estimateTokens(request), () -> restTemplate.exchange(
+                    chatCompletionsUrl(), HttpMethod.POST, requestEntity, String.class));
+        } catch (HttpClientErrorException.TooManyRequests e) {
+            openAiRequestScheduler.rateLimited(e.getResponseHeaders());
+            throw e;
+        }
+        openAiRequestScheduler.update(response.getHeaders());
+
+        JsonNode body;
+        try {
+            body = objectMapper.readTree(response.getBody());
+        } catch (Exception e) {
+            throw new RuntimeException("Unreadable response from OpenAI", e);
+        }
+        JsonNode choice = body.path("choices").path(0);
+        JsonNode content = choice.path("message").path("content");
+        if (!content.isTextual()) {
+            throw new RuntimeException("Unexpected response format from OpenAI");
+        }
+        return completion(content.asText(), choice.path("finish_reason").asText(null), body.path("usage"));
+    }
+
+    @Override
+    public LlmCompletion stream(LlmRequest request, Consumer<String> onDelta) {
+        Map<String, Object> requestBody = requestBody(request, true);
+        try {
+            return openAiRequestScheduler.submit(estimateTokens(request), () -> restTemplate.execute(chatCompletionsUrl(), HttpMethod.POST,
+                    httpRequest -> {
+                        httpRequest.getHeaders().set("Authorization", "Bearer " + apiKey);
+                        httpRequest.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                        httpRequest.getHeaders().setAccept(List.of(MediaType.TEXT_EVENT_STREAM));
+                        httpRequest.getBody().write(objectMapper.writeValueAsBytes(requestBody));
+                    },
+                    response -> {
+                        openAiRequestScheduler.update(response.getHeaders());
+                        return readStream(response.getBody(), onDelta);
+                    }));
+        } catch (HttpClientErrorException.TooManyRequests e) {
+            openAiRequestScheduler.rateLimited(e.getResponseHeaders());
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the server-sent events of a streamed completion ("data: {chunk}" lines, up to "data: [DONE]")
+     */
+    private LlmCompletion readStream(InputStream body, Consumer<String> onDelta) throws IOException {
+        StringBuilder answer = new StringBuilder();
+        String finishReason = null;
+        JsonNode usage = null;
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (!line.startsWith("data:")) {
+                continue;
+            }
+            String data = line.substring("data:".length()).trim();
+            if (data.equals("[DONE]")) {
+                break;
+            }
+            JsonNode chunk = objectMapper.readTree(data);
+            JsonNode choice = chunk.path("choices").path(0);
+            JsonNode content = choice.path("delta").path("content");
+            if (content.isTextual() && !content.asText().isEmpty()) {
+                answer.append(content.asText());
+                onDelta.accept(content.asText());
+            }
+            if (choice.path("finish_reason").isTextual()) {
+                finishReason = choice.path("finish_reason").asText();
+            }
+            if (chunk.path("usage").isObject()) {
+                // sent in a last chunk without choices, as asked by stream_options.include_usage
+                usage = chunk.path("usage");
+            }
+        }
+        return completion(answer.toString(), finishReason, usage);
+    }
+
+    private LlmCompletion completion(String content, String finishReason, JsonNode usage) {
+        long promptTokens = usage != null ? usage.path("prompt_tokens").asLong() : 0;
+        long cachedPromptTokens = usage != null ? usage.path("prompt_tokens_details").path("cached_tokens").asLong() : 0;
+        long completionTokens = usage != null ? usage.path("completion_tokens").asLong() : 0;
+        meterRegistry.counter("llm.tokens", "type", "prompt").increment(promptTokens);
+        // prompt tokens served from OpenAI's prompt cache (cheaper and faster), included in the prompt tokens
+        meterRegistry.counter("llm.tokens", "type", "cached_prompt").increment(cachedPromptTokens);
+        meterRegistry.counter("llm.tokens", "type", "completion").increment(completionTokens);
+        return new LlmCompletion(content, finishReason, promptTokens, cachedPromptTokens, completionTokens);
+    }
+
+    private Map<String, Object> requestBody(LlmRequest request, boolean stream) {
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("model", model);
+        requestBody.put("max_completion_tokens", request.maxCompletionTokens());
+
+        Map<String, Object> message = new HashMap<>();
+        message.put("role", "user");
+        message.put("content", request.prompt());
+        requestBody.put("messages", new Object[]{message});
+        if (request.responseFormat() != null) {
+            requestBody.put("response_format", request.responseFormat());
+        }
+        if (stream) {
+            requestBody.put("stream", true);
+            requestBody.put("stream_options", Map.of("include_usage", true));
+        }
+        return requestBody;
+    }
+
+    /**
+     * @return the tokens OpenAI counts against the rate limit for a request: the prompt and the completion limit
+     */
+    private static long estimateTokens(LlmRequest request) {
+        return TokenEstimator.estimate(request.prompt()) + request.maxCompletionTokens();
+    }
+
+    private String chatCompletionsUrl() {
+        return apiBaseUrl + "/v1/chat/completions";
+    }
+}
@@ -0,0 +1,278 @@
+package hackathon_jump.server.business.service.llm;
+
+import hackathon_jump.server.model.enums.ELlmPriority;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Single gate in front of OpenAI: every request waits here for a slot within the request (RPM) and token (TPM)
+ * budgets, interactive requests first.
+ *
+ * The budgets start from the configured limits and follow OpenAI's x-ratelimit-* response headers; in between,
+ * each started request is charged its estimated prompt tokens plus its completion limit (which is what OpenAI
+ * counts against the limit). Background requests keep a share of each budget free for interactive ones,
+ * and never pass an interactive request that is waiting.
+ */
+@Component
+@Slf4j
+public class OpenAiRequestScheduler {
+    private static final Pattern DURATION_PART = Pattern.compile("(\\d+(?:\\.\\d+)?)(ms|h|m|s)");
+    private static final long WINDOW_MS = 60_000;
+    private static final ThreadLocal<ELlmPriority> PRIORITY = ThreadLocal.withInitial(() -> ELlmPriority.BACKGROUND);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.openai.scheduler.max-concurrent:8}")
+    private int maxConcurrent;
+    @Value("${app.openai.scheduler.requests-per-minute:500}")
+    private long requestLimit;
+    @Value("${app.openai.scheduler.tokens-per-minute:200000}")
+    private long tokenLimit;
+    @Value("${app.openai.scheduler.interactive-reserve:0.2}")
+    private double interactiveReserve;
+    @Value("${app.openai.scheduler.max-wait-ms:120000}")
+    private long maxWaitMs;
+
+    private record Ticket(ELlmPriority priority, long sequence, long tokens) {
+    }
+
+    private final PriorityQueue<Ticket> waiting = new PriorityQueue<>(
+            Comparator.comparing(Ticket::priority).thenComparingLong(Ticket::sequence));
+    private long sequence;
+    private int inFlight;
+    private long remainingRequests;
+    private long remainingTokens;
+    private long requestsResetAt;
+    private long tokensResetAt;
+
+    @PostConstruct
+    public void init() {
+        this.remainingRequests = requestLimit;
+        this.remainingTokens = tokenLimit;
+        for (ELlmPriority priority : ELlmPriority.values()) {
+            meterRegistry.gauge("llm.scheduler.waiting", Tags.of("priority", priority.name().toLowerCase()),
+                    this, scheduler -> scheduler.waitingCount(priority));
+        }
+        meterRegistry.gauge("llm.scheduler.remaining", Tags.of("budget", "requests"), this, scheduler -> scheduler.remaining(true));
+        meterRegistry.gauge("llm.scheduler.remaining", Tags.of("budget", "tokens"), this, scheduler -> scheduler.remaining(false));
+    }
+
+    /**
+     * Runs the work with the given priority for the OpenAI requests it makes on the current thread
+     */
+    public static <T> T withPriority(ELlmPriority priority, Supplier<T> work) {
+        ELlmPriority previous = PRIORITY.get();
+        PRIORITY.set(priority);
+        try {
+            return work.get();
+        } finally {
+            PRIORITY.set(previous);
+        }
+    }
+
+    public static ELlmPriority currentPriority() {
+        return PRIORITY.get();
+    }
+
+    /**
+     * Waits for a slot at the current thread's priority, then sends the request
+     * @param estimatedTokens the tokens OpenAI will count against the limit (prompt and completion limit)
+     */
+    public <T> T submit(long estimatedTokens, Supplier<T> request) {
+        ELlmPriority priority = currentPriority();
+        long waitStart = System.nanoTime();
+        acquire(priority, estimatedTokens);
+        Timer.builder("llm.scheduler.wait")
+                .tag("priority", priority.name().toLowerCase())
+                .register(meterRegistry)
+                .record(System.nanoTime() - waitStart, TimeUnit.NANOSECONDS);
+        try {
+            return request.get();
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Takes the budgets from the x-ratelimit-* headers of an OpenAI response
+     */
+    public synchronized void update(HttpHeaders headers) {
+        if (headers == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        requestLimit = headerLong(headers, "x-ratelimit-limit-requests", requestLimit);
+        tokenLimit = headerLong(headers, "x-ratelimit-limit-tokens", tokenLimit);
+        remainingRequests = headerLong(headers, "x-ratelimit-remaining-requests", remainingRequests);
+        remainingTokens = headerLong(headers, "x-ratelimit-remaining-tokens", remainingTokens);
+        long requestsResetMs = parseDurationMs(headers.getFirst("x-ratelimit-reset-requests"));
+        if (requestsResetMs >= 0) {
+            requestsResetAt = now + requestsResetMs;
+        }
+        long tokensResetMs = parseDurationMs(headers.getFirst("x-ratelimit-reset-tokens"));
+        if (tokensResetMs >= 0) {
+            tokensResetAt = now + tokensResetMs;
+        }
+        notifyAll();
+    }
+
+    /**
+     * Stops every request until the time given by a 429 response (Retry-After, or the reset headers)
+     */
+    public synchronized void rateLimited(HttpHeaders headers) {
+        long now = System.currentTimeMillis();
+        long retryAfterMs = headers != null ? headerLong(headers, "retry-after-ms", -1) : -1;
+        if (retryAfterMs < 0 && headers != null && headers.getFirst(HttpHeaders.RETRY_AFTER) != null) {
+            try {
+                retryAfterMs = (long) (Double.parseDouble(headers.getFirst(HttpHeaders.RETRY_AFTER)) * 1000);
+            } catch (NumberFormatException ignored) {
+                // an HTTP date, the reset headers are used instead
+            }
+        }
+        update(headers);
+        if (retryAfterMs < 0) {
+            retryAfterMs = Math.max(0, Math.max(requestsResetAt, tokensResetAt) - now);
+        }
+        remainingRequests = 0;
+        requestsResetAt = Math.max(requestsResetAt, now + Math.max(retryAfterMs, 1000));
+        log.warn("OpenAI rate limit hit, holding requests for {} ms", requestsResetAt - now);
+    }
+
+    private synchronized void acquire(ELlmPriority priority, long estimatedTokens) {
+        // a request larger than what background work may use would never fit
+        long tokens = Math.min(estimatedTokens, tokenLimit - reserve(tokenLimit, ELlmPriority.BACKGROUND));
+        Ticket ticket = new Ticket(priority, sequence++, tokens);
+        waiting.add(ticket);
+        long deadline = System.currentTimeMillis() + maxWaitMs;
+        try {
+            while (true) {
+                long now = System.currentTimeMillis();
+                refill(now);
+                if (waiting.peek() == ticket && canStart(ticket)) {
+                    break;
+                }
+                if (now >= deadline) {
+                    throw new RuntimeException("Timed out waiting for OpenAI capacity");
+                }
+                wait(Math.max(1, Math.min(deadline - now, nextRefillInMs(now))));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for OpenAI capacity", e);
+        } finally {
+            waiting.remove(ticket);
+            // the next ticket in line may be able to start too
+            notifyAll();
+        }
+
+        long now = System.currentTimeMillis();
+        inFlight++;
+        remainingRequests--;
+        remainingTokens -= ticket.tokens();
+        if (requestsResetAt <= now) {
+            requestsResetAt = now + WINDOW_MS;
+        }
+        if (tokensResetAt <= now) {
+            tokensResetAt = now + WINDOW_MS;
+        }
+    }
+
+    private synchronized void release() {
+        inFlight--;
+        notifyAll();
+    }
+
+    private boolean canStart(Ticket ticket) {
+        return inFlight < maxConcurrent
+                && remainingRequests - 1 >= reserve(requestLimit, ticket.priority())
+                && remainingTokens - ticket.tokens() >= reserve(tokenLimit, ticket.priority());
+    }
+
+    private long reserve(long limit, ELlmPriority priority) {
+        return priority == ELlmPriority.INTERACTIVE ? 0 : (long) Math.ceil(limit * interactiveReserve);
+    }
+
+    private void refill(long now) {
+        if (requestsResetAt > 0 && now >= requestsResetAt) {
+            remainingRequests = requestLimit;
+            requestsResetAt = 0;
+        }
+        if (tokensResetAt > 0 && now >= tokensResetAt) {
+            remainingTokens = tokenLimit;
+            tokensResetAt = 0;
+        }
+    }
+
+    private long nextRefillInMs(long now) {
+        long next = 1000;
+        if (requestsResetAt > now) {
+            next = Math.min(next, requestsResetAt - now);
+        }
+        if (tokensResetAt > now) {
+            next = Math.min(next, tokensResetAt - now);
+        }
+        return next;
+    }
+
+    private synchronized int waitingCount(ELlmPriority priority) {
+        return (int) waiting.stream().filter(ticket -> ticket.priority() == priority).count();
+    }
+
+    private synchronized long remaining(boolean requests) {
+        return requests ? remainingRequests : remainingTokens;
+    }
+
+    private static long headerLong(HttpHeaders headers, String name, long fallback) {
+        String value = headers.getFirst(name);
+        if (value == null) {
+            return fallback;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    /**
+     * Parses OpenAI's reset durations ("20ms", "1s", "6m0s", "1h2m3.5s")
+     * @return the duration in ms, -1 if missing or invalid
+     */
+    static long parseDurationMs(String value) {
+        if (value == null || value.isBlank()) {
+            return -1;
+        }
+        Matcher matcher = DURATION_PART.matcher(value.trim());
+        double ms = 0;
+        int end = 0;
+        while (matcher.find()) {
+            if (matcher.start() != end) {
+                return -1;
+            }
+            double amount = Double.parseDouble(matcher.group(1));
+            ms += switch (matcher.group(2)) {
+                case "h" -> amount * 3_600_000;
+                case "m" -> amount * 60_000;
+                case "s" -> amount * 1000;
+                default -> amount;
+            };
+            end = matcher.end();
+        }
+        return end == value.trim().length() && end > 0 ? (long) Math.ceil(ms) : -1;
+    }
+}
@@ -0,0 +1,32 @@
+package hackathon_jump.server.business.service.llm;
+
+/**
+ * Cheap estimate of the number of tokens of a text for GPT-style BPE tokenizers, without the vocabulary:
+ * a run of letters or digits costs about one token per 4 characters, any other visible character
+ * (punctuation, braces, quotes) about one token.
+ */
+public final class TokenEstimator {
+    private TokenEstimator() {
+    }
+
+    public static int estimate(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        int tokens = 0;
+        int wordLength = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                wordLength++;
+                continue;
+            }
+            tokens += (wordLength + 3) / 4;
+            wordLength = 0;
+            if (!Character.isWhitespace(c)) {
+                tokens++;
+            }
+        }
+        return tokens + (wordLength + 3) / 4;
+    }
+}
@@ -0,0 +1,223 @@
+package hackathon_jump.server.business.service.summary;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hackathon_jump.server.business.service.external.ChatGptService;
+import hackathon_jump.server.business.service.llm.OpenAiRequestScheduler;
+import hackathon_jump.server.business.service.llm.TokenEstimator;
+import hackathon_jump.server.business.service.transcript.TranscriptNormalizer;
+import hackathon_jump.server.model.dto.RollingSummary;
+import hackathon_jump.server.model.dto.TranscriptTurn;
+import hackathon_jump.server.model.enums.ELlmPriority;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Summarizes transcripts too long for one prompt with a map-reduce over the LLM.
+ *
+ * The transcript is split on speaker turn boundaries into chunks under a token budget, the chunks are
+ * summarized in parallel (at most {@code parallelism} requests at a time) and the partial summaries are
+ * merged a few at a time, level by level, until one is left.
+ */
+@Service
+@Slf4j
+public class ChunkedSummarizer {
+    @Autowired
+    private ChatGptService chatGptService;
+    @Autowired
+    private TranscriptNormalizer transcriptNormalizer;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.summary.map-reduce.threshold-tokens:12000}")
+    private int thresholdTokens;
+    @Value("${app.summary.map-reduce.chunk-tokens:3000}")
+    private int chunkTokens;
+    @Value("${app.summary.map-reduce.parallelism:4}")
+    private int parallelism;
+    @Value("${app.summary.map-reduce.fan-in:4}")
+    private int fanIn;
+
+    private ExecutorService executor;
+    private Semaphore permits;
+
+    @PostConstruct
+    public void init() {
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.permits = new Semaphore(parallelism);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * @return whether the turns are too long to be sent to the model in one prompt
+     */
+    public boolean exceedsThreshold(List<TranscriptTurn> turns) {
+        int tokens = 0;
+        for (TranscriptTurn turn : turns) {
+            tokens += estimate(turn);
+            if (tokens > thresholdTokens) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean exceedsThreshold(String transcriptText) {
+        return TokenEstimator.estimate(transcriptText) > thresholdTokens;
+    }
+
+    /**
+     * Splits the turns into consecutive chunks of at most the chunk budget.
+     * A single turn over the budget makes a chunk of its own.
+     */
+    public List<List<TranscriptTurn>> split(List<TranscriptTurn> turns) {
+        return split(turns, chunkTokens);
+    }
+
+    static List<List<TranscriptTurn>> split(List<TranscriptTurn> turns, int budgetTokens) {
+        List<List<TranscriptTurn>> chunks = new ArrayList<>();
+        List<TranscriptTurn> chunk = new ArrayList<>();
+        int chunkSize = 0;
+        for (TranscriptTurn turn : turns) {
+            int turnSize = estimate(turn);
+            if (!chunk.isEmpty() && chunkSize + turnSize > budgetTokens) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>();
+                chunkSize = 0;
+            }
+            chunk.add(turn);
+            chunkSize += turnSize;
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    /**
+     * @param prior the summary of the part of the meeting before the chunks, null if there is none
+     * @param chunks the chunks of the transcript, as given by {@link #split}
+     * @return the summary of the whole meeting, empty if a chunk could not be summarized
+     */
+    public Optional<RollingSummary> summarize(RollingSummary prior, List<List<TranscriptTurn>> chunks) {
+        log.info("Summarizing {} transcript chunks with up to {} parallel requests", chunks.size(), parallelism);
+
+        List<CompletableFuture<RollingSummary>> mapped = new ArrayList<>();
+        for (int i = 0; i < chunks.size(); i++) {
+            List<TranscriptTurn> chunk = chunks.get(i);
+            int chunkIndex = i;
+            mapped.add(async(() -> summarizeChunk(chunk, chunkIndex, chunks.size())));
+        }
+
+        List<RollingSummary> summaries = new ArrayList<>();
+        if (prior != null && !prior.isEmpty()) {
+            summaries.add(prior);
+        }
+        for (CompletableFuture<RollingSummary> future : mapped) {
+            RollingSummary summary = future.join();
+            if (summary == null) {
+                return Optional.empty();
+            }
+            summaries.add(summary);
+        }
+        return Optional.of(reduce(summaries));
+    }
+
+    /**
+     * Summarizes a chunk; an answer that cannot be used (e.g. cut at the completion limit) is retried on both halves of the chunk
+     * @return null if the chunk could not be summarized
+     */
+    private RollingSummary summarizeChunk(List<TranscriptTurn> chunk, int chunkIndex, int chunkCount) {
+        meterRegistry.counter("summary.map_reduce.requests", "step", "map").increment();
+        RollingSummary summary = RollingSummaryService.parse(objectMapper,
+                chatGptService.summarizeChunk(transcriptNormalizer.normalize(chunk), chunkIndex, chunkCount));
+        if (summary != null || chunk.size() < 2) {
+            return summary;
+        }
+
+        log.warn("Could not summarize chunk {} of {} ({} turns), retrying it in two halves", chunkIndex + 1, chunkCount, chunk.size());
+        int middle = chunk.size() / 2;
+        RollingSummary first = summarizeChunk(chunk.subList(0, middle), chunkIndex, chunkCount);
+        RollingSummary second = first != null ? summarizeChunk(chunk.subList(middle, chunk.size()), chunkIndex, chunkCount) : null;
+        return second != null ? first.union(second) : null;
+    }
+
+    private RollingSummary reduce(List<RollingSummary> summaries) {
+        int level = 0;
+        while (summaries.size() > 1) {
+            level++;
+            List<CompletableFuture<RollingSummary>> merged = new ArrayList<>();
+            for (int from = 0; from < summaries.size(); from += fanIn) {
+                List<RollingSummary> group = summaries.subList(from, Math.min(from + fanIn, summaries.size()));
+                merged.add(group.size() == 1 ? CompletableFuture.completedFuture(group.getFirst()) : async(() -> merge(group)));
+            }
+            log.debug("Reduce level {}: {} summaries merged into {}", level, summaries.size(), merged.size());
+            summaries = merged.stream().map(CompletableFuture::join).toList();
+        }
+        return summaries.getFirst();
+    }
+
+    /**
+     * @return the merged summary, or all the items of the group if the model's answer cannot be used
+     */
+    private RollingSummary merge(List<RollingSummary> group) {
+        meterRegistry.counter("summary.map_reduce.requests", "step", "reduce").increment();
+        List<String> partSummaries = new ArrayList<>();
+        try {
+            for (RollingSummary summary : group) {
+                partSummaries.add(objectMapper.writeValueAsString(summary));
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to serialize meeting summary", e);
+        }
+
+        RollingSummary merged = RollingSummaryService.parse(objectMapper, chatGptService.mergeSummaries(partSummaries));
+        if (merged != null) {
+            return merged;
+        }
+        log.warn("Could not merge {} partial summaries, keeping all their items", group.size());
+        return group.stream().reduce(RollingSummary::union).orElse(RollingSummary.EMPTY);
+    }
+
+    private <T> CompletableFuture<T> async(Supplier<T> task) {
+        // the requests keep the priority of the caller
+        ELlmPriority priority = OpenAiRequestScheduler.currentPriority();
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                this.permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for an LLM permit", e);
+            }
+            try {
+                return OpenAiRequestScheduler.withPriority(priority, task);
+            } finally {
+                this.permits.release();
+            }
+        }, this.executor);
+    }
+
+    private static int estimate(TranscriptTurn turn) {
+        // "Speaker: text" and the line break
+        return TokenEstimator.estimate(turn.speaker()) + TokenEstimator.estimate(turn.text()) + 2;
+    }
+}
@@ -0,0 +1,289 @@
+package hackathon_jump.server.business.service.summary;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hackathon_jump.server.business.service.external.ChatGptService;
+import hackathon_jump.server.business.service.transcript.TranscriptNormalizer;
+import hackathon_jump.server.infrastructure.repository.IMeetingSummaryRepository;
+import hackathon_jump.server.infrastructure.repository.ITranscriptUtteranceRepository;
+import hackathon_jump.server.model.domain.EventReport;
+import hackathon_jump.server.model.domain.MeetingSummary;
+import hackathon_jump.server.model.domain.TranscriptUtterance;
+import hackathon_jump.server.model.dto.RollingSummary;
+import hackathon_jump.server.model.dto.TranscriptTurn;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Keeps a running structured summary (key points, decisions, action items) of each meeting.
+ *
+ * The transcript is folded into the summary one chunk at a time: while the meeting runs for realtime
+ * transcripts long enough to be summarized (see {@link #summaryForPrompts}), and chunk by chunk when the bot is finished for the rest. The email and the post are then
+ * written from the summary, so the work left after the meeting is one chunk and a short final pass.
+ * What is left to fold when the bot is finished and too long for sequential folding (typically a long
+ * downloaded transcript) goes through the {@link ChunkedSummarizer} instead.
+ * The folds of running meetings are made on their own threads, the LLM calls would otherwise hold up the scheduler.
+ * The folds of a meeting are serialized with a ReentrantLock, a monitor held across the LLM calls would pin the carrier thread.
+ */
+@Service
+@Slf4j
+public class RollingSummaryService {
+    @Autowired
+    private IMeetingSummaryRepository meetingSummaryRepository;
+    @Autowired
+    private ITranscriptUtteranceRepository transcriptUtteranceRepository;
+    @Autowired
+    private ChatGptService chatGptService;
+    @Autowired
+    private TranscriptNormalizer transcriptNormalizer;
+    @Autowired
+    private ChunkedSummarizer chunkedSummarizer;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.summary.chunk-chars:6000}")
+    private int chunkChars;
+
+    /**
+     * one lock per event report, so the scheduled fold and the bot finishing never fold the same chunk twice
+     */
+    private final Map<Long, ReentrantLock> locks = new ConcurrentHashMap<>();
+    /**
+     * the running meetings being folded, so a slow fold is not queued again by the next tick
+     */
+    private final Set<Long> folding = ConcurrentHashMap.newKeySet();
+    private ExecutorService foldExecutor;
+
+    @PostConstruct
+    public void init() {
+        this.foldExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.foldExecutor.shutdownNow();
+    }
+
+    /**
+     * Folds the realtime transcript of the running meetings, one full chunk at a time
+     */
+    @Scheduled(fixedDelayString = "${app.summary.fold-interval-ms:60000}")
+    public void foldRunningMeetings() {
+        for (Long eventReportId : transcriptUtteranceRepository.findEventReportIds()) {
+            if (!folding.add(eventReportId)) {
+                continue;
+            }
+            foldExecutor.execute(() -> {
+                try {
+                    foldRunningMeeting(eventReportId);
+                } catch (Exception e) {
+                    log.warn("Failed to fold the running transcript of event report {}: {}", eventReportId, e.getMessage());
+                } finally {
+                    folding.remove(eventReportId);
+                }
+            });
+        }
+    }
+
+    private void foldRunningMeeting(Long eventReportId) {
+        ReentrantLock lock = lock(eventReportId);
+        lock.lock();
+        try {
+            MeetingSummary summary = load(eventReportId);
+            Long coveredUtteranceId = summary.getCoveredUtteranceId();
+            List<TranscriptUtterance> utterances = coveredUtteranceId != null
+                    ? transcriptUtteranceRepository.findAllByEventReportIdAndIdGreaterThanOrderByIdAsc(eventReportId, coveredUtteranceId)
+                    : transcriptUtteranceRepository.findAllByEventReportIdOrderByIdAsc(eventReportId);
+            if (coveredUtteranceId == null
+                    && !chunkedSummarizer.exceedsThreshold(transcriptNormalizer.normalize(utterances.stream().map(RollingSummaryService::toTurn).toList()))) {
+                // a meeting this short is sent whole, the summary would not be used
+                return;
+            }
+            foldChunks(summary, utterances, false);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The summary the prompts about a meeting are written from, instead of its transcript: only when the transcript
+     * (as sent, normalized) is too long to be sent whole. The report and the automations both choose with this rule,
+     * so their prompts start with the same meeting text and share OpenAI's cached prefix.
+     * Below the threshold nothing is folded, one request over the transcript is faster than summarizing it first.
+     * @param turns supplies the whole transcript, in start order, only read when a summary is needed
+     * @return the complete summary, empty to send the transcript (or if it could not be summarized)
+     */
+    public Optional<RollingSummary> summaryForPrompts(EventReport eventReport, Supplier<List<TranscriptTurn>> turns) {
+        if (!eventReport.hasTranscript()
+                || !chunkedSummarizer.exceedsThreshold(transcriptNormalizer.normalize(eventReport))) {
+            return Optional.empty();
+        }
+        return complete(eventReport.getId(), turns.get())
+                .filter(summary -> !summary.isEmpty());
+    }
+
+    /**
+     * Folds the turns that are not in the summary yet, the last partial chunk included
+     * @param turns the whole transcript, in start order
+     * @return the final summary, empty if a chunk could not be folded
+     */
+    public Optional<RollingSummary> complete(Long eventReportId, List<TranscriptTurn> turns) {
+        ReentrantLock lock = lock(eventReportId);
+        lock.lock();
+        try {
+            MeetingSummary summary = load(eventReportId);
+            List<TranscriptUtterance> remaining = summary.getCoveredUtteranceId() != null
+                    // folded live: what is left are the realtime utterances that arrived after the last fold
+                    ? transcriptUtteranceRepository.findAllByEventReportIdAndIdGreaterThanOrderByIdAsc(eventReportId, summary.getCoveredUtteranceId())
+                    : turns.subList(Math.min(coveredTurns(summary), turns.size()), turns.size()).stream()
+                            .map(turn -> new TranscriptUtterance(null, eventReportId, turn.startMs(), turn.endMs(), turn.speaker(), turn.text()))
+                            .toList();
+            List<TranscriptTurn> remainingTurns = remaining.stream().map(RollingSummaryService::toTurn).toList();
+            if (chunkedSummarizer.exceedsThreshold(remainingTurns)) {
+                // too long to fold chunk after chunk, summarize the chunks in parallel and merge them
+                List<List<TranscriptTurn>> chunks = chunkedSummarizer.split(remainingTurns);
+                Optional<RollingSummary> reduced = chunkedSummarizer.summarize(summary.getChunkCount() > 0 ? read(summary) : null, chunks);
+                if (reduced.isEmpty()) {
+                    return Optional.empty();
+                }
+                store(summary, reduced.get(), remaining, chunks.size());
+            } else if (!foldChunks(summary, remaining, true)) {
+                return Optional.empty();
+            }
+            log.info("Summary of event report {} is complete after {} chunks", eventReportId, summary.getChunkCount());
+            return Optional.of(read(summary));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Optional<RollingSummary> get(Long eventReportId) {
+        return meetingSummaryRepository.findByEventReportId(eventReportId).map(this::read);
+    }
+
+    @Transactional
+    public void delete(Long eventReportId) {
+        meetingSummaryRepository.deleteByEventReportId(eventReportId);
+        locks.remove(eventReportId);
+    }
+
+    /**
+     * @param includeLast whether the last chunk is folded even if it is smaller than the chunk size
+     * @return false if a chunk could not be folded
+     */
+    private boolean foldChunks(MeetingSummary summary, List<TranscriptUtterance> utterances, boolean includeLast) {
+        List<TranscriptUtterance> chunk = new ArrayList<>();
+        int chunkSize = 0;
+        for (TranscriptUtterance utterance : utterances) {
+            chunk.add(utterance);
+            chunkSize += utterance.getSpeaker().length() + utterance.getText().length() + 3;
+            if (chunkSize >= chunkChars) {
+                if (!fold(summary, chunk)) {
+                    return false;
+                }
+                chunk.clear();
+                chunkSize = 0;
+            }
+        }
+        return !includeLast || chunk.isEmpty() || fold(summary, chunk);
+    }
+
+    private boolean fold(MeetingSummary summary, List<TranscriptUtterance> chunk) {
+        String response = chatGptService.foldSummary(summary.getContent(),
+                transcriptNormalizer.normalize(chunk.stream().map(RollingSummaryService::toTurn).toList()));
+        RollingSummary updated = parse(objectMapper, response);
+        if (updated == null) {
+            log.warn("Could not fold chunk {} of event report {}: invalid summary returned", summary.getChunkCount(), summary.getEventReportId());
+            return false;
+        }
+
+        store(summary, updated, chunk, 1);
+        return true;
+    }
+
+    /**
+     * @param folded the utterances just folded into the summary; realtime ones (with an id) move coveredUtteranceId,
+     *               the turns of the finished transcript (without one) move coveredTurns
+     */
+    private void store(MeetingSummary summary, RollingSummary updated, List<TranscriptUtterance> folded, int chunkCount) {
+        try {
+            summary.setContent(objectMapper.writeValueAsString(updated));
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to serialize meeting summary", e);
+        }
+        TranscriptUtterance last = folded.getLast();
+        summary.setCoveredUntilMs(Math.max(summary.getCoveredUntilMs(), last.getStartMs()));
+        if (last.getId() != null) {
+            summary.setCoveredUtteranceId(last.getId());
+        } else {
+            summary.setCoveredTurns(coveredTurns(summary) + folded.size());
+        }
+        summary.setChunkCount(summary.getChunkCount() + chunkCount);
+        summary.setUpdatedAt(LocalDateTime.now());
+        summary.setId(meetingSummaryRepository.save(summary).getId());
+    }
+
+    /**
+     * Leniently reads a summary answered by the model
+     * @return null if the answer is not a summary
+     */
+    public static RollingSummary parse(ObjectMapper objectMapper, String response) {
+        if (response == null || response.isBlank()) {
+            return null;
+        }
+        // tolerate a markdown code fence around the JSON
+        int start = response.indexOf('{');
+        int end = response.lastIndexOf('}');
+        if (start < 0 || end < start) {
+            return null;
+        }
+        try {
+            RollingSummary summary = objectMapper.readValue(response.substring(start, end + 1), RollingSummary.class);
+            return new RollingSummary(
+                    summary.keyPoints() != null ? summary.keyPoints() : List.of(),
+                    summary.decisions() != null ? summary.decisions() : List.of(),
+                    summary.actionItems() != null ? summary.actionItems() : List.of());
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private RollingSummary read(MeetingSummary summary) {
+        RollingSummary rollingSummary = parse(objectMapper, summary.getContent());
+        return rollingSummary != null ? rollingSummary : RollingSummary.EMPTY;
+    }
+
+    private MeetingSummary load(Long eventReportId) {
+        return meetingSummaryRepository.findByEventReportId(eventReportId)
+                .orElseGet(() -> new MeetingSummary(null, eventReportId, null, -1, 0, null, 0, null));
+    }
+
+    private static int coveredTurns(MeetingSummary summary) {
+        return summary.getCoveredTurns() != null ? summary.getCoveredTurns() : 0;
+    }
+
+    private static TranscriptTurn toTurn(TranscriptUtterance utterance) {
+        return new TranscriptTurn(utterance.getSpeaker(), utterance.getStartMs(), utterance.getEndMs(), utterance.getText());
+    }
+
+    private ReentrantLock lock(Long eventReportId) {
+        return locks.computeIfAbsent(eventReportId, id -> new ReentrantLock());
+    }
+}
@@ -0,0 +1,70 @@
+package hackathon_jump.server.business.service.transcript;
+
+import hackathon_jump.server.business.service.external.RecallTranscriptParser;
+import hackathon_jump.server.infrastructure.repository.IEventReportRepository;
+import hackathon_jump.server.model.domain.EventReport;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves transcripts still stored in the old event_report.transcript column into the TranscriptStore
+ */
+@Component
+@Slf4j
+public class LegacyTranscriptMigration {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TranscriptStore transcriptStore;
+    @Autowired
+    private RecallTranscriptParser recallTranscriptParser;
+    @Autowired
+    private IEventReportRepository eventReportRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        List<Map<String, Object>> rows;
+        try {
+            boolean hasLegacyColumn = jdbcTemplate.queryForList("PRAGMA table_info(event_report)").stream()
+                    .anyMatch(column -> "transcript".equals(column.get("name")));
+            if (!hasLegacyColumn) {
+                return;
+            }
+            rows = jdbcTemplate.queryForList("SELECT id, transcript FROM event_report WHERE transcript IS NOT NULL");
+        } catch (Exception e) {
+            log.warn("Could not look for legacy transcripts: {}", e.getMessage());
+            return;
+        }
+
+        int migratedCnt = 0;
+        for (Map<String, Object> row : rows) {
+            Long eventReportId = ((Number) row.get("id")).longValue();
+            try {
+                TranscriptStore.Writer writer = transcriptStore.newWriter();
+                recallTranscriptParser.parse(new StringReader((String) row.get("transcript")), writer);
+                transcriptStore.save(eventReportId, writer);
+
+                EventReport eventReport = eventReportRepository.findById(eventReportId).orElse(null);
+                if (eventReport != null) {
+                    eventReport.setTranscriptAvailable(writer.getTurnCount() > 0);
+                    eventReportRepository.save(eventReport);
+                }
+                jdbcTemplate.update("UPDATE event_report SET transcript = NULL WHERE id = ?", eventReportId);
+                migratedCnt++;
+            } catch (Exception e) {
+                log.warn("Failed to migrate legacy transcript of event report {}: {}", eventReportId, e.getMessage());
+            }
+        }
+        if (migratedCnt > 0) {
+            log.info("Migrated {} legacy transcripts to the transcript store", migratedCnt);
+        }
+    }
+}
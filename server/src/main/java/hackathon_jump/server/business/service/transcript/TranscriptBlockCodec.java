@@ -0,0 +1,112 @@
+package hackathon_jump.server.business.service.transcript;
+
+import hackathon_jump.server.model.dto.TranscriptTurn;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Binary encoding of a block of transcript turns, deflated as a whole.
+ *
+ * Layout (before compression): turn count, then for each turn the speaker index in the transcript's
+ * speaker dictionary, the start as a zigzag delta from the previous turn's start, the duration,
+ * and the UTF-8 text prefixed by its length. All integers are unsigned LEB128 varints.
+ */
+public final class TranscriptBlockCodec {
+    private TranscriptBlockCodec() {
+    }
+
+    /**
+     * @param speakerIndexes the dictionary index of each turn's speaker, in the same order as the turns
+     */
+    public static byte[] encode(List<TranscriptTurn> turns, int[] speakerIndexes) {
+        ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        writeVarint(raw, turns.size());
+        long previousStart = 0;
+        for (int i = 0; i < turns.size(); i++) {
+            TranscriptTurn turn = turns.get(i);
+            writeVarint(raw, speakerIndexes[i]);
+            writeVarint(raw, zigzag(turn.startMs() - previousStart));
+            writeVarint(raw, Math.max(turn.endMs() - turn.startMs(), 0));
+            byte[] text = turn.text().getBytes(StandardCharsets.UTF_8);
+            writeVarint(raw, text.length);
+            raw.writeBytes(text);
+            previousStart = turn.startMs();
+        }
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.size() / 3 + 16);
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (DeflaterOutputStream out = new DeflaterOutputStream(compressed, deflater)) {
+            raw.writeTo(out);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to compress transcript block", e);
+        } finally {
+            deflater.end();
+        }
+        return compressed.toByteArray();
+    }
+
+    /**
+     * @param speakers the speaker dictionary of the transcript the block belongs to
+     */
+    public static List<TranscriptTurn> decode(byte[] data, List<String> speakers) {
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(data)))) {
+            int turnCount = (int) readVarint(in);
+            List<TranscriptTurn> turns = new ArrayList<>(turnCount);
+            long previousStart = 0;
+            for (int i = 0; i < turnCount; i++) {
+                int speakerIndex = (int) readVarint(in);
+                long start = previousStart + unzigzag(readVarint(in));
+                long end = start + readVarint(in);
+                byte[] text = new byte[(int) readVarint(in)];
+                in.readFully(text);
+                String speaker = speakerIndex < speakers.size() ? speakers.get(speakerIndex) : "Unknown";
+                turns.add(new TranscriptTurn(speaker, start, end, new String(text, StandardCharsets.UTF_8)));
+                previousStart = start;
+            }
+            return turns;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to decode transcript block", e);
+        }
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new IOException("Truncated transcript block");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in transcript block");
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
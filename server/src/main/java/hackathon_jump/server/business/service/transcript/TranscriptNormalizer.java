@@ -0,0 +1,145 @@
+package hackathon_jump.server.business.service.transcript;
+
+import hackathon_jump.server.business.service.external.RecallTranscriptParser;
+import hackathon_jump.server.model.domain.EventReport;
+import hackathon_jump.server.model.dto.TranscriptTurn;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Turns a transcript into the compact text sent to the LLM: one "Speaker: sentences" line per turn,
+ * consecutive turns of the same speaker merged, filler words (um, uh, you know, ...) removed,
+ * and no timestamps or JSON.
+ */
+@Component
+@Slf4j
+public class TranscriptNormalizer {
+    private static final String INTERJECTIONS = "um+|uh+|erm+|er|ah+|hmm+|mm+";
+    private static final String DISCOURSE_FILLERS = "you know|i mean|like|basically";
+
+    // a filler between two commas: "we should, um, cut" -> "we should cut"
+    private static final Pattern DELIMITED_FILLER = Pattern.compile(
+            ",\\s*(?:" + INTERJECTIONS + "|" + DISCOURSE_FILLERS + ")\\s*,\\s*", Pattern.CASE_INSENSITIVE);
+    // a filler opening a sentence: "Uh, thanks everyone" -> "thanks everyone"; a discourse filler only when a comma
+    // follows it, "Like the new design?" and "I mean the budget" say something
+    private static final Pattern LEADING_FILLER = Pattern.compile(
+            "(^|[.?!]\\s+)(?:(?:" + INTERJECTIONS + ")\\s*[,.]?|(?:" + DISCOURSE_FILLERS + ")\\s*,)\\s+", Pattern.CASE_INSENSITIVE);
+    // any other interjection
+    private static final Pattern INTERJECTION = Pattern.compile("\\b(?:" + INTERJECTIONS + ")\\b[,.]?", Pattern.CASE_INSENSITIVE);
+    private static final Pattern SPACE_BEFORE_PUNCTUATION = Pattern.compile("\\s+([,.?!])");
+    private static final Pattern SENTENCE_START = Pattern.compile("(^|[.?!]\\s+)(\\p{Ll})");
+
+    @Autowired
+    private RecallTranscriptParser recallTranscriptParser;
+
+    @Value("${app.transcript.normalized-cache-entries:128}")
+    private int cacheEntries;
+
+    private record CachedTranscript(int sourceHash, String normalized) {
+    }
+
+    private final Map<Long, CachedTranscript> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, CachedTranscript> eldest) {
+            return size() > cacheEntries;
+        }
+    };
+
+    /**
+     * @return the normalized transcript of the report (cached per report), or the raw transcript if it cannot be parsed
+     */
+    public String normalize(EventReport eventReport) {
+        if (eventReport.getNormalizedTranscript() != null) {
+            return eventReport.getNormalizedTranscript();
+        }
+        String transcript = eventReport.getTranscript();
+        if (transcript == null || transcript.isEmpty()) {
+            return transcript;
+        }
+
+        Long id = eventReport.getId();
+        int sourceHash = transcript.hashCode();
+        if (id != null) {
+            synchronized (cache) {
+                CachedTranscript cached = cache.get(id);
+                if (cached != null && cached.sourceHash() == sourceHash) {
+                    return cached.normalized();
+                }
+            }
+        }
+
+        List<TranscriptTurn> turns = new ArrayList<>();
+        try {
+            recallTranscriptParser.parse(new StringReader(transcript), turns::add);
+        } catch (Exception e) {
+            log.warn("Transcript of event report {} could not be parsed, using it as is: {}", id, e.getMessage());
+            return transcript;
+        }
+
+        String normalized = normalize(turns);
+        if (id != null) {
+            synchronized (cache) {
+                cache.put(id, new CachedTranscript(sourceHash, normalized));
+            }
+        }
+        return normalized;
+    }
+
+    public String normalize(Iterable<TranscriptTurn> turns) {
+        StringBuilder normalized = new StringBuilder();
+        String speaker = null;
+        StringBuilder turnText = new StringBuilder();
+        for (TranscriptTurn turn : turns) {
+            String text = stripFillers(turn.text());
+            if (text.isEmpty()) {
+                continue;
+            }
+            if (!turn.speaker().equals(speaker)) {
+                appendTurn(normalized, speaker, turnText);
+                speaker = turn.speaker();
+                turnText.setLength(0);
+            } else {
+                turnText.append(' ');
+            }
+            turnText.append(text);
+        }
+        appendTurn(normalized, speaker, turnText);
+        return normalized.toString();
+    }
+
+    static String stripFillers(String text) {
+        String stripped = DELIMITED_FILLER.matcher(text).replaceAll(" ");
+        stripped = LEADING_FILLER.matcher(stripped).replaceAll("$1");
+        stripped = INTERJECTION.matcher(stripped).replaceAll("");
+        stripped = SPACE_BEFORE_PUNCTUATION.matcher(stripped).replaceAll("$1");
+        stripped = stripped.replaceAll(",+", ",").replaceAll(",([.?!])", "$1").replaceAll("\\s{2,}", " ").trim();
+        if (stripped.startsWith(",")) {
+            stripped = stripped.substring(1).trim();
+        }
+
+        Matcher sentenceStart = SENTENCE_START.matcher(stripped);
+        StringBuilder capitalized = new StringBuilder();
+        while (sentenceStart.find()) {
+            sentenceStart.appendReplacement(capitalized, Matcher.quoteReplacement(sentenceStart.group(1) + sentenceStart.group(2).toUpperCase()));
+        }
+        sentenceStart.appendTail(capitalized);
+        return capitalized.toString();
+    }
+
+    private static void appendTurn(StringBuilder normalized, String speaker, StringBuilder turnText) {
+        if (speaker == null || turnText.isEmpty()) {
+            return;
+        }
+        normalized.append(speaker).append(": ").append(turnText).append('\n');
+    }
+}
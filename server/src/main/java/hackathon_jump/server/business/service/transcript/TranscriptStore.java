@@ -0,0 +1,243 @@
+package hackathon_jump.server.business.service.transcript;
+
+import hackathon_jump.server.business.service.external.RecallTranscriptParser;
+import hackathon_jump.server.infrastructure.repository.ITranscriptBlockRepository;
+import hackathon_jump.server.infrastructure.repository.ITranscriptRepository;
+import hackathon_jump.server.model.domain.EventReport;
+import hackathon_jump.server.model.domain.Transcript;
+import hackathon_jump.server.model.domain.TranscriptBlock;
+import hackathon_jump.server.model.dto.TranscriptTurn;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Stores meeting transcripts off the EventReport row, as a speaker dictionary ({@link Transcript})
+ * and compressed blocks of consecutive turns ({@link TranscriptBlock}).
+ *
+ * A time range or a single speaker can be read by decoding only the blocks that may contain it.
+ */
+@Service
+@Slf4j
+public class TranscriptStore {
+    private static final int MASK_BITS = 64;
+
+    @Autowired
+    private ITranscriptRepository transcriptRepository;
+    @Autowired
+    private ITranscriptBlockRepository transcriptBlockRepository;
+    @Autowired
+    private RecallTranscriptParser recallTranscriptParser;
+
+    @Value("${app.transcript.block-turns:64}")
+    private int blockTurns;
+
+    /**
+     * Collects turns into encoded blocks as they are parsed, nothing is persisted before {@link #save}
+     */
+    public static class Writer implements Consumer<TranscriptTurn> {
+        private final int blockTurns;
+        private final List<String> speakers = new ArrayList<>();
+        private final Map<String, Integer> speakerIndexes = new HashMap<>();
+        private final List<TranscriptTurn> pending = new ArrayList<>();
+        private final List<TranscriptBlock> blocks = new ArrayList<>();
+        private int turnCount;
+        private long durationMs;
+        private long compressedSize;
+
+        private Writer(int blockTurns) {
+            this.blockTurns = Math.max(blockTurns, 1);
+        }
+
+        @Override
+        public void accept(TranscriptTurn turn) {
+            this.pending.add(turn);
+            this.turnCount++;
+            this.durationMs = Math.max(this.durationMs, Math.max(turn.startMs(), turn.endMs()));
+            if (this.pending.size() >= this.blockTurns) {
+                seal();
+            }
+        }
+
+        public int getTurnCount() {
+            return this.turnCount;
+        }
+
+        private void seal() {
+            if (this.pending.isEmpty()) {
+                return;
+            }
+            int[] indexes = new int[this.pending.size()];
+            long speakerMask = 0;
+            long startMs = Long.MAX_VALUE;
+            long endMs = 0;
+            for (int i = 0; i < this.pending.size(); i++) {
+                TranscriptTurn turn = this.pending.get(i);
+                indexes[i] = this.speakerIndexes.computeIfAbsent(turn.speaker(), speaker -> {
+                    this.speakers.add(speaker);
+                    return this.speakers.size() - 1;
+                });
+                speakerMask |= speakerBit(indexes[i]);
+                startMs = Math.min(startMs, turn.startMs());
+                endMs = Math.max(endMs, Math.max(turn.startMs(), turn.endMs()));
+            }
+
+            byte[] data = TranscriptBlockCodec.encode(this.pending, indexes);
+            this.compressedSize += data.length;
+            this.blocks.add(new TranscriptBlock(null, null, this.blocks.size(), startMs, endMs, speakerMask, this.pending.size(), data));
+            this.pending.clear();
+        }
+    }
+
+    public Writer newWriter() {
+        return new Writer(blockTurns);
+    }
+
+    /**
+     * Persists the transcript of an event report, replacing the previous one if any
+     */
+    @Transactional
+    public Transcript save(Long eventReportId, Writer writer) {
+        writer.seal();
+        transcriptBlockRepository.deleteByEventReportId(eventReportId);
+        transcriptRepository.deleteByEventReportId(eventReportId);
+        transcriptRepository.flush();
+
+        for (TranscriptBlock block : writer.blocks) {
+            block.setEventReportId(eventReportId);
+        }
+        transcriptBlockRepository.saveAll(writer.blocks);
+        Transcript transcript = transcriptRepository.save(new Transcript(null, eventReportId, String.join("\n", writer.speakers),
+                writer.turnCount, writer.blocks.size(), writer.durationMs, writer.compressedSize));
+        log.debug("Stored transcript of event report {}: {} turns in {} blocks, {} bytes",
+                eventReportId, writer.turnCount, writer.blocks.size(), writer.compressedSize);
+        return transcript;
+    }
+
+    public boolean exists(Long eventReportId) {
+        return transcriptRepository.existsByEventReportId(eventReportId);
+    }
+
+    public Optional<Transcript> getHeader(Long eventReportId) {
+        return transcriptRepository.findByEventReportId(eventReportId);
+    }
+
+    public List<TranscriptTurn> readAll(Long eventReportId) {
+        return getHeader(eventReportId)
+                .map(header -> decode(transcriptBlockRepository.findAllByEventReportIdOrderByBlockIndex(eventReportId), speakers(header)))
+                .orElse(List.of());
+    }
+
+    /**
+     * @return the turns overlapping [fromMs, toMs], decoding only the blocks that overlap it
+     */
+    public List<TranscriptTurn> readRange(Long eventReportId, long fromMs, long toMs) {
+        Optional<Transcript> header = getHeader(eventReportId);
+        if (header.isEmpty()) {
+            return List.of();
+        }
+        return decode(transcriptBlockRepository.findOverlapping(eventReportId, fromMs, toMs), speakers(header.get()))
+                .stream()
+                .filter(turn -> turn.startMs() <= toMs && Math.max(turn.startMs(), turn.endMs()) >= fromMs)
+                .toList();
+    }
+
+    /**
+     * @return the turns of one speaker, decoding only the blocks where the speaker talks
+     */
+    public List<TranscriptTurn> readSpeaker(Long eventReportId, String speaker) {
+        Optional<Transcript> header = getHeader(eventReportId);
+        if (header.isEmpty()) {
+            return List.of();
+        }
+        List<String> speakers = speakers(header.get());
+        int speakerIndex = speakers.indexOf(speaker);
+        if (speakerIndex < 0) {
+            return List.of();
+        }
+
+        long bit = speakerBit(speakerIndex);
+        List<Long> blockIds = transcriptBlockRepository.findSummaries(eventReportId).stream()
+                .filter(summary -> (summary.getSpeakerMask() & bit) != 0)
+                .map(ITranscriptBlockRepository.BlockSummary::getId)
+                .toList();
+        if (blockIds.isEmpty()) {
+            return List.of();
+        }
+        return decode(transcriptBlockRepository.findAllByIdInOrderByBlockIndex(blockIds), speakers)
+                .stream()
+                .filter(turn -> turn.speaker().equals(speaker))
+                .toList();
+    }
+
+    /**
+     * @return the whole transcript as compact JSON, null if the event report has none
+     */
+    public String readCompactJson(Long eventReportId) {
+        List<TranscriptTurn> turns = readAll(eventReportId);
+        return turns.isEmpty() ? null : recallTranscriptParser.toCompactJson(turns);
+    }
+
+    /**
+     * @return the turns collected by the writer, without going through the database
+     */
+    public List<TranscriptTurn> turns(Writer writer) {
+        writer.seal();
+        return decode(writer.blocks, writer.speakers);
+    }
+
+    /**
+     * @return the turns collected by the writer, decoded one block at a time as they are iterated
+     */
+    public Iterable<TranscriptTurn> iterate(Writer writer) {
+        writer.seal();
+        return () -> writer.blocks.stream()
+                .flatMap(block -> TranscriptBlockCodec.decode(block.getData(), writer.speakers).stream())
+                .iterator();
+    }
+
+    /**
+     * Loads the transcript into the (transient) transcript field of the report, if not already there
+     */
+    public EventReport attach(EventReport eventReport) {
+        if (eventReport != null && eventReport.getTranscript() == null && Boolean.TRUE.equals(eventReport.getTranscriptAvailable())) {
+            eventReport.setTranscript(readCompactJson(eventReport.getId()));
+        }
+        return eventReport;
+    }
+
+    @Transactional
+    public void delete(Long eventReportId) {
+        transcriptBlockRepository.deleteByEventReportId(eventReportId);
+        transcriptRepository.deleteByEventReportId(eventReportId);
+    }
+
+    private static List<TranscriptTurn> decode(List<TranscriptBlock> blocks, List<String> speakers) {
+        List<TranscriptTurn> turns = new ArrayList<>();
+        for (TranscriptBlock block : blocks) {
+            turns.addAll(TranscriptBlockCodec.decode(block.getData(), speakers));
+        }
+        return turns;
+    }
+
+    private static List<String> speakers(Transcript header) {
+        return header.getSpeakers() == null || header.getSpeakers().isEmpty()
+                ? List.of()
+                : Arrays.asList(header.getSpeakers().split("\n", -1));
+    }
+
+    private static long speakerBit(int speakerIndex) {
+        // speakers past the mask share its last bit
+        return 1L << Math.min(speakerIndex, MASK_BITS - 1);
+    }
+}
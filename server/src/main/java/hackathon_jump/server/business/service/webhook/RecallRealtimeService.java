@@ -0,0 +1,220 @@
+package hackathon_jump.server.business.service.webhook;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hackathon_jump.server.infrastructure.repository.IEventReportRepository;
+import hackathon_jump.server.infrastructure.repository.ITranscriptUtteranceRepository;
+import hackathon_jump.server.model.domain.EventReport;
+import hackathon_jump.server.model.domain.TranscriptUtterance;
+import hackathon_jump.server.model.dto.TranscriptTurn;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Receives the transcript of running meetings from Recall realtime endpoints (transcript.data events).
+ *
+ * Utterances are buffered per event report and written to SQLite in batches. An utterance is identified by
+ * its start offset and speaker: Recall may redeliver or reorder events, so duplicates are dropped and the
+ * turns are put back in start order when the bot is finished.
+ */
+@Service
+@Slf4j
+public class RecallRealtimeService {
+    @Autowired
+    private ITranscriptUtteranceRepository transcriptUtteranceRepository;
+    @Autowired
+    private IEventReportRepository eventReportRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.recall.realtime.flush-size:50}")
+    private int flushSize;
+
+    private static class Buffer {
+        private final List<TranscriptUtterance> utterances = new ArrayList<>();
+        /**
+         * keys of the utterances received by this process, to drop redeliveries before they reach the database
+         */
+        private final Set<String> seenKeys = new HashSet<>();
+    }
+
+    private final Map<Long, Buffer> buffers = new ConcurrentHashMap<>();
+    private final Map<String, Long> eventReportIdsByBotId = new ConcurrentHashMap<>();
+
+    /**
+     * @return false if the event was ignored (partial results, unknown bot, duplicate)
+     */
+    public boolean ingest(String body) {
+        JsonNode payload;
+        try {
+            payload = objectMapper.readTree(body);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid Recall realtime payload", e);
+        }
+
+        String eventType = payload.path("event").asText();
+        if (!"transcript.data".equals(eventType)) {
+            // partial results are superseded by the final transcript.data of the same utterance
+            return false;
+        }
+
+        JsonNode data = payload.path("data");
+        String botId = data.path("bot").path("id").asText(null);
+        Long eventReportId = botId != null ? resolveEventReportId(botId) : null;
+        if (eventReportId == null) {
+            log.warn("Ignoring realtime transcript of unknown or finished bot {}", botId);
+            return false;
+        }
+
+        TranscriptUtterance utterance = toUtterance(eventReportId, data.path("data"));
+        if (utterance == null) {
+            return false;
+        }
+
+        Buffer buffer = buffers.computeIfAbsent(eventReportId, id -> new Buffer());
+        boolean full;
+        synchronized (buffer) {
+            if (!buffer.seenKeys.add(key(utterance.getStartMs(), utterance.getSpeaker()))) {
+                log.debug("Ignoring duplicate utterance at {} ms of bot {}", utterance.getStartMs(), botId);
+                return false;
+            }
+            buffer.utterances.add(utterance);
+            full = buffer.utterances.size() >= flushSize;
+        }
+        if (full) {
+            flush(eventReportId);
+        }
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${app.recall.realtime.flush-interval-ms:2000}")
+    public void flushAll() {
+        for (Long eventReportId : buffers.keySet()) {
+            flush(eventReportId);
+        }
+    }
+
+    /**
+     * Writes the buffered utterances of an event report in one batch, skipping the ones already stored
+     */
+    public void flush(Long eventReportId) {
+        Buffer buffer = buffers.get(eventReportId);
+        if (buffer == null) {
+            return;
+        }
+        synchronized (buffer) {
+            if (buffer.utterances.isEmpty()) {
+                return;
+            }
+            List<TranscriptUtterance> batch = new ArrayList<>(buffer.utterances);
+
+            long fromMs = batch.stream().mapToLong(TranscriptUtterance::getStartMs).min().orElse(0);
+            long toMs = batch.stream().mapToLong(TranscriptUtterance::getStartMs).max().orElse(0);
+            Set<String> storedKeys = new HashSet<>();
+            for (TranscriptUtterance stored : transcriptUtteranceRepository.findAllByEventReportIdAndStartMsBetween(eventReportId, fromMs, toMs)) {
+                storedKeys.add(key(stored.getStartMs(), stored.getSpeaker()));
+            }
+            batch.removeIf(utterance -> storedKeys.contains(key(utterance.getStartMs(), utterance.getSpeaker())));
+
+            transcriptUtteranceRepository.saveAll(batch);
+            // only dropped once stored, a failed batch is written again on the next flush
+            buffer.utterances.clear();
+            log.debug("Stored {} realtime utterances of event report {}", batch.size(), eventReportId);
+        }
+    }
+
+    /**
+     * Feeds the realtime transcript of an event report to the consumer, in start order
+     * @return the number of turns, 0 if no realtime transcript was received
+     */
+    public int drain(Long eventReportId, Consumer<TranscriptTurn> consumer) {
+        flush(eventReportId);
+        List<TranscriptUtterance> utterances = transcriptUtteranceRepository.findAllByEventReportIdOrderByStartMsAscIdAsc(eventReportId);
+        for (TranscriptUtterance utterance : utterances) {
+            consumer.accept(new TranscriptTurn(utterance.getSpeaker(), utterance.getStartMs(), utterance.getEndMs(), utterance.getText()));
+        }
+        return utterances.size();
+    }
+
+    public boolean hasUtterances(Long eventReportId) {
+        Buffer buffer = buffers.get(eventReportId);
+        if (buffer != null) {
+            synchronized (buffer) {
+                if (!buffer.utterances.isEmpty()) {
+                    return true;
+                }
+            }
+        }
+        return transcriptUtteranceRepository.existsByEventReportId(eventReportId);
+    }
+
+    /**
+     * Drops the realtime utterances of an event report, once they are in the TranscriptStore
+     */
+    @Transactional
+    public void clear(Long eventReportId) {
+        buffers.remove(eventReportId);
+        eventReportIdsByBotId.values().remove(eventReportId);
+        transcriptUtteranceRepository.deleteByEventReportId(eventReportId);
+    }
+
+    private Long resolveEventReportId(String botId) {
+        Long eventReportId = eventReportIdsByBotId.get(botId);
+        if (eventReportId == null) {
+            // once the bot is finished, late deliveries are not wanted anymore
+            eventReportId = eventReportRepository.findByBotId(botId)
+                    .filter(eventReport -> eventReport.getPlatform() == null)
+                    .map(EventReport::getId)
+                    .orElse(null);
+            if (eventReportId != null) {
+                eventReportIdsByBotId.put(botId, eventReportId);
+            }
+        }
+        return eventReportId;
+    }
+
+    private TranscriptUtterance toUtterance(Long eventReportId, JsonNode transcriptData) {
+        StringBuilder text = new StringBuilder();
+        long startMs = -1;
+        long endMs = -1;
+        for (JsonNode word : transcriptData.path("words")) {
+            String wordText = word.path("text").asText("").trim();
+            if (wordText.isEmpty()) {
+                continue;
+            }
+            if (!text.isEmpty()) {
+                text.append(' ');
+            }
+            text.append(wordText);
+            if (startMs < 0 && word.path("start_timestamp").has("relative")) {
+                startMs = Math.round(word.path("start_timestamp").path("relative").asDouble() * 1000);
+            }
+            if (word.path("end_timestamp").has("relative")) {
+                endMs = Math.round(word.path("end_timestamp").path("relative").asDouble() * 1000);
+            }
+        }
+        if (text.isEmpty()) {
+            return null;
+        }
+
+        String speaker = transcriptData.path("participant").path("name").asText("");
+        return new TranscriptUtterance(null, eventReportId, Math.max(startMs, 0), Math.max(endMs, Math.max(startMs, 0)),
+                speaker.isBlank() ? "Unknown" : speaker, text.toString());
+    }
+
+    private static String key(long startMs, String speaker) {
+        return startMs + "|" + speaker;
+    }
+}
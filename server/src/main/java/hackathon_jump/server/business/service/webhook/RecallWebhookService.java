@@ -0,0 +1,70 @@
+package hackathon_jump.server.business.service.webhook;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hackathon_jump.server.business.background_task.BotManagerTask;
+import hackathon_jump.server.business.service.external.RecallAiService;
+import hackathon_jump.server.infrastructure.repository.IRecallWebhookEventRepository;
+import hackathon_jump.server.model.domain.RecallWebhookEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+@Service
+@Slf4j
+public class RecallWebhookService {
+    /**
+     * events after which the transcript of a bot may be ready to be downloaded
+     */
+    private static final Set<String> FINISHING_EVENTS = Set.of("bot.done", "transcript.done");
+
+    @Autowired
+    private IRecallWebhookEventRepository recallWebhookEventRepository;
+    @Autowired
+    private BotManagerTask botManagerTask;
+    @Autowired
+    private RecallAiService recallAiService;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Ingests a verified webhook delivery. Deliveries that were already seen are ignored,
+     * so Recall's retries never finish a bot twice.
+     * @param messageId the id of the delivery, as given by the signature headers
+     * @param body the raw webhook body
+     * @return false if the delivery was a duplicate
+     */
+    public boolean ingest(String messageId, String body) {
+        JsonNode payload;
+        try {
+            payload = objectMapper.readTree(body);
+        } catch (Exception e) {
+            log.error("Failed to parse Recall webhook {}: {}", messageId, e.getMessage());
+            throw new IllegalArgumentException("Invalid Recall webhook payload", e);
+        }
+
+        String eventType = payload.path("event").asText(null);
+        String botId = payload.path("data").path("bot").path("id").asText(null);
+
+        synchronized (this) {
+            if (recallWebhookEventRepository.existsById(messageId)) {
+                log.info("Ignoring duplicate Recall webhook {} ({}) for bot {}", messageId, eventType, botId);
+                return false;
+            }
+            recallWebhookEventRepository.save(new RecallWebhookEvent(messageId, eventType, botId, LocalDateTime.now()));
+        }
+
+        log.info("Received Recall webhook {} ({}) for bot {}", messageId, eventType, botId);
+        if (botId != null && FINISHING_EVENTS.contains(eventType)) {
+            // the memoized snapshot predates this event
+            recallAiService.evictBotSnapshot(botId);
+            botManagerTask.markReady(botId);
+        } else if ("bot.fatal".equals(eventType)) {
+            log.warn("Recall reported a fatal error for bot {}: {}", botId, payload.path("data").path("data").path("sub_code").asText());
+        }
+        return true;
+    }
+}
@@ -0,0 +1,121 @@
+package hackathon_jump.server.business.service.webhook;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Verifies the signature of Recall webhooks.
+ *
+ * Recall delivers webhooks through Svix, which signs "{id}.{timestamp}.{body}" with HMAC-SHA256
+ * using the base64 part of the "whsec_..." signing secret. Newer deliveries use the "webhook-*"
+ * headers, older ones the "svix-*" headers, so both are accepted.
+ */
+@Component
+@Slf4j
+public class RecallWebhookVerifier {
+    public static final String SECRET_PREFIX = "whsec_";
+    private static final Duration TOLERANCE = Duration.ofMinutes(5);
+
+    @Value("${app.recall.webhook-secret:}")
+    private String webhookSecret;
+    @Value("${app.recall.realtime-token:}")
+    private String realtimeToken;
+
+    public RecallWebhookVerifier() {
+    }
+
+    public RecallWebhookVerifier(String webhookSecret) {
+        this.webhookSecret = webhookSecret;
+    }
+
+    /**
+     * Realtime endpoint deliveries are not signed like webhooks, their URL carries a shared token instead
+     */
+    public boolean verifyRealtimeToken(String token) {
+        if (realtimeToken == null || realtimeToken.isEmpty()) {
+            log.warn("Recall realtime token is not configured, rejecting realtime event");
+            return false;
+        }
+        return token != null && MessageDigest.isEqual(realtimeToken.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the message id of the delivery if the signature is valid, null otherwise
+     */
+    public String verify(HttpHeaders headers, String body) {
+        if (webhookSecret == null || webhookSecret.isEmpty()) {
+            log.warn("Recall webhook secret is not configured, rejecting webhook");
+            return null;
+        }
+
+        String id = firstHeader(headers, "webhook-id", "svix-id");
+        String timestamp = firstHeader(headers, "webhook-timestamp", "svix-timestamp");
+        String signatures = firstHeader(headers, "webhook-signature", "svix-signature");
+        if (id == null || timestamp == null || signatures == null) {
+            log.warn("Recall webhook is missing signature headers");
+            return null;
+        }
+
+        try {
+            Instant sentAt = Instant.ofEpochSecond(Long.parseLong(timestamp));
+            if (Duration.between(sentAt, Instant.now()).abs().compareTo(TOLERANCE) > 0) {
+                log.warn("Recall webhook {} timestamp {} is outside of the tolerance window", id, timestamp);
+                return null;
+            }
+        } catch (NumberFormatException e) {
+            log.warn("Recall webhook {} has an invalid timestamp: {}", id, timestamp);
+            return null;
+        }
+
+        byte[] expected = sign(id, timestamp, body).getBytes(StandardCharsets.UTF_8);
+        // the header may carry several space separated "v1,<signature>" entries (secret rotation)
+        for (String versionedSignature : signatures.split(" ")) {
+            int comma = versionedSignature.indexOf(',');
+            if (comma < 0 || !"v1".equals(versionedSignature.substring(0, comma))) {
+                continue;
+            }
+            byte[] actual = versionedSignature.substring(comma + 1).getBytes(StandardCharsets.UTF_8);
+            if (MessageDigest.isEqual(expected, actual)) {
+                return id;
+            }
+        }
+
+        log.warn("Recall webhook {} has an invalid signature", id);
+        return null;
+    }
+
+    /**
+     * Computes the base64 "v1" signature of a delivery (also used by the local webhook simulator)
+     */
+    public String sign(String id, String timestamp, String body) {
+        String secret = webhookSecret.startsWith(SECRET_PREFIX) ? webhookSecret.substring(SECRET_PREFIX.length()) : webhookSecret;
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(Base64.getDecoder().decode(secret), "HmacSHA256"));
+            byte[] signature = mac.doFinal((id + "." + timestamp + "." + body).getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(signature);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to sign Recall webhook", e);
+        }
+    }
+
+    private String firstHeader(HttpHeaders headers, String... names) {
+        for (String name : names) {
+            String value = headers.getFirst(name);
+            if (value != null && !value.isEmpty()) {
+                return value;
+            }
+        }
+        return null;
+    }
+}
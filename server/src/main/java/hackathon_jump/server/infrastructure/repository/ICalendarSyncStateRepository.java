@@ -0,0 +1,15 @@
+package hackathon_jump.server.infrastructure.repository;
+
+import hackathon_jump.server.model.domain.CalendarSyncState;
+import hackathon_jump.server.model.domain.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ICalendarSyncStateRepository extends JpaRepository<CalendarSyncState, Long> {
+    List<CalendarSyncState> findAllByOwner(User owner);
+    Optional<CalendarSyncState> findByOwnerAndCalendarId(User owner, String calendarId);
+}
@@ -0,0 +1,17 @@
+package hackathon_jump.server.infrastructure.repository;
+
+import hackathon_jump.server.model.domain.CalendarWatchChannel;
+import hackathon_jump.server.model.domain.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ICalendarWatchChannelRepository extends JpaRepository<CalendarWatchChannel, Long> {
+    Optional<CalendarWatchChannel> findByChannelId(String channelId);
+    List<CalendarWatchChannel> findAllByOwner(User owner);
+    List<CalendarWatchChannel> findAllByExpirationBefore(LocalDateTime expiration);
+}
@@ -14,5 +14,8 @@ public interface IEventRepository extends JpaRepository<Event, Long> {
     List<Event> findAllByOwner(User owner);
     List<Event> findAllByOwnerAndFinishedIsFalseAndEventReportIsNotNullAndStartDateTimeBefore(User owner, LocalDateTime dateTime);
 
-    Optional<Event> findOneByGoogleId(String googleId);
+    List<Event> findAllByOwnerAndEndDateTimeAfter(User owner, LocalDateTime dateTime);
+    List<Event> findAllByOwnerAndCalendarIdAndEndDateTimeAfter(User owner, String calendarId, LocalDateTime dateTime);
+
+    Optional<Event> findOneByOwnerAndGoogleId(User owner, String googleId);
 }
@@ -0,0 +1,22 @@
+package hackathon_jump.server.infrastructure.repository;
+
+import hackathon_jump.server.model.domain.LlmCacheEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ILlmCacheEntryRepository extends JpaRepository<LlmCacheEntry, String> {
+    @Modifying
+    @Query("DELETE FROM LlmCacheEntry e WHERE e.createdAt < :createdBefore")
+    int deleteExpired(@Param("createdBefore") LocalDateTime createdBefore);
+
+    @Query("SELECT e.requestHash FROM LlmCacheEntry e ORDER BY e.lastAccessedAt")
+    List<String> findLeastRecentlyUsed(Pageable pageable);
+}
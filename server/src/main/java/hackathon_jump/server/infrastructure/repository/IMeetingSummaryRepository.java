@@ -0,0 +1,13 @@
+package hackathon_jump.server.infrastructure.repository;
+
+import hackathon_jump.server.model.domain.MeetingSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface IMeetingSummaryRepository extends JpaRepository<MeetingSummary, Long> {
+    Optional<MeetingSummary> findByEventReportId(Long eventReportId);
+    void deleteByEventReportId(Long eventReportId);
+}
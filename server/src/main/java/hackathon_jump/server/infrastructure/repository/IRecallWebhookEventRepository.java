@@ -0,0 +1,9 @@
+package hackathon_jump.server.infrastructure.repository;
+
+import hackathon_jump.server.model.domain.RecallWebhookEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface IRecallWebhookEventRepository extends JpaRepository<RecallWebhookEvent, String> {
+}
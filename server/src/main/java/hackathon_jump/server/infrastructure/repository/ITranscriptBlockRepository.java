@@ -0,0 +1,33 @@
+package hackathon_jump.server.infrastructure.repository;
+
+import hackathon_jump.server.model.domain.TranscriptBlock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ITranscriptBlockRepository extends JpaRepository<TranscriptBlock, Long> {
+    /**
+     * Block metadata without the encoded data, used to choose which blocks to load
+     */
+    interface BlockSummary {
+        Long getId();
+        long getSpeakerMask();
+    }
+
+    List<TranscriptBlock> findAllByEventReportIdOrderByBlockIndex(Long eventReportId);
+
+    // blocks overlapping [fromMs, toMs]
+    @Query("SELECT b FROM TranscriptBlock b WHERE b.eventReportId = :eventReportId AND b.startMs <= :toMs AND b.endMs >= :fromMs ORDER BY b.blockIndex")
+    List<TranscriptBlock> findOverlapping(@Param("eventReportId") Long eventReportId, @Param("fromMs") long fromMs, @Param("toMs") long toMs);
+
+    @Query("SELECT b.id AS id, b.speakerMask AS speakerMask FROM TranscriptBlock b WHERE b.eventReportId = :eventReportId ORDER BY b.blockIndex")
+    List<BlockSummary> findSummaries(@Param("eventReportId") Long eventReportId);
+
+    List<TranscriptBlock> findAllByIdInOrderByBlockIndex(List<Long> ids);
+
+    void deleteByEventReportId(Long eventReportId);
+}
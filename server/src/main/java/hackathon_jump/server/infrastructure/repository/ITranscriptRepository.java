@@ -0,0 +1,14 @@
+package hackathon_jump.server.infrastructure.repository;
+
+import hackathon_jump.server.model.domain.Transcript;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ITranscriptRepository extends JpaRepository<Transcript, Long> {
+    Optional<Transcript> findByEventReportId(Long eventReportId);
+    boolean existsByEventReportId(Long eventReportId);
+    void deleteByEventReportId(Long eventReportId);
+}
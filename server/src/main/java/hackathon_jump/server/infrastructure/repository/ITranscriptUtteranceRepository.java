@@ -0,0 +1,20 @@
+package hackathon_jump.server.infrastructure.repository;
+
+import hackathon_jump.server.model.domain.TranscriptUtterance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ITranscriptUtteranceRepository extends JpaRepository<TranscriptUtterance, Long> {
+    List<TranscriptUtterance> findAllByEventReportIdOrderByStartMsAscIdAsc(Long eventReportId);
+    List<TranscriptUtterance> findAllByEventReportIdOrderByIdAsc(Long eventReportId);
+    List<TranscriptUtterance> findAllByEventReportIdAndIdGreaterThanOrderByIdAsc(Long eventReportId, Long id);
+    List<TranscriptUtterance> findAllByEventReportIdAndStartMsBetween(Long eventReportId, long fromMs, long toMs);
+    @Query("SELECT DISTINCT u.eventReportId FROM TranscriptUtterance u")
+    List<Long> findEventReportIds();
+    boolean existsByEventReportId(Long eventReportId);
+    void deleteByEventReportId(Long eventReportId);
+}
@@ -0,0 +1,36 @@
+package hackathon_jump.server.model.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Where the incremental sync of a user's Google calendar is at: the nextSyncToken of its last listing
+ */
+@Entity
+@Table(uniqueConstraints =
+    @UniqueConstraint(name = "unique_ownerAndCalendarId", columnNames = {"owner_id", "calendarId"})
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class CalendarSyncState {
+    @Id
+    @GeneratedValue
+    private Long id;
+    @ManyToOne(fetch = FetchType.EAGER)
+    @JoinColumn(name = "owner_id", referencedColumnName = "id")
+    private User owner;
+    private String calendarId;
+    private String syncToken;
+    /**
+     * the end of the time window of the last full listing; changes to later events are ignored until the window moves
+     */
+    private LocalDateTime windowEnd;
+    private LocalDateTime lastSyncedAt;
+}
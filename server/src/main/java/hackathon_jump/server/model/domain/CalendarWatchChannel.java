@@ -0,0 +1,39 @@
+package hackathon_jump.server.model.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A Google push notification channel watching the events of a user's calendar.
+ * Google names the channel in every notification; the token is a per-channel secret it sends back, to tell real
+ * notifications apart from forged ones.
+ */
+@Entity
+@Table(uniqueConstraints =
+    @UniqueConstraint(name = "unique_channelId", columnNames = {"channelId"})
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class CalendarWatchChannel {
+    @Id
+    @GeneratedValue
+    private Long id;
+    @ManyToOne(fetch = FetchType.EAGER)
+    @JoinColumn(name = "owner_id", referencedColumnName = "id")
+    private User owner;
+    private String calendarId;
+    private String channelId;
+    /**
+     * Google's id of the watched resource, needed to stop the channel
+     */
+    private String resourceId;
+    private String token;
+    private LocalDateTime expiration;
+}
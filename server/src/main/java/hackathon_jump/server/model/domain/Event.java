@@ -12,7 +12,9 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table
+@Table(uniqueConstraints =
+    @UniqueConstraint(name = "unique_ownerAndGoogleId", columnNames = {"owner_id", "google_id"})
+)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -24,8 +26,11 @@ public class Event {
     @ManyToOne(fetch = FetchType.EAGER)
     @JoinColumn(name = "owner_id", referencedColumnName = "id")
     private User owner;
-    @Column(unique = true)
     private String googleId;
+    /**
+     * the Google calendar the event was synced from
+     */
+    private String calendarId;
     @OneToOne(fetch = FetchType.EAGER)
     @JoinColumn(name = "event_report_id", referencedColumnName = "id")
     @JsonIgnore
@@ -36,6 +41,7 @@ public class Event {
     @Convert(converter = StringListConverter.class)
     private List<String> attendees;
     private LocalDateTime startDateTime;
+    private LocalDateTime endDateTime;
     private String location;
     private String link;
     private boolean shouldSendBot;
@@ -25,9 +25,23 @@ public class EventReport {
     private String attendees;
     private LocalDateTime startDateTime;
     private EMeetingPlatform platform;
+    /**
+     * filled on demand from the TranscriptStore, the transcript itself is not stored on this row
+     */
+    @Transient
     private String transcript;
+    /**
+     * the transcript as sent in the prompts, when built straight from the turns instead of from the transcript (see TranscriptNormalizer)
+     */
+    @Transient
+    private String normalizedTranscript;
+    private Boolean transcriptAvailable;
     private String emailText;
     private String postText;
     @OneToOne(fetch = FetchType.EAGER, mappedBy = "eventReport")
     private Event event;
+
+    public boolean hasTranscript() {
+        return (transcript != null && !transcript.isEmpty()) || (normalizedTranscript != null && !normalizedTranscript.isEmpty());
+    }
 }
@@ -8,7 +8,9 @@ import lombok.NoArgsConstructor;
 
 @Entity
 @Data
-@Table
+@Table(uniqueConstraints =
+    @UniqueConstraint(name = "unique_automationAndEventReport", columnNames = {"automation_id", "event_report_id"})
+)
 @AllArgsConstructor
 @NoArgsConstructor
 @EqualsAndHashCode
@@ -0,0 +1,28 @@
+package hackathon_jump.server.model.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A cached LLM answer, keyed by the SHA-256 of the request (model, messages and parameters)
+ */
+@Entity
+@Table(indexes = @Index(name = "index_llmCacheEntry_lastAccessedAt", columnList = "lastAccessedAt"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class LlmCacheEntry {
+    @Id
+    private String requestHash;
+    private String model;
+    private String response;
+    private LocalDateTime createdAt;
+    private LocalDateTime lastAccessedAt;
+    private int hitCount;
+}
@@ -0,0 +1,43 @@
+package hackathon_jump.server.model.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Running summary of a meeting (a RollingSummary as JSON) and how far into the transcript it goes
+ */
+@Entity
+@Table
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class MeetingSummary {
+    @Id
+    @GeneratedValue
+    private Long id;
+    @Column(unique = true)
+    private Long eventReportId;
+    private String content;
+    /**
+     * the start offset of the last turn folded into the summary, -1 if none is
+     */
+    private long coveredUntilMs;
+    /**
+     * the number of turns folded into the summary when the bot was finished: the first ones of the transcript, in start order
+     * (null if none were, or the summary was stored before it was tracked)
+     */
+    private Integer coveredTurns;
+    /**
+     * the id of the last realtime utterance folded while the meeting ran; the utterances are folded in arrival (id) order,
+     * so a late utterance is folded once whatever its start. Null if none was folded live
+     */
+    private Long coveredUtteranceId;
+    private int chunkCount;
+    private LocalDateTime updatedAt;
+}
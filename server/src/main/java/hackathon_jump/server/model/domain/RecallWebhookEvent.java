@@ -0,0 +1,28 @@
+package hackathon_jump.server.model.domain;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A Recall webhook delivery that was already ingested, keyed by its message id (used for idempotency)
+ */
+@Entity
+@Table
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class RecallWebhookEvent {
+    @Id
+    private String id;
+    private String eventType;
+    private String botId;
+    private LocalDateTime receivedAt;
+}
@@ -0,0 +1,33 @@
+package hackathon_jump.server.model.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * Header of a stored meeting transcript: the speaker dictionary and some totals.
+ * The turns themselves live in compressed {@link TranscriptBlock}s, off the EventReport row.
+ */
+@Entity
+@Table
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class Transcript {
+    @Id
+    @GeneratedValue
+    private Long id;
+    @Column(unique = true)
+    private Long eventReportId;
+    /**
+     * speaker names separated by new lines, a block refers to a speaker by its index in this list
+     */
+    private String speakers;
+    private int turnCount;
+    private int blockCount;
+    private long durationMs;
+    private long compressedSize;
+}
@@ -0,0 +1,33 @@
+package hackathon_jump.server.model.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * A run of consecutive transcript turns, encoded and deflated by TranscriptBlockCodec.
+ * startMs / endMs / speakerMask let readers pick the blocks of a time range or a speaker without decoding the others.
+ */
+@Entity
+@Table(indexes = @Index(name = "index_transcriptBlock_eventReportId", columnList = "eventReportId, blockIndex"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class TranscriptBlock {
+    @Id
+    @GeneratedValue
+    private Long id;
+    private Long eventReportId;
+    private int blockIndex;
+    private long startMs;
+    private long endMs;
+    /**
+     * bit i is set if speaker i (of the first 64) talks in this block; bit 63 also stands for all speakers after it
+     */
+    private long speakerMask;
+    private int turnCount;
+    private byte[] data;
+}
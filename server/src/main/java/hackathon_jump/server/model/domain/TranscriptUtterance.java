@@ -0,0 +1,29 @@
+package hackathon_jump.server.model.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * An utterance received in real time while the meeting runs, kept until the bot is finished
+ * and its utterances are compacted into the TranscriptStore.
+ * (eventReportId, startMs, speaker) identifies an utterance, so redelivered ones are stored once.
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "unique_transcriptUtterance", columnNames = {"eventReportId", "startMs", "speaker"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class TranscriptUtterance {
+    @Id
+    @GeneratedValue
+    private Long id;
+    private Long eventReportId;
+    private long startMs;
+    private long endMs;
+    private String speaker;
+    private String text;
+}
@@ -8,6 +8,7 @@ import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -25,6 +26,15 @@ public class User {
     private Long id;
     private String username; // or email address in case of provider google
     private String oauthToken;
+    /**
+     * Google only: the offline refresh token, to get a new access token once it expires (null if none was granted)
+     */
+    @JsonIgnore
+    private String refreshToken;
+    /**
+     * when the access token expires, null if unknown
+     */
+    private LocalDateTime oauthTokenExpiresAt;
     private EOauthProvider provider;
     private Integer minutesBeforeMeeting;
     
@@ -0,0 +1,107 @@
+package hackathon_jump.server.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The parts of a Recall bot (GET /bot/{id}/) that the server uses, parsed once per fetch
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record BotSnapshot(
+        String id,
+        @JsonProperty("join_at") String joinAt,
+        @JsonProperty("meeting_participants") List<Participant> meetingParticipants,
+        List<Recording> recordings,
+        @JsonProperty("status_changes") List<StatusChange> statusChanges,
+        @JsonProperty("recording_config") RecordingConfig recordingConfig
+) {
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Participant(String id, String name) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Recording(String id, @JsonProperty("media_shortcuts") MediaShortcuts mediaShortcuts) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record MediaShortcuts(MediaShortcut transcript) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record MediaShortcut(String id, Status status, MediaShortcutData data) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Status(String code) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record MediaShortcutData(@JsonProperty("download_url") String downloadUrl) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record StatusChange(String code, @JsonProperty("sub_code") String subCode, @JsonProperty("created_at") String createdAt) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record RecordingConfig(TranscriptConfig transcript, @JsonProperty("realtime_endpoints") List<RealtimeEndpoint> realtimeEndpoints) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record TranscriptConfig(Map<String, Object> provider) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record RealtimeEndpoint(String type, String url, List<String> events) {
+    }
+
+    /**
+     * @return the transcript shortcut of the first recording that has one, null if there is none yet
+     */
+    public MediaShortcut transcript() {
+        if (recordings == null) {
+            return null;
+        }
+        for (Recording recording : recordings) {
+            if (recording.mediaShortcuts() != null && recording.mediaShortcuts().transcript() != null
+                    && recording.mediaShortcuts().transcript().id() != null) {
+                return recording.mediaShortcuts().transcript();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the code of the most recent status change (e.g. "in_call_recording", "call_ended", "done"), null if none
+     */
+    public String latestStatusCode() {
+        if (statusChanges == null || statusChanges.isEmpty()) {
+            return null;
+        }
+        return statusChanges.getLast().code();
+    }
+
+    public String transcriptProvider() {
+        if (recordingConfig == null || recordingConfig.transcript() == null || recordingConfig.transcript().provider() == null) {
+            return null;
+        }
+        return recordingConfig.transcript().provider().keySet().stream()
+                .filter(key -> !key.equals("provider"))
+                .findFirst()
+                .orElse(null);
+    }
+
+    public String realtimeWebhookUrl() {
+        if (recordingConfig == null || recordingConfig.realtimeEndpoints() == null) {
+            return null;
+        }
+        return recordingConfig.realtimeEndpoints().stream()
+                .filter(endpoint -> "webhook".equals(endpoint.type()))
+                .map(RealtimeEndpoint::url)
+                .findFirst()
+                .orElse(null);
+    }
+}
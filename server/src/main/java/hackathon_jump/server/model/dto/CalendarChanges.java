@@ -0,0 +1,14 @@
+package hackathon_jump.server.model.dto;
+
+import com.google.api.services.calendar.model.Event;
+
+import java.util.List;
+
+/**
+ * What changed in a Google calendar since its last sync
+ * @param fullSync whether this is a full listing (first sync, or the sync token expired); events missing from it are gone
+ * @param nextSyncToken the token to list the next changes with
+ */
+public record CalendarChanges(String calendarId, List<Event> changedEvents, List<String> cancelledEventIds,
+                              String nextSyncToken, boolean fullSync) {
+}
@@ -0,0 +1,11 @@
+package hackathon_jump.server.model.dto;
+
+/**
+ * A calendar (or a whole account, when calendarId is null) that could not be synced
+ */
+public record CalendarSyncFailure(String account, String calendarId, String reason) {
+    @Override
+    public String toString() {
+        return account + (calendarId != null ? "/" + calendarId : "") + ": " + reason;
+    }
+}
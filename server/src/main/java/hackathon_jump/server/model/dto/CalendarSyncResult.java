@@ -0,0 +1,9 @@
+package hackathon_jump.server.model.dto;
+
+import java.util.List;
+
+/**
+ * The changes of the calendars of one account, in calendar list order, and the calendars that failed
+ */
+public record CalendarSyncResult(List<CalendarChanges> changes, List<CalendarSyncFailure> failures) {
+}
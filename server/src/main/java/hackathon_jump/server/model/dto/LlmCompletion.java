@@ -0,0 +1,15 @@
+package hackathon_jump.server.model.dto;
+
+/**
+ * The answer of an LLM to a request, with the tokens the provider accounted for it
+ * @param finishReason why the generation stopped ("stop", "length", ...), null if unknown
+ * @param cachedPromptTokens the part of the prompt tokens the provider read from its prompt cache
+ */
+public record LlmCompletion(String content, String finishReason, long promptTokens, long cachedPromptTokens, long completionTokens) {
+    /**
+     * @return whether the answer was cut at the completion limit
+     */
+    public boolean isTruncated() {
+        return "length".equals(finishReason);
+    }
+}
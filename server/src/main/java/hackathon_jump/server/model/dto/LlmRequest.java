@@ -0,0 +1,10 @@
+package hackathon_jump.server.model.dto;
+
+import java.util.Map;
+
+/**
+ * A single-message completion request
+ * @param responseFormat the OpenAI-style response_format (e.g. a json_schema), null for plain text
+ */
+public record LlmRequest(String prompt, Map<String, Object> responseFormat, int maxCompletionTokens) {
+}
@@ -0,0 +1,7 @@
+package hackathon_jump.server.model.dto;
+
+/**
+ * The texts generated for a finished meeting
+ */
+public record ReportContent(String emailText, String postText) {
+}
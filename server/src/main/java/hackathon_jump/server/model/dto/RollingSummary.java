@@ -0,0 +1,62 @@
+package hackathon_jump.server.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Structured summary of a meeting, updated chunk by chunk while the transcript comes in
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record RollingSummary(List<String> keyPoints, List<String> decisions, List<String> actionItems) {
+    public static final RollingSummary EMPTY = new RollingSummary(List.of(), List.of(), List.of());
+
+    public boolean isEmpty() {
+        return isEmpty(keyPoints) && isEmpty(decisions) && isEmpty(actionItems);
+    }
+
+    /**
+     * @return the items of both summaries, this one's first (used when the model cannot merge them)
+     */
+    public RollingSummary union(RollingSummary other) {
+        return new RollingSummary(concat(keyPoints, other.keyPoints), concat(decisions, other.decisions), concat(actionItems, other.actionItems));
+    }
+
+    /**
+     * @return the summary as a plain text outline, for prompts
+     */
+    public String toOutline() {
+        StringBuilder outline = new StringBuilder();
+        appendSection(outline, "Key points", keyPoints);
+        appendSection(outline, "Decisions", decisions);
+        appendSection(outline, "Action items", actionItems);
+        return outline.toString();
+    }
+
+    private static void appendSection(StringBuilder outline, String title, List<String> items) {
+        outline.append(title).append(":\n");
+        if (isEmpty(items)) {
+            outline.append("- (none)\n");
+            return;
+        }
+        for (String item : items) {
+            outline.append("- ").append(item).append('\n');
+        }
+    }
+
+    private static List<String> concat(List<String> first, List<String> second) {
+        List<String> items = new ArrayList<>();
+        if (first != null) {
+            items.addAll(first);
+        }
+        if (second != null) {
+            items.addAll(second);
+        }
+        return items;
+    }
+
+    private static boolean isEmpty(List<String> items) {
+        return items == null || items.isEmpty();
+    }
+}
@@ -0,0 +1,11 @@
+package hackathon_jump.server.model.dto;
+
+import hackathon_jump.server.model.domain.Event;
+
+import java.util.List;
+
+/**
+ * The events of a session after a calendar sync, and the calendars whose changes could not be fetched
+ */
+public record SyncedEvents(List<Event> events, List<CalendarSyncFailure> failures) {
+}
@@ -0,0 +1,7 @@
+package hackathon_jump.server.model.dto;
+
+/**
+ * One speaker turn of a meeting transcript (offsets are relative to the start of the recording)
+ */
+public record TranscriptTurn(String speaker, long startMs, long endMs, String text) {
+}
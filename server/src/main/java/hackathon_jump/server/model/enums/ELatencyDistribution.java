@@ -0,0 +1,7 @@
+package hackathon_jump.server.model.enums;
+
+public enum ELatencyDistribution {
+    FIXED,
+    UNIFORM,
+    LOG_NORMAL
+}
@@ -0,0 +1,15 @@
+package hackathon_jump.server.model.enums;
+
+/**
+ * Priority of an OpenAI request, in scheduling order
+ */
+public enum ELlmPriority {
+    /**
+     * a user is waiting for the answer
+     */
+    INTERACTIVE,
+    /**
+     * bot finishing, summaries, precomputation: runs in the capacity left by interactive requests
+     */
+    BACKGROUND
+}
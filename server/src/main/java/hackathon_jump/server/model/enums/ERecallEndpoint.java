@@ -0,0 +1,25 @@
+package hackathon_jump.server.model.enums;
+
+/**
+ * Recall API endpoints, each with its own circuit breaker
+ */
+public enum ERecallEndpoint {
+    CREATE_BOT(false),
+    GET_BOT(true),
+    DELETE_BOT(true),
+    GET_TRANSCRIPT(true),
+    DOWNLOAD_TRANSCRIPT(true);
+
+    /**
+     * whether a call can be repeated after a failure that may have reached Recall (timeout, 5xx)
+     */
+    private final boolean idempotent;
+
+    ERecallEndpoint(boolean idempotent) {
+        this.idempotent = idempotent;
+    }
+
+    public boolean isIdempotent() {
+        return idempotent;
+    }
+}
@@ -0,0 +1,56 @@
+package hackathon_jump.server;
+
+import hackathon_jump.server.business.background_task.BotFinishingPipeline;
+import hackathon_jump.server.business.background_task.BotManagerTask;
+import hackathon_jump.server.business.background_task.BotPollScheduler;
+import hackathon_jump.server.business.service.external.RecallAiService;
+import hackathon_jump.server.business.service.external.RecallApiGuard;
+import hackathon_jump.server.infrastructure.repository.IEventReportRepository;
+import hackathon_jump.server.model.domain.EventReport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class BotManagerTaskTests {
+
+    @Test
+    public void testFailedCycleGivesTheDueBotsBack() {
+        IEventReportRepository eventReportRepository = mock(IEventReportRepository.class);
+        EventReport eventReport = new EventReport();
+        eventReport.setBotId("bot-1");
+        when(eventReportRepository.findByBotId("bot-1")).thenReturn(Optional.of(eventReport));
+        when(eventReportRepository.findByBotId("bot-2")).thenThrow(new RuntimeException("database is locked"));
+        BotPollScheduler botPollScheduler = mock(BotPollScheduler.class);
+        when(botPollScheduler.pollDue()).thenReturn(List.of("bot-1", "bot-2", "bot-3"), List.of());
+        BotFinishingPipeline botFinishingPipeline = mock(BotFinishingPipeline.class);
+        when(botFinishingPipeline.submit(any())).thenReturn(new CompletableFuture<>());
+        RecallApiGuard recallApiGuard = mock(RecallApiGuard.class);
+        when(recallApiGuard.isAvailable(any())).thenReturn(true);
+
+        BotManagerTask botManagerTask = new BotManagerTask();
+        ReflectionTestUtils.setField(botManagerTask, "eventReportRepository", eventReportRepository);
+        ReflectionTestUtils.setField(botManagerTask, "recallAiService", mock(RecallAiService.class));
+        ReflectionTestUtils.setField(botManagerTask, "botFinishingPipeline", botFinishingPipeline);
+        ReflectionTestUtils.setField(botManagerTask, "botPollScheduler", botPollScheduler);
+        ReflectionTestUtils.setField(botManagerTask, "recallApiGuard", recallApiGuard);
+        ReflectionTestUtils.setField(botManagerTask, "meterRegistry", new SimpleMeterRegistry());
+
+        botManagerTask.execute();
+
+        // bot-1 is being finished, the others are checked again later
+        verify(botPollScheduler, never()).backOff(eq("bot-1"), any());
+        verify(botPollScheduler).backOff("bot-2", null);
+        verify(botPollScheduler).backOff("bot-3", null);
+
+        // not stuck on the failed cycle
+        botManagerTask.execute();
+        verify(botPollScheduler, times(2)).pollDue();
+    }
+}
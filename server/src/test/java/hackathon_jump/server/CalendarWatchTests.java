@@ -0,0 +1,250 @@
+package hackathon_jump.server;
+
+import com.google.api.services.calendar.model.Channel;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import hackathon_jump.server.api.controller.GoogleCalendarWebhookController;
+import hackathon_jump.server.business.background_task.CalendarWatchTask;
+import hackathon_jump.server.business.service.auth.GoogleTokenService;
+import hackathon_jump.server.business.service.calendar.CalendarWatchService;
+import hackathon_jump.server.business.service.calendar.EventService;
+import hackathon_jump.server.business.service.external.GoogleCalendarNotificationStub;
+import hackathon_jump.server.business.service.external.GoogleCalendarService;
+import hackathon_jump.server.infrastructure.repository.ICalendarWatchChannelRepository;
+import hackathon_jump.server.model.domain.CalendarWatchChannel;
+import hackathon_jump.server.model.domain.User;
+import hackathon_jump.server.model.enums.EOauthProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Notifications emitted by the local stand-in go through the real endpoint handling, over HTTP
+ */
+public class CalendarWatchTests {
+    private final User user = new User(1L, "alice@example.com", "token", null, null, EOauthProvider.GOOGLE, 2, new HashSet<>());
+    /**
+     * the channels saved in the repository, by channel id
+     */
+    private final Map<String, CalendarWatchChannel> channels = new ConcurrentHashMap<>();
+    private final List<String> receivedStates = new ArrayList<>();
+
+    private HttpServer server;
+    private GoogleCalendarNotificationStub notificationStub;
+    private CalendarWatchService calendarWatchService;
+    private CalendarWatchTask calendarWatchTask;
+    private EventService eventService;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        ICalendarWatchChannelRepository calendarWatchChannelRepository = mock(ICalendarWatchChannelRepository.class);
+        when(calendarWatchChannelRepository.save(any())).thenAnswer(invocation -> {
+            CalendarWatchChannel channel = invocation.getArgument(0);
+            channels.put(channel.getChannelId(), channel);
+            return channel;
+        });
+        doAnswer(invocation -> channels.remove(((CalendarWatchChannel) invocation.getArgument(0)).getChannelId()))
+                .when(calendarWatchChannelRepository).delete(any());
+        when(calendarWatchChannelRepository.findByChannelId(any()))
+                .thenAnswer(invocation -> Optional.ofNullable(channels.get((String) invocation.getArgument(0))));
+        when(calendarWatchChannelRepository.findAllByOwner(user)).thenAnswer(invocation -> List.copyOf(channels.values()));
+        when(calendarWatchChannelRepository.findAllByExpirationBefore(any())).thenAnswer(invocation -> channels.values().stream()
+                .filter(channel -> channel.getExpiration().isBefore(invocation.getArgument(0)))
+                .toList());
+
+        notificationStub = new GoogleCalendarNotificationStub();
+        notificationStub.start();
+
+        calendarWatchService = new CalendarWatchService();
+        ReflectionTestUtils.setField(calendarWatchService, "calendarWatchChannelRepository", calendarWatchChannelRepository);
+        ReflectionTestUtils.setField(calendarWatchService, "notificationStub", notificationStub);
+        ReflectionTestUtils.setField(calendarWatchService, "enabled", true);
+        ReflectionTestUtils.setField(calendarWatchService, "ttlHours", 168L);
+        ReflectionTestUtils.setField(calendarWatchService, "renewBeforeHours", 24L);
+        calendarWatchService.init();
+
+        eventService = mock(EventService.class);
+        calendarWatchTask = new CalendarWatchTask();
+        ReflectionTestUtils.setField(calendarWatchTask, "calendarWatchChannelRepository", calendarWatchChannelRepository);
+        ReflectionTestUtils.setField(calendarWatchTask, "eventService", eventService);
+        ReflectionTestUtils.setField(calendarWatchTask, "calendarWatchService", calendarWatchService);
+        calendarWatchTask.init();
+
+        GoogleCalendarWebhookController controller = new GoogleCalendarWebhookController();
+        ReflectionTestUtils.setField(controller, "calendarWatchService", calendarWatchService);
+        ReflectionTestUtils.setField(controller, "calendarWatchTask", calendarWatchTask);
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/public/google/calendar/notifications", exchange -> forward(exchange, controller));
+        server.start();
+        ReflectionTestUtils.setField(calendarWatchService, "address",
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/api/public/google/calendar/notifications");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        calendarWatchTask.shutdown();
+        calendarWatchService.shutdown();
+        notificationStub.stop();
+        server.stop(0);
+    }
+
+    @Test
+    public void testNotificationsOfACalendarTriggerOneTargetedSync() throws Exception {
+        calendarWatchService.watch(user, List.of("work", "home"));
+        assertEquals(2, channels.size());
+
+        assertEquals(1, notificationStub.emitChange("work"));
+        assertEquals(1, notificationStub.emitChange("work"));
+        calendarWatchTask.syncChangedCalendars();
+
+        // synced off the scheduler thread
+        verify(eventService, timeout(2000).times(1)).syncCalendar(user, "work");
+        verify(eventService, never()).syncCalendar(user, "home");
+        // the sync message of a new channel is sent in the background
+        long deadline = System.currentTimeMillis() + 2000;
+        while (!receivedSync() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(receivedSync(), "a sync message is sent when the channel is opened");
+
+        // already watched
+        calendarWatchService.watch(user, List.of("work"));
+        assertEquals(2, channels.size());
+    }
+
+    @Test
+    public void testForgedNotificationIsRejected() {
+        calendarWatchService.watch(user, List.of("work"));
+        CalendarWatchChannel channel = channels.values().iterator().next();
+
+        assertNotNull(calendarWatchService.verify(channel.getChannelId(), channel.getToken(), channel.getResourceId()));
+        assertNull(calendarWatchService.verify(channel.getChannelId(), "guessed", channel.getResourceId()));
+        assertNull(calendarWatchService.verify("unknown", channel.getToken(), channel.getResourceId()));
+    }
+
+    @Test
+    public void testExpiringChannelIsReplaced() throws Exception {
+        calendarWatchService.watch(user, List.of("work"));
+        CalendarWatchChannel expiring = channels.values().iterator().next();
+        expiring.setExpiration(LocalDateTime.now().plusHours(1));
+
+        assertEquals(1, calendarWatchService.renewExpiring());
+
+        assertEquals(1, channels.size());
+        assertFalse(channels.containsKey(expiring.getChannelId()));
+        // only the new channel is notified
+        assertEquals(1, notificationStub.emitChange("work"));
+        calendarWatchTask.syncChangedCalendars();
+        verify(eventService, timeout(2000)).syncCalendar(user, "work");
+    }
+
+    @Test
+    public void testNotifiedSyncsDoNotHoldUpTheScheduler() throws Exception {
+        calendarWatchService.watch(user, List.of("work"));
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> release.await(5, TimeUnit.SECONDS)).when(eventService).syncCalendar(user, "work");
+
+        long start = System.currentTimeMillis();
+        notificationStub.emitChange("work");
+        calendarWatchTask.syncChangedCalendars();
+        verify(eventService, timeout(2000)).syncCalendar(user, "work");
+        // changed again while being synced: kept for the tick after that sync
+        notificationStub.emitChange("work");
+        calendarWatchTask.syncChangedCalendars();
+        assertTrue(System.currentTimeMillis() - start < 2000, "the ticks return while the sync runs");
+        verify(eventService, times(1)).syncCalendar(user, "work");
+
+        release.countDown();
+        verify(eventService, timeout(2000)).syncCalendar(user, "work");
+        Thread.sleep(100);
+        calendarWatchTask.syncChangedCalendars();
+        verify(eventService, timeout(2000).times(2)).syncCalendar(user, "work");
+    }
+
+    @Test
+    public void testChannelsAreUpdatedInTheBackground() throws Exception {
+        calendarWatchService.watch(user, List.of("old"));
+
+        calendarWatchService.update(user, List.of("work"), List.of("old"));
+
+        long deadline = System.currentTimeMillis() + 2000;
+        while (!watchedCalendarIds().equals(List.of("work")) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(List.of("work"), watchedCalendarIds());
+    }
+
+    @Test
+    public void testGoogleChannelsAreRenewedWithARefreshedToken() throws Exception {
+        GoogleCalendarService googleCalendarService = mock(GoogleCalendarService.class);
+        when(googleCalendarService.watchEvents(any(), any(), any(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> new Channel().setId(invocation.getArgument(3)).setResourceId("resource-work"));
+        GoogleTokenService googleTokenService = mock(GoogleTokenService.class);
+        when(googleTokenService.accessToken(user)).thenReturn("refreshed-token");
+
+        CalendarWatchService googleWatchService = new CalendarWatchService();
+        ReflectionTestUtils.setField(googleWatchService, "calendarWatchChannelRepository",
+                ReflectionTestUtils.getField(calendarWatchService, "calendarWatchChannelRepository"));
+        ReflectionTestUtils.setField(googleWatchService, "googleCalendarService", googleCalendarService);
+        ReflectionTestUtils.setField(googleWatchService, "googleTokenService", googleTokenService);
+        ReflectionTestUtils.setField(googleWatchService, "enabled", true);
+        ReflectionTestUtils.setField(googleWatchService, "address", "https://example.com/api/public/google/calendar/notifications");
+        ReflectionTestUtils.setField(googleWatchService, "ttlHours", 168L);
+        ReflectionTestUtils.setField(googleWatchService, "renewBeforeHours", 24L);
+        googleWatchService.init();
+        try {
+            googleWatchService.watch(user, List.of("work"));
+            CalendarWatchChannel expiring = channels.values().iterator().next();
+            expiring.setExpiration(LocalDateTime.now().plusHours(1));
+
+            // the access token from login expired long before the channel does
+            assertEquals(1, googleWatchService.renewExpiring());
+            verify(googleCalendarService, times(2)).watchEvents(eq("alice@example.com"), eq("refreshed-token"), eq("work"),
+                    any(), any(), any(), any());
+            verify(googleCalendarService).stopChannel("alice@example.com", "refreshed-token", expiring.getChannelId(), "resource-work");
+        } finally {
+            googleWatchService.shutdown();
+        }
+    }
+
+    private List<String> watchedCalendarIds() {
+        return channels.values().stream().map(CalendarWatchChannel::getCalendarId).toList();
+    }
+
+    private boolean receivedSync() {
+        synchronized (receivedStates) {
+            return receivedStates.contains("sync");
+        }
+    }
+
+    private void forward(HttpExchange exchange, GoogleCalendarWebhookController controller) throws IOException {
+        String resourceState = exchange.getRequestHeaders().getFirst("X-Goog-Resource-State");
+        synchronized (receivedStates) {
+            receivedStates.add(resourceState);
+        }
+        int status = controller.handleNotification(exchange.getRequestHeaders().getFirst("X-Goog-Channel-ID"),
+                exchange.getRequestHeaders().getFirst("X-Goog-Channel-Token"),
+                exchange.getRequestHeaders().getFirst("X-Goog-Resource-ID"),
+                resourceState).getStatusCode().value();
+        exchange.sendResponseHeaders(status, -1);
+        exchange.close();
+    }
+}
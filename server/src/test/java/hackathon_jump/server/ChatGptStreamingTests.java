@@ -0,0 +1,105 @@
+package hackathon_jump.server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import hackathon_jump.server.business.service.external.ChatGptService;
+import hackathon_jump.server.business.service.llm.LlmResponseCache;
+import hackathon_jump.server.business.service.llm.OpenAiLlmClient;
+import hackathon_jump.server.business.service.llm.OpenAiRequestScheduler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChatGptStreamingTests {
+    private static final List<String> CHUNKS = List.of(
+            "{\"choices\":[{\"index\":0,\"delta\":{\"role\":\"assistant\",\"content\":\"\"}}]}",
+            "{\"choices\":[{\"index\":0,\"delta\":{\"content\":\"Great \"}}]}",
+            "{\"choices\":[{\"index\":0,\"delta\":{\"content\":\"meeting\\ntoday!\"}}]}",
+            "{\"choices\":[{\"index\":0,\"delta\":{},\"finish_reason\":\"stop\"}]}");
+
+    private HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private ChatGptService chatGptService;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/chat/completions", exchange -> {
+            requests.incrementAndGet();
+            exchange.getRequestBody().readAllBytes();
+            exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                for (String chunk : CHUNKS) {
+                    out.write(("data: " + chunk + "\n\n").getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                }
+                out.write("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        server.start();
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        LlmResponseCache cache = new LlmResponseCache();
+        ReflectionTestUtils.setField(cache, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(cache, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cache, "memoryEntries", 16);
+        cache.init();
+
+        OpenAiRequestScheduler scheduler = new OpenAiRequestScheduler();
+        ReflectionTestUtils.setField(scheduler, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(scheduler, "maxConcurrent", 4);
+        ReflectionTestUtils.setField(scheduler, "requestLimit", 100L);
+        ReflectionTestUtils.setField(scheduler, "tokenLimit", 100_000L);
+        ReflectionTestUtils.setField(scheduler, "maxWaitMs", 1000L);
+        scheduler.init();
+
+        OpenAiLlmClient llmClient = new OpenAiLlmClient();
+        ReflectionTestUtils.setField(llmClient, "apiKey", "test");
+        ReflectionTestUtils.setField(llmClient, "apiBaseUrl", "http://127.0.0.1:" + server.getAddress().getPort());
+        ReflectionTestUtils.setField(llmClient, "model", "gpt-5-mini");
+        ReflectionTestUtils.setField(llmClient, "restTemplate", new RestTemplate());
+        ReflectionTestUtils.setField(llmClient, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(llmClient, "openAiRequestScheduler", scheduler);
+        ReflectionTestUtils.setField(llmClient, "meterRegistry", new SimpleMeterRegistry());
+
+        chatGptService = new ChatGptService();
+        ReflectionTestUtils.setField(chatGptService, "maxCompletionTokens", 100);
+        ReflectionTestUtils.setField(chatGptService, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(chatGptService, "llmResponseCache", cache);
+        ReflectionTestUtils.setField(chatGptService, "llmClient", llmClient);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testStreamsDeltasThenServesTheAnswerFromCache() {
+        List<String> deltas = new ArrayList<>();
+
+        String answer = chatGptService.streamChatGptResponse("prompt", true, deltas::add);
+
+        assertEquals("Great meeting\ntoday!", answer);
+        assertEquals(List.of("Great ", "meeting\ntoday!"), deltas);
+
+        // the same prompt is answered from the cache, in one piece
+        List<String> cachedDeltas = new ArrayList<>();
+        assertEquals(answer, chatGptService.streamChatGptResponse("prompt", false, cachedDeltas::add));
+        assertEquals(List.of(answer), cachedDeltas);
+        assertEquals(1, requests.get());
+    }
+}
@@ -0,0 +1,126 @@
+package hackathon_jump.server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hackathon_jump.server.business.service.external.ChatGptService;
+import hackathon_jump.server.business.service.summary.ChunkedSummarizer;
+import hackathon_jump.server.business.service.transcript.TranscriptNormalizer;
+import hackathon_jump.server.model.dto.RollingSummary;
+import hackathon_jump.server.model.dto.TranscriptTurn;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChunkedSummarizerTests {
+    /**
+     * Answers each chunk with one key point naming its first line, and merges by concatenating the key points
+     */
+    private static class FakeChatGptService extends ChatGptService {
+        private final ObjectMapper objectMapper = new ObjectMapper();
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicInteger maxRunning = new AtomicInteger();
+        private final AtomicInteger mapCalls = new AtomicInteger();
+        private final AtomicInteger reduceCalls = new AtomicInteger();
+
+        @Override
+        public String summarizeChunk(String transcriptChunk, int chunkIndex, int chunkCount) {
+            mapCalls.incrementAndGet();
+            return answer(() -> new RollingSummary(List.of(transcriptChunk.lines().findFirst().orElseThrow()), List.of(), List.of()));
+        }
+
+        @Override
+        public String mergeSummaries(List<String> partSummaries) {
+            reduceCalls.incrementAndGet();
+            return answer(() -> {
+                List<String> keyPoints = new ArrayList<>();
+                for (String part : partSummaries) {
+                    keyPoints.addAll(objectMapper.readValue(part, RollingSummary.class).keyPoints());
+                }
+                return new RollingSummary(keyPoints, List.of(), List.of());
+            });
+        }
+
+        private interface Answer {
+            RollingSummary get() throws Exception;
+        }
+
+        private String answer(Answer answer) {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(5);
+                return objectMapper.writeValueAsString(answer.get());
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            } finally {
+                running.decrementAndGet();
+            }
+        }
+    }
+
+    private FakeChatGptService chatGptService;
+    private ChunkedSummarizer summarizer;
+
+    @BeforeEach
+    public void setUp() {
+        chatGptService = new FakeChatGptService();
+        summarizer = new ChunkedSummarizer();
+        ReflectionTestUtils.setField(summarizer, "chatGptService", chatGptService);
+        ReflectionTestUtils.setField(summarizer, "transcriptNormalizer", new TranscriptNormalizer());
+        ReflectionTestUtils.setField(summarizer, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(summarizer, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(summarizer, "thresholdTokens", 200);
+        ReflectionTestUtils.setField(summarizer, "chunkTokens", 50);
+        ReflectionTestUtils.setField(summarizer, "parallelism", 3);
+        ReflectionTestUtils.setField(summarizer, "fanIn", 3);
+        summarizer.init();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        summarizer.shutdown();
+    }
+
+    @Test
+    public void testSplitsOnTurnsUnderBudget() {
+        List<TranscriptTurn> turns = turns(40);
+
+        List<List<TranscriptTurn>> chunks = summarizer.split(turns);
+
+        assertTrue(chunks.size() > 1);
+        assertEquals(turns, chunks.stream().flatMap(List::stream).toList());
+        assertTrue(summarizer.exceedsThreshold(turns));
+        assertFalse(summarizer.exceedsThreshold(turns.subList(0, 2)));
+    }
+
+    @Test
+    public void testMapsInParallelAndReducesHierarchically() {
+        List<TranscriptTurn> turns = turns(40);
+        List<List<TranscriptTurn>> chunks = summarizer.split(turns);
+
+        RollingSummary summary = summarizer.summarize(new RollingSummary(List.of("before"), List.of(), List.of()), chunks).orElseThrow();
+
+        assertEquals(chunks.size(), chatGptService.mapCalls.get());
+        assertTrue(chatGptService.maxRunning.get() <= 3, "at most 3 requests at a time");
+        // the prior summary and one key point per chunk, in meeting order
+        assertEquals(chunks.size() + 1, summary.keyPoints().size());
+        assertEquals("before", summary.keyPoints().getFirst());
+        assertTrue(summary.keyPoints().get(1).startsWith("Speaker0: Turn 0"));
+        // more summaries than the fan-in: more than one merge level
+        assertTrue(chatGptService.reduceCalls.get() > 1);
+    }
+
+    private static List<TranscriptTurn> turns(int count) {
+        List<TranscriptTurn> turns = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            turns.add(new TranscriptTurn("Speaker" + i % 2, i * 1_000L, i * 1_000L + 900, "Turn " + i + " talks about the quarterly roadmap and budget."));
+        }
+        return turns;
+    }
+}
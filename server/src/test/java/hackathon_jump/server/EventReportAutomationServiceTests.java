@@ -0,0 +1,79 @@
+package hackathon_jump.server;
+
+import hackathon_jump.server.business.service.calendar.EventReportAutomationService;
+import hackathon_jump.server.business.service.external.ChatGptService;
+import hackathon_jump.server.business.service.summary.RollingSummaryService;
+import hackathon_jump.server.business.service.transcript.TranscriptStore;
+import hackathon_jump.server.infrastructure.repository.IEventReportAutomationRepository;
+import hackathon_jump.server.model.domain.Automation;
+import hackathon_jump.server.model.domain.EventReport;
+import hackathon_jump.server.model.domain.EventReportAutomation;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class EventReportAutomationServiceTests {
+    @Test
+    public void testParallelCallersShareOneGeneration() throws Exception {
+        Automation automation = new Automation();
+        automation.setId(1L);
+        EventReport eventReport = new EventReport();
+        eventReport.setId(2L);
+
+        AtomicReference<EventReportAutomation> saved = new AtomicReference<>();
+        IEventReportAutomationRepository repository = mock(IEventReportAutomationRepository.class);
+        when(repository.findByAutomationAndEventReport(any(), any())).thenAnswer(invocation -> Optional.ofNullable(saved.get()));
+        when(repository.save(any())).thenAnswer(invocation -> {
+            EventReportAutomation toSave = invocation.getArgument(0);
+            toSave.setId(3L);
+            saved.set(toSave);
+            return toSave;
+        });
+
+        ChatGptService chatGptService = mock(ChatGptService.class);
+        when(chatGptService.generateEventReportAutomation(any(), any(), eq(false), any())).thenAnswer(invocation -> {
+            // a slow model, so every caller arrives while the generation is in flight
+            Thread.sleep(300);
+            return new EventReportAutomation(null, invocation.getArgument(0), invocation.getArgument(1), "title", "text");
+        });
+        TranscriptStore transcriptStore = mock(TranscriptStore.class);
+        when(transcriptStore.attach(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        EventReportAutomationService service = new EventReportAutomationService();
+        ReflectionTestUtils.setField(service, "eventReportAutomationRepository", repository);
+        ReflectionTestUtils.setField(service, "chatGptService", chatGptService);
+        ReflectionTestUtils.setField(service, "transcriptStore", transcriptStore);
+        ReflectionTestUtils.setField(service, "rollingSummaryService", mock(RollingSummaryService.class));
+
+        int callers = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<EventReportAutomation>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(callers)) {
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return service.getByAutomationAndEventReport(automation, eventReport);
+                }));
+            }
+            start.countDown();
+            for (Future<EventReportAutomation> result : results) {
+                assertEquals(3L, result.get().getId());
+            }
+        }
+
+        verify(chatGptService, times(1)).generateEventReportAutomation(any(), any(), anyBoolean(), any());
+        verify(repository, times(1)).save(any());
+    }
+}
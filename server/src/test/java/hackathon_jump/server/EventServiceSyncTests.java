@@ -0,0 +1,236 @@
+package hackathon_jump.server;
+
+import com.google.api.client.util.DateTime;
+import com.google.api.services.calendar.model.EventDateTime;
+import hackathon_jump.server.business.mapper.EventMapperImpl;
+import hackathon_jump.server.business.service.auth.GoogleTokenService;
+import hackathon_jump.server.business.service.calendar.CalendarWatchService;
+import hackathon_jump.server.business.service.calendar.EventReportService;
+import hackathon_jump.server.business.service.calendar.EventService;
+import hackathon_jump.server.business.service.external.GoogleCalendarService;
+import hackathon_jump.server.infrastructure.repository.ICalendarSyncStateRepository;
+import hackathon_jump.server.infrastructure.repository.IEventRepository;
+import hackathon_jump.server.infrastructure.repository.IUserRepository;
+import hackathon_jump.server.model.domain.CalendarSyncState;
+import hackathon_jump.server.model.domain.Event;
+import hackathon_jump.server.model.domain.EventReport;
+import hackathon_jump.server.model.domain.User;
+import hackathon_jump.server.model.dto.CalendarChanges;
+import hackathon_jump.server.model.dto.CalendarSyncResult;
+import hackathon_jump.server.model.dto.Session;
+import hackathon_jump.server.model.enums.EMeetingPlatform;
+import hackathon_jump.server.model.enums.EOauthProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class EventServiceSyncTests {
+    private final User user = new User(1L, "alice@example.com", "token", null, null, EOauthProvider.GOOGLE, 2, new HashSet<>());
+    private final Session session = new Session(List.of("alice@example.com"), null, null);
+
+    private IEventRepository eventRepository;
+    private ICalendarSyncStateRepository calendarSyncStateRepository;
+    private GoogleCalendarService googleCalendarService;
+    private EventReportService eventReportService;
+    private CalendarWatchService calendarWatchService;
+    private EventService eventService;
+
+    @BeforeEach
+    public void setUp() {
+        eventRepository = mock(IEventRepository.class);
+        when(eventRepository.findOneByOwnerAndGoogleId(any(), anyString())).thenReturn(Optional.empty());
+        when(eventRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        calendarSyncStateRepository = mock(ICalendarSyncStateRepository.class);
+        googleCalendarService = mock(GoogleCalendarService.class);
+        eventReportService = mock(EventReportService.class);
+        IUserRepository userRepository = mock(IUserRepository.class);
+        when(userRepository.findByUsernameAndProvider("alice@example.com", EOauthProvider.GOOGLE)).thenReturn(Optional.of(user));
+
+        eventService = new EventService();
+        ReflectionTestUtils.setField(eventService, "eventRepository", eventRepository);
+        ReflectionTestUtils.setField(eventService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(eventService, "eventReportService", eventReportService);
+        ReflectionTestUtils.setField(eventService, "googleCalendarService", googleCalendarService);
+        ReflectionTestUtils.setField(eventService, "eventMapper", new EventMapperImpl());
+        ReflectionTestUtils.setField(eventService, "calendarSyncStateRepository", calendarSyncStateRepository);
+        ReflectionTestUtils.setField(eventService, "lookAheadDays", 30L);
+        ReflectionTestUtils.setField(eventService, "windowResyncHours", 24L);
+        calendarWatchService = mock(CalendarWatchService.class);
+        ReflectionTestUtils.setField(eventService, "calendarWatchService", calendarWatchService);
+        GoogleTokenService googleTokenService = mock(GoogleTokenService.class);
+        when(googleTokenService.accessToken(any())).thenAnswer(invocation -> ((User) invocation.getArgument(0)).getOauthToken());
+        ReflectionTestUtils.setField(eventService, "googleTokenService", googleTokenService);
+    }
+
+    @Test
+    public void testIncrementalSyncAppliesChangesAndCancellations() throws Exception {
+        CalendarSyncState syncState = new CalendarSyncState(5L, user, "work", "token-1", LocalDateTime.now().plusDays(30),
+                LocalDateTime.now().minusHours(1));
+        when(calendarSyncStateRepository.findAllByOwner(user)).thenReturn(List.of(syncState));
+        Event cancelled = event("cancelled-id", "work", new EventReport());
+        when(eventRepository.findOneByOwnerAndGoogleId(user, "cancelled-id")).thenReturn(Optional.of(cancelled));
+        when(googleCalendarService.getCalendarChangesAsync(eq("alice@example.com"), eq("token"), eq(Map.of("work", "token-1")), any()))
+                .thenReturn(synced(new CalendarChanges("work", List.of(googleEvent("new-id", 1), googleEvent("far-id", 40)),
+                        List.of("cancelled-id"), "token-2", false)));
+
+        eventService.refreshAll(session);
+
+        verify(eventRepository).save(argThat(event -> "new-id".equals(event.getGoogleId()) && "work".equals(event.getCalendarId())));
+        // beyond the window of the calendar, left for the full listing that moves the window
+        verify(eventRepository, never()).save(argThat(event -> "far-id".equals(event.getGoogleId())));
+        verify(eventReportService).deleteBot(cancelled);
+        verify(eventRepository).delete(cancelled);
+        verify(calendarSyncStateRepository).save(argThat(state -> state.getId() == 5L && "token-2".equals(state.getSyncToken())));
+        // an incremental listing says nothing about the events it does not contain
+        verify(eventRepository, never()).findAllByOwnerAndCalendarIdAndEndDateTimeAfter(any(), any(), any());
+    }
+
+    @Test
+    public void testSharedInviteOfAnotherAccountIsLeftAlone() throws Exception {
+        User bob = new User(2L, "bob@example.com", "token", null, null, EOauthProvider.GOOGLE, 2, new HashSet<>());
+        Event bobsCopy = event("shared-id", "work", new EventReport());
+        bobsCopy.setOwner(bob);
+        Event bobsOtherCopy = event("declined-id", "work", new EventReport());
+        bobsOtherCopy.setOwner(bob);
+        when(eventRepository.findOneByOwnerAndGoogleId(bob, "shared-id")).thenReturn(Optional.of(bobsCopy));
+        when(eventRepository.findOneByOwnerAndGoogleId(bob, "declined-id")).thenReturn(Optional.of(bobsOtherCopy));
+        CalendarSyncState syncState = new CalendarSyncState(5L, user, "work", "token-1", LocalDateTime.now().plusDays(30), null);
+        when(calendarSyncStateRepository.findAllByOwner(user)).thenReturn(List.of(syncState));
+        when(googleCalendarService.getCalendarChangesAsync(eq("alice@example.com"), eq("token"), eq(Map.of("work", "token-1")), any()))
+                .thenReturn(synced(new CalendarChanges("work", List.of(googleEvent("shared-id", 1)), List.of("declined-id"), "token-2", false)));
+
+        eventService.refreshAll(session);
+
+        // Alice gets her own copy of the invite, Bob keeps his and its bot
+        verify(eventRepository).save(argThat(event -> "shared-id".equals(event.getGoogleId()) && event.getOwner() == user));
+        verify(eventRepository, never()).save(same(bobsCopy));
+        verify(eventRepository, never()).delete(any());
+        verify(eventReportService, never()).deleteBot(any());
+    }
+
+    @Test
+    public void testEventMovedBeyondTheWindowIsUpdated() throws Exception {
+        CalendarSyncState syncState = new CalendarSyncState(5L, user, "work", "token-1", LocalDateTime.now().plusDays(30), null);
+        when(calendarSyncStateRepository.findAllByOwner(user)).thenReturn(List.of(syncState));
+        Event moved = event("moved-id", "work", null);
+        when(eventRepository.findOneByOwnerAndGoogleId(user, "moved-id")).thenReturn(Optional.of(moved));
+        when(googleCalendarService.getCalendarChangesAsync(eq("alice@example.com"), eq("token"), eq(Map.of("work", "token-1")), any()))
+                .thenReturn(synced(new CalendarChanges("work", List.of(googleEvent("moved-id", 40)), List.of(), "token-2", false)));
+
+        eventService.refreshAll(session);
+
+        // not left at its old time
+        verify(eventRepository).save(same(moved));
+        assertTrue(moved.getStartDateTime().isAfter(LocalDateTime.now().plusDays(39)));
+    }
+
+    @Test
+    public void testFullSyncDeletesTheEventsItDoesNotList() throws Exception {
+        when(calendarSyncStateRepository.findAllByOwner(user)).thenReturn(List.of());
+        Event listed = event("listed-id", "work", null);
+        Event gone = event("gone-id", "work", null);
+        Event recorded = event("recorded-id", "work", new EventReport());
+        recorded.getEventReport().setPlatform(EMeetingPlatform.GOOGLE_MEET);
+        when(eventRepository.findAllByOwnerAndCalendarIdAndEndDateTimeAfter(eq(user), eq("work"), any()))
+                .thenReturn(List.of(listed, gone, recorded));
+        when(googleCalendarService.getCalendarChangesAsync(eq("alice@example.com"), eq("token"), eq(Map.of()), any())).thenReturn(synced(
+                new CalendarChanges("work", List.of(googleEvent("listed-id", 1)), List.of(), "token-1", true)));
+
+        eventService.refreshAll(session);
+
+        verify(eventRepository).delete(gone);
+        verify(eventRepository, never()).delete(listed);
+        // the report of a recorded meeting is kept
+        verify(eventRepository, never()).delete(recorded);
+        verify(calendarSyncStateRepository).save(argThat(state -> "work".equals(state.getCalendarId()) && "token-1".equals(state.getSyncToken())
+                && state.getWindowEnd().isAfter(LocalDateTime.now().plusDays(29))));
+    }
+
+    @Test
+    public void testEventStoredWithoutCalendarIsReconciled() throws Exception {
+        when(calendarSyncStateRepository.findAllByOwner(user)).thenReturn(List.of());
+        Event legacy = event("legacy-id", null, null);
+        when(eventRepository.findOneByOwnerAndGoogleId(user, "legacy-id")).thenReturn(Optional.of(legacy));
+        when(googleCalendarService.getCalendarChangesAsync(eq("alice@example.com"), eq("token"), eq(Map.of()), any())).thenReturn(synced(
+                new CalendarChanges("work", List.of(googleEvent("legacy-id", 1)), List.of(), "token-1", true)));
+
+        eventService.refreshAll(session);
+
+        // the existing row is updated, and from now on reconciled with the listings of its calendar
+        verify(eventRepository).save(same(legacy));
+        assertEquals("work", legacy.getCalendarId());
+    }
+
+    @Test
+    public void testLaggingWindowIsListedInFull() throws Exception {
+        CalendarSyncState fresh = new CalendarSyncState(5L, user, "work", "token-1", LocalDateTime.now().plusDays(30).minusHours(2), null);
+        CalendarSyncState lagging = new CalendarSyncState(6L, user, "home", "token-2", LocalDateTime.now().plusDays(28), null);
+        when(calendarSyncStateRepository.findAllByOwner(user)).thenReturn(List.of(fresh, lagging));
+        when(googleCalendarService.getCalendarChangesAsync(any(), any(), any(), any())).thenReturn(synced());
+
+        eventService.refreshAll(session);
+
+        verify(googleCalendarService).getCalendarChangesAsync(eq("alice@example.com"), eq("token"), eq(Map.of("work", "token-1")), any());
+    }
+
+    @Test
+    public void testSyncedCalendarsAreWatched() throws Exception {
+        CalendarSyncState removed = new CalendarSyncState(6L, user, "old", "token-2", LocalDateTime.now().plusDays(30), null);
+        when(calendarSyncStateRepository.findAllByOwner(user)).thenReturn(List.of(removed));
+        when(googleCalendarService.getCalendarChangesAsync(any(), any(), any(), any())).thenReturn(synced(
+                new CalendarChanges("work", List.of(), List.of(), "token-1", true)));
+
+        eventService.refreshAll(session);
+
+        verify(calendarWatchService).update(user, List.of("work"), List.of("old"));
+    }
+
+    @Test
+    public void testNotifiedCalendarIsSyncedAlone() throws Exception {
+        CalendarSyncState syncState = new CalendarSyncState(5L, user, "work", "token-1", LocalDateTime.now().plusDays(30), null);
+        when(calendarSyncStateRepository.findByOwnerAndCalendarId(user, "work")).thenReturn(Optional.of(syncState));
+        when(googleCalendarService.getCalendarChanges(eq("alice@example.com"), eq("token"), eq("work"), eq("token-1"), any()))
+                .thenReturn(new CalendarChanges("work", List.of(googleEvent("moved-id", 1)), List.of(), "token-2", false));
+
+        eventService.syncCalendar(user, "work");
+
+        verify(eventRepository).save(argThat(event -> "moved-id".equals(event.getGoogleId())));
+        verify(calendarSyncStateRepository).save(argThat(state -> state.getId() == 5L && "token-2".equals(state.getSyncToken())));
+        verify(googleCalendarService, never()).getCalendarChangesAsync(any(), any(), any(), any());
+    }
+
+    private static CompletableFuture<CalendarSyncResult> synced(CalendarChanges... changes) {
+        return CompletableFuture.completedFuture(new CalendarSyncResult(List.of(changes), List.of()));
+    }
+
+    private Event event(String googleId, String calendarId, EventReport eventReport) {
+        Event event = new Event();
+        event.setGoogleId(googleId);
+        event.setCalendarId(calendarId);
+        event.setOwner(user);
+        event.setEventReport(eventReport);
+        event.setStartDateTime(LocalDateTime.now().plusDays(1));
+        event.setEndDateTime(LocalDateTime.now().plusDays(1).plusHours(1));
+        return event;
+    }
+
+    private static com.google.api.services.calendar.model.Event googleEvent(String id, int daysAhead) {
+        long start = System.currentTimeMillis() + daysAhead * 86_400_000L;
+        return new com.google.api.services.calendar.model.Event()
+                .setId(id)
+                .setSummary("Meeting " + id)
+                .setStart(new EventDateTime().setDateTime(new DateTime(start)))
+                .setEnd(new EventDateTime().setDateTime(new DateTime(start + 3_600_000L)));
+    }
+}
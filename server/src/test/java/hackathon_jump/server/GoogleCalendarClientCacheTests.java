@@ -0,0 +1,108 @@
+package hackathon_jump.server;
+
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import com.google.api.services.calendar.Calendar;
+import hackathon_jump.server.business.service.external.GoogleCalendarService;
+import hackathon_jump.server.model.dto.CalendarChanges;
+import hackathon_jump.server.model.dto.CalendarSyncResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GoogleCalendarClientCacheTests {
+    private static final Instant WINDOW_END = Instant.now().plus(30, ChronoUnit.DAYS);
+
+    /**
+     * Serves a calendar list with an ETag (304 when the client already has it) and empty calendars
+     */
+    private static class ETagGoogleTransport extends HttpTransport {
+        private final List<String> calendarListResponses = Collections.synchronizedList(new ArrayList<>());
+        private final List<String> authorizations = Collections.synchronizedList(new ArrayList<>());
+        private volatile String etag = "\"v1\"";
+        private volatile List<String> calendarIds = List.of("work", "home");
+
+        @Override
+        protected LowLevelHttpRequest buildRequest(String method, String url) {
+            return new MockLowLevelHttpRequest(url) {
+                @Override
+                public LowLevelHttpResponse execute() {
+                    authorizations.add(getFirstHeaderValue("Authorization"));
+                    MockLowLevelHttpResponse response = new MockLowLevelHttpResponse().setContentType("application/json");
+                    if (!url.contains("/users/me/calendarList")) {
+                        return response.setContent("{\"items\": [], \"nextSyncToken\": \"token\"}");
+                    }
+                    if (etag.equals(getFirstHeaderValue("If-None-Match"))) {
+                        calendarListResponses.add("304");
+                        return response.setStatusCode(304).setReasonPhrase("Not Modified").setContent("");
+                    }
+                    calendarListResponses.add("200");
+                    String items = String.join(",", calendarIds.stream().map(id -> "{\"id\": \"" + id + "\"}").toList());
+                    return response.setContent("{\"etag\": \"" + etag.replace("\"", "\\\"") + "\", \"items\": [" + items + "]}");
+                }
+            };
+        }
+    }
+
+    private ETagGoogleTransport transport;
+    private GoogleCalendarService googleCalendarService;
+
+    @BeforeEach
+    public void setUp() {
+        transport = new ETagGoogleTransport();
+        googleCalendarService = new GoogleCalendarService();
+        ReflectionTestUtils.setField(googleCalendarService, "httpTransport", transport);
+        ReflectionTestUtils.setField(googleCalendarService, "maxConcurrentPerUser", 4);
+        ReflectionTestUtils.setField(googleCalendarService, "clientCacheSize", 10);
+        googleCalendarService.init();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        googleCalendarService.shutdown();
+    }
+
+    @Test
+    public void testUnchangedCalendarListIsRevalidated() throws Exception {
+        sync("alice", "token-1");
+        CalendarSyncResult result = sync("alice", "token-1");
+
+        assertEquals(List.of("200", "304"), transport.calendarListResponses);
+        assertEquals(List.of("work", "home"), result.changes().stream().map(CalendarChanges::calendarId).toList());
+
+        transport.etag = "\"v2\"";
+        transport.calendarIds = List.of("work", "home", "team");
+        result = sync("alice", "token-1");
+
+        assertEquals(List.of("200", "304", "200"), transport.calendarListResponses);
+        assertEquals(3, result.changes().size());
+    }
+
+    @Test
+    public void testClientIsRebuiltWhenTheTokenChanges() throws Exception {
+        Calendar client = ReflectionTestUtils.invokeMethod(googleCalendarService, "calendarClient", "alice", "token-1");
+        assertSame(client, ReflectionTestUtils.invokeMethod(googleCalendarService, "calendarClient", "alice", "token-1"));
+        assertNotSame(client, ReflectionTestUtils.invokeMethod(googleCalendarService, "calendarClient", "alice", "token-2"));
+
+        sync("alice", "token-3");
+
+        assertTrue(transport.authorizations.stream().allMatch("Bearer token-3"::equals), transport.authorizations.toString());
+    }
+
+    private CalendarSyncResult sync(String account, String accessToken) throws Exception {
+        return googleCalendarService.getCalendarChanges(account, accessToken, Map.of(), WINDOW_END);
+    }
+}
@@ -0,0 +1,184 @@
+package hackathon_jump.server;
+
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import hackathon_jump.server.business.service.external.GoogleCalendarService;
+import hackathon_jump.server.model.dto.CalendarChanges;
+import hackathon_jump.server.model.dto.CalendarSyncResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GoogleCalendarFanOutTests {
+    private static final long CALL_MS = 200;
+    private static final Instant WINDOW_END = Instant.now().plus(30, ChronoUnit.DAYS);
+    private static final Pattern EVENTS_URL = Pattern.compile("/calendars/([^/]+)/events");
+
+    /**
+     * Answers every call after CALL_MS: 10 calendars per account over two pages, one event per calendar,
+     * and a 500 for the calendar "broken"
+     */
+    private static class SlowGoogleTransport extends HttpTransport {
+        private final List<String> urls = Collections.synchronizedList(new ArrayList<>());
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicInteger maxRunning = new AtomicInteger();
+        private final Map<String, AtomicInteger> runningByAccount = new ConcurrentHashMap<>();
+        private final AtomicInteger maxRunningPerAccount = new AtomicInteger();
+
+        @Override
+        protected LowLevelHttpRequest buildRequest(String method, String url) {
+            urls.add(URLDecoder.decode(url, StandardCharsets.UTF_8));
+            return new MockLowLevelHttpRequest(url) {
+                @Override
+                public LowLevelHttpResponse execute() throws IOException {
+                    String account = getFirstHeaderValue("Authorization").substring("Bearer ".length());
+                    AtomicInteger accountRunning = runningByAccount.computeIfAbsent(account, ignored -> new AtomicInteger());
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    maxRunningPerAccount.accumulateAndGet(accountRunning.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(CALL_MS);
+                    } catch (InterruptedException e) {
+                        throw new IOException(e);
+                    } finally {
+                        running.decrementAndGet();
+                        accountRunning.decrementAndGet();
+                    }
+                    return respond(url);
+                }
+            };
+        }
+
+        private static LowLevelHttpResponse respond(String url) {
+            MockLowLevelHttpResponse response = new MockLowLevelHttpResponse().setContentType("application/json");
+            if (url.contains("/users/me/calendarList")) {
+                boolean firstPage = !url.contains("pageToken=");
+                StringBuilder items = new StringBuilder();
+                for (int i = firstPage ? 0 : 5; i < (firstPage ? 5 : 10); i++) {
+                    items.append(items.isEmpty() ? "" : ",").append("{\"id\": \"").append(i == 3 ? "broken" : "calendar-" + i).append("\"}");
+                }
+                return response.setContent("{\"items\": [" + items + "]" + (firstPage ? ", \"nextPageToken\": \"page-2\"" : "") + "}");
+            }
+            Matcher matcher = EVENTS_URL.matcher(url);
+            assertTrue(matcher.find(), url);
+            String calendarId = URLDecoder.decode(matcher.group(1), StandardCharsets.UTF_8);
+            if (calendarId.equals("broken")) {
+                return response.setStatusCode(500).setReasonPhrase("Internal Server Error")
+                        .setContent("{\"error\": {\"code\": 500, \"message\": \"Backend Error\"}}");
+            }
+            return response.setContent("{\"items\": [{\"id\": \"event-" + calendarId + "\", \"status\": \"confirmed\"}], " +
+                    "\"nextSyncToken\": \"token-" + calendarId + "\"}");
+        }
+    }
+
+    private SlowGoogleTransport transport;
+    private GoogleCalendarService googleCalendarService;
+
+    @BeforeEach
+    public void setUp() {
+        transport = new SlowGoogleTransport();
+        googleCalendarService = new GoogleCalendarService();
+        ReflectionTestUtils.setField(googleCalendarService, "httpTransport", transport);
+        // the defaults
+        ReflectionTestUtils.setField(googleCalendarService, "maxConcurrentPerUser", 4);
+        ReflectionTestUtils.setField(googleCalendarService, "clientCacheSize", 500);
+        googleCalendarService.init();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        googleCalendarService.shutdown();
+    }
+
+    @Test
+    public void testAccountsAndCalendarsAreFetchedConcurrently() {
+        List<String> accounts = List.of("alice", "bob", "carol");
+
+        long start = System.currentTimeMillis();
+        List<CompletableFuture<CalendarSyncResult>> fetches = new ArrayList<>();
+        for (String account : accounts) {
+            // the access token names the account, so the transport can tell them apart
+            fetches.add(googleCalendarService.getCalendarChangesAsync(account, account, Map.of(), WINDOW_END));
+        }
+        List<CalendarSyncResult> results = fetches.stream().map(CompletableFuture::join).toList();
+        long elapsedMs = System.currentTimeMillis() - start;
+
+        // two calendar list pages, then the 10 calendars 4 at a time: 5 round trips instead of 36
+        assertTrue(elapsedMs < 8 * CALL_MS, "took " + elapsedMs + " ms");
+        assertTrue(transport.maxRunning.get() > 4, "the accounts are fetched together");
+        for (CalendarSyncResult result : results) {
+            List<String> calendarIds = result.changes().stream().map(CalendarChanges::calendarId).toList();
+            assertEquals(List.of("calendar-0", "calendar-1", "calendar-2", "calendar-4", "calendar-5", "calendar-6",
+                    "calendar-7", "calendar-8", "calendar-9"), calendarIds, "merged in calendar list order");
+            assertEquals("token-calendar-0", result.changes().get(0).nextSyncToken());
+            assertEquals(1, result.failures().size());
+            assertEquals("broken", result.failures().get(0).calendarId());
+        }
+    }
+
+    @Test
+    public void testCallsOfAnAccountAreCapped() {
+        ReflectionTestUtils.setField(googleCalendarService, "maxConcurrentPerUser", 3);
+
+        CalendarSyncResult result = googleCalendarService.getCalendarChangesAsync("alice", "alice", Map.of(), WINDOW_END).join();
+
+        assertEquals(9, result.changes().size());
+        assertEquals(3, transport.maxRunningPerAccount.get());
+    }
+
+    @Test
+    public void testPermitsAreOnlyKeptForRecentAccounts() {
+        ReflectionTestUtils.setField(googleCalendarService, "clientCacheSize", 2);
+
+        for (String account : List.of("alice", "bob", "carol")) {
+            googleCalendarService.getCalendarChangesAsync(account, account, Map.of(), WINDOW_END).join();
+        }
+
+        Map<?, ?> accountPermits = (Map<?, ?>) ReflectionTestUtils.getField(googleCalendarService, "accountPermits");
+        assertEquals(2, accountPermits.size());
+        assertFalse(accountPermits.containsKey("alice"));
+    }
+
+    @Test
+    public void testFullListingIsMaskedAndBoundedByTheWindow() {
+        googleCalendarService.getCalendarChangesAsync("alice", "alice", Map.of(), WINDOW_END).join();
+
+        List<String> eventUrls = transport.urls.stream().filter(url -> url.contains("/events")).toList();
+        assertEquals(10, eventUrls.size());
+        for (String url : eventUrls) {
+            assertTrue(url.contains("fields=nextPageToken,nextSyncToken,items("), url);
+            assertTrue(url.contains("maxResults=2500"), url);
+            assertTrue(url.contains("timeMin=") && url.contains("timeMax="), url);
+        }
+        assertTrue(transport.urls.stream().anyMatch(url -> url.contains("/calendarList") && url.contains("pageToken=page-2")));
+    }
+
+    @Test
+    public void testIncrementalListingOnlySendsTheSyncToken() {
+        googleCalendarService.getCalendarChangesAsync("alice", "alice", Map.of("calendar-0", "token-0"), WINDOW_END).join();
+
+        String url = transport.urls.stream().filter(u -> u.contains("/calendars/calendar-0/events")).findFirst().orElseThrow();
+        assertTrue(url.contains("syncToken=token-0"), url);
+        assertFalse(url.contains("timeMin=") || url.contains("timeMax="), url);
+    }
+}
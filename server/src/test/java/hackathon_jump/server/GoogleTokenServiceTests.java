@@ -0,0 +1,120 @@
+package hackathon_jump.server;
+
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import hackathon_jump.server.business.service.auth.GoogleTokenService;
+import hackathon_jump.server.infrastructure.repository.IUserRepository;
+import hackathon_jump.server.model.domain.User;
+import hackathon_jump.server.model.enums.EOauthProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class GoogleTokenServiceTests {
+    /**
+     * Answers every refresh request with a new access token, recording the request bodies
+     */
+    private static class TokenEndpointTransport extends HttpTransport {
+        private final List<String> requests = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        protected LowLevelHttpRequest buildRequest(String method, String url) {
+            return new MockLowLevelHttpRequest(url) {
+                @Override
+                public LowLevelHttpResponse execute() throws IOException {
+                    ByteArrayOutputStream body = new ByteArrayOutputStream();
+                    getStreamingContent().writeTo(body);
+                    requests.add(url + " " + body.toString(StandardCharsets.UTF_8));
+                    return new MockLowLevelHttpResponse().setContentType("application/json")
+                            .setContent("{\"access_token\": \"token-" + requests.size() + "\", \"expires_in\": 3599, \"token_type\": \"Bearer\"}");
+                }
+            };
+        }
+    }
+
+    private TokenEndpointTransport transport;
+    private IUserRepository userRepository;
+    private GoogleTokenService googleTokenService;
+
+    @BeforeEach
+    public void setUp() {
+        transport = new TokenEndpointTransport();
+        userRepository = mock(IUserRepository.class);
+        when(userRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        ClientRegistrationRepository clientRegistrationRepository = mock(ClientRegistrationRepository.class);
+        when(clientRegistrationRepository.findByRegistrationId("google")).thenReturn(ClientRegistration.withRegistrationId("google")
+                .clientId("client-id")
+                .clientSecret("client-secret")
+                .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                .redirectUri("http://localhost/login/oauth2/code/google")
+                .authorizationUri("https://accounts.google.com/o/oauth2/v2/auth")
+                .tokenUri("https://oauth2.googleapis.com/token")
+                .build());
+
+        googleTokenService = new GoogleTokenService();
+        ReflectionTestUtils.setField(googleTokenService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(googleTokenService, "clientRegistrationRepository", clientRegistrationRepository);
+        ReflectionTestUtils.setField(googleTokenService, "httpTransport", transport);
+        ReflectionTestUtils.setField(googleTokenService, "refreshBeforeSeconds", 300L);
+    }
+
+    @Test
+    public void testExpiringTokenIsRefreshedOnce() {
+        User user = user("token-0", "refresh-token", LocalDateTime.now().plusMinutes(1));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user("token-0", "refresh-token", LocalDateTime.now().plusMinutes(1))));
+
+        assertEquals("token-1", googleTokenService.accessToken(user));
+        assertEquals("token-1", googleTokenService.accessToken(user));
+
+        assertEquals(1, transport.requests.size());
+        assertTrue(transport.requests.getFirst().startsWith("https://oauth2.googleapis.com/token "));
+        assertTrue(transport.requests.getFirst().contains("grant_type=refresh_token"));
+        assertTrue(transport.requests.getFirst().contains("refresh_token=refresh-token"));
+        assertTrue(user.getOauthTokenExpiresAt().isAfter(LocalDateTime.now().plusMinutes(55)));
+        verify(userRepository).save(argThat(saved -> "token-1".equals(saved.getOauthToken())));
+    }
+
+    @Test
+    public void testTokenRefreshedMeanwhileIsNotRefreshedAgain() {
+        User user = user("token-0", "refresh-token", LocalDateTime.now().plusMinutes(1));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user("token-9", "refresh-token", LocalDateTime.now().plusMinutes(59))));
+
+        assertEquals("token-9", googleTokenService.accessToken(user));
+        assertTrue(transport.requests.isEmpty());
+    }
+
+    @Test
+    public void testValidOrUnrefreshableTokenIsUsedAsItIs() {
+        assertEquals("token-0", googleTokenService.accessToken(user("token-0", "refresh-token", LocalDateTime.now().plusMinutes(30))));
+        // logged in before expiries were stored
+        assertEquals("token-0", googleTokenService.accessToken(user("token-0", null, null)));
+        assertEquals("token-0", googleTokenService.accessToken(user("token-0", null, LocalDateTime.now().minusMinutes(1))));
+
+        assertTrue(transport.requests.isEmpty());
+        verify(userRepository, never()).save(any());
+    }
+
+    private static User user(String accessToken, String refreshToken, LocalDateTime expiresAt) {
+        return new User(1L, "alice@example.com", accessToken, refreshToken, expiresAt, EOauthProvider.GOOGLE, 2, new HashSet<>());
+    }
+}
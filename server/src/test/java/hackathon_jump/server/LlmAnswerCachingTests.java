@@ -0,0 +1,124 @@
+package hackathon_jump.server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hackathon_jump.server.business.service.external.ChatGptService;
+import hackathon_jump.server.business.service.external.RecallTranscriptParser;
+import hackathon_jump.server.business.service.llm.LlmClient;
+import hackathon_jump.server.business.service.llm.LlmResponseCache;
+import hackathon_jump.server.business.service.transcript.TranscriptNormalizer;
+import hackathon_jump.server.infrastructure.repository.ILlmCacheEntryRepository;
+import hackathon_jump.server.model.domain.EventReport;
+import hackathon_jump.server.model.domain.LlmCacheEntry;
+import hackathon_jump.server.model.dto.LlmCompletion;
+import hackathon_jump.server.model.dto.LlmRequest;
+import hackathon_jump.server.model.dto.ReportContent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class LlmAnswerCachingTests {
+    private static final String SUMMARY = "{\"keyPoints\": [\"The onboarding ships on Friday.\"], \"decisions\": [], \"actionItems\": []}";
+
+    /**
+     * Records the prompts and answers them with the given function
+     */
+    private static class ScriptedLlmClient implements LlmClient {
+        private final List<String> prompts = new CopyOnWriteArrayList<>();
+        private Function<String, String> answers = prompt -> "";
+
+        @Override
+        public String model() {
+            return "test";
+        }
+
+        @Override
+        public LlmCompletion complete(LlmRequest request) {
+            prompts.add(request.prompt());
+            return new LlmCompletion(answers.apply(request.prompt()), "stop", 0, 0, 0);
+        }
+
+        @Override
+        public LlmCompletion stream(LlmRequest request, Consumer<String> onDelta) {
+            return complete(request);
+        }
+    }
+
+    private ILlmCacheEntryRepository cacheRepository;
+    private ScriptedLlmClient llmClient;
+    private ChatGptService chatGptService;
+
+    @BeforeEach
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        cacheRepository = mock(ILlmCacheEntryRepository.class);
+        when(cacheRepository.findById(anyString())).thenReturn(Optional.empty());
+        LlmResponseCache cache = new LlmResponseCache();
+        ReflectionTestUtils.setField(cache, "llmCacheEntryRepository", cacheRepository);
+        ReflectionTestUtils.setField(cache, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(cache, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cache, "memoryEntries", 16);
+        ReflectionTestUtils.setField(cache, "ttlHours", 24L);
+        cache.init();
+
+        TranscriptNormalizer transcriptNormalizer = new TranscriptNormalizer();
+        ReflectionTestUtils.setField(transcriptNormalizer, "recallTranscriptParser", new RecallTranscriptParser());
+        ReflectionTestUtils.setField(transcriptNormalizer, "cacheEntries", 16);
+
+        llmClient = new ScriptedLlmClient();
+        chatGptService = new ChatGptService();
+        ReflectionTestUtils.setField(chatGptService, "maxCompletionTokens", 1000);
+        ReflectionTestUtils.setField(chatGptService, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(chatGptService, "llmResponseCache", cache);
+        ReflectionTestUtils.setField(chatGptService, "transcriptNormalizer", transcriptNormalizer);
+        ReflectionTestUtils.setField(chatGptService, "llmClient", llmClient);
+    }
+
+    @Test
+    public void testSummaryThatDoesNotParseIsAskedAgain() {
+        llmClient.answers = prompt -> llmClient.prompts.size() == 1 ? "Sorry, I cannot help with that." : SUMMARY;
+
+        assertEquals("Sorry, I cannot help with that.", chatGptService.foldSummary(null, "Alice: We ship on Friday."));
+        assertEquals(SUMMARY, chatGptService.foldSummary(null, "Alice: We ship on Friday."));
+        // the valid answer is cached
+        assertEquals(SUMMARY, chatGptService.foldSummary(null, "Alice: We ship on Friday."));
+        assertEquals(2, llmClient.prompts.size());
+    }
+
+    @Test
+    public void testUnusableAnswerCachedBeforeIsIgnored() {
+        LocalDateTime now = LocalDateTime.now();
+        when(cacheRepository.findById(anyString())).thenReturn(Optional.of(new LlmCacheEntry("key", "test", "not json", now, now, 0)));
+        llmClient.answers = prompt -> SUMMARY;
+
+        assertEquals(SUMMARY, chatGptService.mergeSummaries(List.of(SUMMARY, SUMMARY)));
+        assertEquals(1, llmClient.prompts.size());
+    }
+
+    @Test
+    public void testStructuredReportMissingAFieldIsNotCached() {
+        llmClient.answers = prompt -> prompt.contains("(emailText)") ? "{\"emailText\": \"Hi all\", \"postText\": \" \"}" : "Fallback";
+        EventReport eventReport = new EventReport();
+        eventReport.setAttendees("alice@example.com");
+        eventReport.setTranscript("[{\"speaker\": \"Alice\", \"start\": 0, \"end\": 1000, \"text\": \"We ship on Friday.\"}]");
+
+        assertEquals(new ReportContent("Fallback", "Fallback"), chatGptService.generateReportContent(eventReport, null));
+        assertEquals(new ReportContent("Fallback", "Fallback"), chatGptService.generateReportContent(eventReport, null));
+
+        // the structured request is sent again, the plain text fallbacks come from the cache
+        assertEquals(2, llmClient.prompts.stream().filter(prompt -> prompt.contains("(emailText)")).count());
+        assertEquals(4, llmClient.prompts.size());
+    }
+}
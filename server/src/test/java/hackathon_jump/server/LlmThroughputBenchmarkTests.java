@@ -0,0 +1,202 @@
+package hackathon_jump.server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hackathon_jump.server.business.service.external.ChatGptService;
+import hackathon_jump.server.business.service.external.RecallTranscriptParser;
+import hackathon_jump.server.business.service.llm.LlmResponseCache;
+import hackathon_jump.server.business.service.llm.LlmStubServer;
+import hackathon_jump.server.business.service.llm.OpenAiLlmClient;
+import hackathon_jump.server.business.service.llm.OpenAiRequestScheduler;
+import hackathon_jump.server.business.service.transcript.TranscriptNormalizer;
+import hackathon_jump.server.infrastructure.repository.ILlmCacheEntryRepository;
+import hackathon_jump.server.model.domain.Automation;
+import hackathon_jump.server.model.domain.EventReport;
+import hackathon_jump.server.model.domain.EventReportAutomation;
+import hackathon_jump.server.model.dto.ReportContent;
+import hackathon_jump.server.model.enums.EAutomationType;
+import hackathon_jump.server.model.enums.ELatencyDistribution;
+import hackathon_jump.server.model.enums.EMediaPlatform;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the report finishing and automation generation paths against the local LLM stub, and prints their throughput.
+ * The number of reports can be raised with the "benchmark.reports" system property.
+ */
+public class LlmThroughputBenchmarkTests {
+    private LlmStubServer stub;
+    private SimpleMeterRegistry meterRegistry;
+    private ChatGptService chatGptService;
+    private String transcript;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        try (InputStream in = getClass().getResourceAsStream("/transcripts/sample-recall-transcript.json")) {
+            transcript = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        ObjectMapper objectMapper = new ObjectMapper();
+        meterRegistry = new SimpleMeterRegistry();
+
+        stub = new LlmStubServer();
+        ReflectionTestUtils.setField(stub, "port", 0);
+        ReflectionTestUtils.setField(stub, "latencyDistribution", ELatencyDistribution.LOG_NORMAL);
+        ReflectionTestUtils.setField(stub, "firstTokenMs", 20L);
+        ReflectionTestUtils.setField(stub, "firstTokenSpreadMs", 10L);
+        ReflectionTestUtils.setField(stub, "perTokenMs", 0.05);
+        ReflectionTestUtils.setField(stub, "perPromptTokenMs", 0.05);
+        // the sample transcript is shorter than what OpenAI caches
+        ReflectionTestUtils.setField(stub, "promptCacheMinTokens", 0L);
+        ReflectionTestUtils.setField(stub, "completionTokens", 200);
+        ReflectionTestUtils.setField(stub, "errorRate", 0.0);
+        ReflectionTestUtils.setField(stub, "requestsPerMinute", 10_000L);
+        ReflectionTestUtils.setField(stub, "tokensPerMinute", 10_000_000L);
+        ReflectionTestUtils.setField(stub, "objectMapper", objectMapper);
+        stub.start();
+
+        OpenAiRequestScheduler scheduler = new OpenAiRequestScheduler();
+        ReflectionTestUtils.setField(scheduler, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(scheduler, "maxConcurrent", 8);
+        ReflectionTestUtils.setField(scheduler, "requestLimit", 10_000L);
+        ReflectionTestUtils.setField(scheduler, "tokenLimit", 10_000_000L);
+        ReflectionTestUtils.setField(scheduler, "interactiveReserve", 0.2);
+        ReflectionTestUtils.setField(scheduler, "maxWaitMs", 10_000L);
+        scheduler.init();
+
+        OpenAiLlmClient llmClient = new OpenAiLlmClient();
+        ReflectionTestUtils.setField(llmClient, "apiKey", "test");
+        ReflectionTestUtils.setField(llmClient, "apiBaseUrl", "http://127.0.0.1:" + stub.getPort());
+        ReflectionTestUtils.setField(llmClient, "model", "gpt-5-mini");
+        ReflectionTestUtils.setField(llmClient, "restTemplate", new RestTemplate());
+        ReflectionTestUtils.setField(llmClient, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(llmClient, "openAiRequestScheduler", scheduler);
+        ReflectionTestUtils.setField(llmClient, "meterRegistry", meterRegistry);
+
+        // nothing is ever found in the cache, so every generation reaches the stub
+        ILlmCacheEntryRepository cacheRepository = mock(ILlmCacheEntryRepository.class);
+        when(cacheRepository.findById(anyString())).thenReturn(Optional.empty());
+        LlmResponseCache cache = new LlmResponseCache();
+        ReflectionTestUtils.setField(cache, "llmCacheEntryRepository", cacheRepository);
+        ReflectionTestUtils.setField(cache, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(cache, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(cache, "memoryEntries", 0);
+        cache.init();
+
+        TranscriptNormalizer transcriptNormalizer = new TranscriptNormalizer();
+        ReflectionTestUtils.setField(transcriptNormalizer, "recallTranscriptParser", new RecallTranscriptParser());
+        ReflectionTestUtils.setField(transcriptNormalizer, "cacheEntries", 16);
+
+        chatGptService = new ChatGptService();
+        ReflectionTestUtils.setField(chatGptService, "maxCompletionTokens", 2000);
+        ReflectionTestUtils.setField(chatGptService, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(chatGptService, "llmResponseCache", cache);
+        ReflectionTestUtils.setField(chatGptService, "transcriptNormalizer", transcriptNormalizer);
+        ReflectionTestUtils.setField(chatGptService, "llmClient", llmClient);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        stub.stop();
+    }
+
+    @Test
+    public void testFinishingAndAutomationThroughput() throws Exception {
+        int reportsCnt = Integer.getInteger("benchmark.reports", 40);
+        List<EventReport> eventReports = new ArrayList<>();
+        for (long i = 0; i < reportsCnt; i++) {
+            EventReport eventReport = new EventReport();
+            eventReport.setId(i);
+            eventReport.setAttendees("alice@example.com, bob" + i + "@example.com");
+            eventReport.setStartDateTime(LocalDateTime.of(2026, 1, 1, 9, 0).plusDays(i));
+            eventReport.setTranscript(transcript);
+            eventReports.add(eventReport);
+        }
+        Automation automation = new Automation(1L, "LinkedIn recap", EAutomationType.POST, EMediaPlatform.LINKEDIN,
+                "A short recap of the meeting for LinkedIn", null, null);
+
+        List<ReportContent> reportContents = run("finishing", eventReports.size(),
+                i -> () -> chatGptService.generateReportContent(eventReports.get(i), null));
+        List<EventReportAutomation> automations = run("automation", eventReports.size(),
+                i -> () -> chatGptService.generateEventReportAutomation(eventReports.get(i), automation, true, null));
+        LlmStubServer.Stats firstStats = stub.stats();
+        run("automation refresh", eventReports.size(),
+                i -> () -> chatGptService.generateEventReportAutomation(eventReports.get(i), automation, true, null));
+
+        for (ReportContent reportContent : reportContents) {
+            assertFalse(reportContent.emailText().isEmpty());
+            assertFalse(reportContent.postText().isEmpty());
+        }
+        for (EventReportAutomation eventReportAutomation : automations) {
+            assertNotNull(eventReportAutomation.getText());
+            assertNotNull(eventReportAutomation.getTitle());
+        }
+
+        LlmStubServer.Stats stats = stub.stats();
+        assertEquals(3L * reportsCnt, stats.requests());
+        // the client accounts the tokens the stub reported
+        assertEquals(stats.promptTokens(), (long) meterRegistry.counter("llm.tokens", "type", "prompt").count());
+        assertEquals(stats.completionTokens(), (long) meterRegistry.counter("llm.tokens", "type", "completion").count());
+        // the prompt cache is keyed by the response format too: the report and the automation of a meeting (two
+        // schemas) share nothing, a refreshed automation (same prompt, same schema) reuses all but its last block
+        long refreshPromptTokens = stats.promptTokens() - firstStats.promptTokens();
+        long refreshCachedTokens = stats.cachedPromptTokens() - firstStats.cachedPromptTokens();
+        assertEquals(0, firstStats.cachedPromptTokens());
+        assertTrue(refreshCachedTokens * 2 > refreshPromptTokens);
+        assertEquals(stats.cachedPromptTokens(), (long) meterRegistry.counter("llm.tokens", "type", "cached_prompt").count());
+        System.out.println("LLM stub: " + stats);
+    }
+
+    private interface Task<T> {
+        Supplier<T> get(int index);
+    }
+
+    /**
+     * Runs the tasks on virtual threads (the scheduler decides how many reach the stub at once) and prints their timings
+     */
+    private <T> List<T> run(String name, int count, Task<T> task) throws Exception {
+        List<Long> latenciesMs = Collections.synchronizedList(new ArrayList<>());
+        List<Future<T>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < count; i++) {
+                Supplier<T> work = task.get(i);
+                futures.add(executor.submit(() -> {
+                    long taskStart = System.nanoTime();
+                    T result = work.get();
+                    latenciesMs.add((System.nanoTime() - taskStart) / 1_000_000);
+                    return result;
+                }));
+            }
+        }
+        long elapsedMs = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+
+        List<T> results = new ArrayList<>();
+        for (Future<T> future : futures) {
+            results.add(future.get());
+        }
+        List<Long> sorted = latenciesMs.stream().sorted().toList();
+        System.out.printf("%s: %d generations in %d ms (%.1f/s), p50 %d ms, p95 %d ms%n", name, count, elapsedMs,
+                count * 1000.0 / elapsedMs, sorted.get(sorted.size() / 2), sorted.get((int) (sorted.size() * 0.95)));
+        return results;
+    }
+}
@@ -0,0 +1,76 @@
+package hackathon_jump.server;
+
+import hackathon_jump.server.business.service.llm.OpenAiRequestScheduler;
+import hackathon_jump.server.model.enums.ELlmPriority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OpenAiRequestSchedulerTests {
+    private OpenAiRequestScheduler scheduler;
+
+    @BeforeEach
+    public void setUp() {
+        scheduler = new OpenAiRequestScheduler();
+        ReflectionTestUtils.setField(scheduler, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(scheduler, "maxConcurrent", 1);
+        ReflectionTestUtils.setField(scheduler, "requestLimit", 100L);
+        ReflectionTestUtils.setField(scheduler, "tokenLimit", 10_000L);
+        ReflectionTestUtils.setField(scheduler, "interactiveReserve", 0.2);
+        ReflectionTestUtils.setField(scheduler, "maxWaitMs", 2_000L);
+        scheduler.init();
+    }
+
+    @Test
+    public void testInteractiveRequestsGoFirst() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> running = CompletableFuture.runAsync(() -> scheduler.submit(10, () -> {
+            await(release);
+            return null;
+        }));
+        Thread.sleep(100);
+
+        List<ELlmPriority> order = new CopyOnWriteArrayList<>();
+        CompletableFuture<Void> background = CompletableFuture.runAsync(() -> scheduler.submit(10,
+                () -> order.add(OpenAiRequestScheduler.currentPriority())));
+        Thread.sleep(100);
+        CompletableFuture<Void> interactive = CompletableFuture.runAsync(() -> OpenAiRequestScheduler.withPriority(
+                ELlmPriority.INTERACTIVE, () -> scheduler.submit(10, () -> order.add(OpenAiRequestScheduler.currentPriority()))));
+        Thread.sleep(100);
+
+        release.countDown();
+        CompletableFuture.allOf(running, background, interactive).join();
+        assertEquals(List.of(ELlmPriority.INTERACTIVE, ELlmPriority.BACKGROUND), order);
+    }
+
+    @Test
+    public void testBackgroundLeavesTheReserveToInteractive() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("x-ratelimit-remaining-tokens", "2500");
+        headers.set("x-ratelimit-reset-tokens", "1m0s");
+        scheduler.update(headers);
+        ReflectionTestUtils.setField(scheduler, "maxWaitMs", 200L);
+
+        // 2500 - 1000 tokens would go under the 2000 tokens kept for interactive requests
+        assertThrows(RuntimeException.class, () -> scheduler.submit(1_000, () -> "background"));
+        assertEquals("interactive", OpenAiRequestScheduler.withPriority(ELlmPriority.INTERACTIVE,
+                () -> scheduler.submit(1_000, () -> "interactive")));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package hackathon_jump.server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hackathon_jump.server.business.service.external.ChatGptService;
+import hackathon_jump.server.business.service.external.RecallTranscriptParser;
+import hackathon_jump.server.business.service.llm.LlmClient;
+import hackathon_jump.server.business.service.llm.LlmResponseCache;
+import hackathon_jump.server.business.service.transcript.TranscriptNormalizer;
+import hackathon_jump.server.business.service.transcript.TranscriptStore;
+import hackathon_jump.server.infrastructure.repository.ILlmCacheEntryRepository;
+import hackathon_jump.server.model.domain.Automation;
+import hackathon_jump.server.model.domain.EventReport;
+import hackathon_jump.server.model.dto.LlmCompletion;
+import hackathon_jump.server.model.dto.LlmRequest;
+import hackathon_jump.server.model.dto.RollingSummary;
+import hackathon_jump.server.model.enums.EAutomationType;
+import hackathon_jump.server.model.enums.EMediaPlatform;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.StringReader;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PromptLayoutTests {
+    /**
+     * Records the prompts and answers with invalid JSON, so the fallback prompts are sent too
+     */
+    private static class RecordingLlmClient implements LlmClient {
+        private final List<String> prompts = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String model() {
+            return "test";
+        }
+
+        @Override
+        public LlmCompletion complete(LlmRequest request) {
+            prompts.add(request.prompt());
+            return new LlmCompletion("not json", "stop", 0, 0, 0);
+        }
+
+        @Override
+        public LlmCompletion stream(LlmRequest request, Consumer<String> onDelta) {
+            return complete(request);
+        }
+    }
+
+    private RecordingLlmClient llmClient;
+    private TranscriptNormalizer transcriptNormalizer;
+    private ChatGptService chatGptService;
+    private EventReport eventReport;
+
+    @BeforeEach
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        ILlmCacheEntryRepository cacheRepository = mock(ILlmCacheEntryRepository.class);
+        when(cacheRepository.findById(anyString())).thenReturn(Optional.empty());
+        LlmResponseCache cache = new LlmResponseCache();
+        ReflectionTestUtils.setField(cache, "llmCacheEntryRepository", cacheRepository);
+        ReflectionTestUtils.setField(cache, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(cache, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cache, "memoryEntries", 0);
+        cache.init();
+
+        transcriptNormalizer = new TranscriptNormalizer();
+        ReflectionTestUtils.setField(transcriptNormalizer, "recallTranscriptParser", new RecallTranscriptParser());
+        ReflectionTestUtils.setField(transcriptNormalizer, "cacheEntries", 16);
+
+        llmClient = new RecordingLlmClient();
+        chatGptService = new ChatGptService();
+        ReflectionTestUtils.setField(chatGptService, "maxCompletionTokens", 1000);
+        ReflectionTestUtils.setField(chatGptService, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(chatGptService, "llmResponseCache", cache);
+        ReflectionTestUtils.setField(chatGptService, "transcriptNormalizer", transcriptNormalizer);
+        ReflectionTestUtils.setField(chatGptService, "llmClient", llmClient);
+
+        eventReport = new EventReport();
+        eventReport.setId(1L);
+        eventReport.setAttendees("alice@example.com, bob@example.com");
+        eventReport.setStartDateTime(LocalDateTime.of(2026, 1, 1, 9, 0));
+        eventReport.setTranscript("[{\"speaker\": \"Alice\", \"start\": 0, \"end\": 1000, \"text\": \"We ship the new onboarding on Friday.\"}," +
+                "{\"speaker\": \"Bob\", \"start\": 1000, \"end\": 2000, \"text\": \"I will write the release notes.\"}]");
+    }
+
+    @Test
+    public void testEveryPromptOfAReportStartsWithTheMeetingPrefix() {
+        chatGptService.generateReportContent(eventReport, null);
+        chatGptService.generateEventReportAutomation(eventReport, automation(1L, EMediaPlatform.LINKEDIN), true, null);
+        chatGptService.generateEventReportAutomation(eventReport, automation(2L, EMediaPlatform.FACEBOOK), true, null);
+        chatGptService.streamEventReportAutomation(eventReport, automation(3L, EMediaPlatform.EMAIL), true, null, delta -> {
+        });
+
+        // report content, email, post, then text + fallback text + fallback title per automation, and the streamed text + title
+        assertEquals(11, llmClient.prompts.size());
+        String prefix = commonPrefix(llmClient.prompts);
+        assertTrue(prefix.contains(transcriptNormalizer.normalize(eventReport)), "the transcript is part of the shared prefix");
+        assertTrue(prefix.contains("alice@example.com, bob@example.com"), "the meeting details are part of the shared prefix");
+        for (String prompt : llmClient.prompts) {
+            assertTrue(prompt.length() > prefix.length(), "the task comes after the shared prefix");
+        }
+    }
+
+    @Test
+    public void testSummaryPromptsShareTheirPrefix() {
+        RollingSummary summary = new RollingSummary(List.of("The onboarding ships on Friday."), List.of(), List.of("Bob writes the release notes."));
+
+        chatGptService.generateReportContent(eventReport, summary);
+        chatGptService.generateEventReportAutomation(eventReport, automation(1L, EMediaPlatform.LINKEDIN), true, summary);
+
+        assertTrue(commonPrefix(llmClient.prompts).contains(summary.toOutline()));
+    }
+
+    @Test
+    public void testReportFromTheDownloadSharesItsPrefixWithTheAutomations() throws Exception {
+        // as BotFinishingPipeline builds it: from the downloaded turns, block by block
+        TranscriptStore transcriptStore = new TranscriptStore();
+        ReflectionTestUtils.setField(transcriptStore, "blockTurns", 1);
+        TranscriptStore.Writer writer = transcriptStore.newWriter();
+        new RecallTranscriptParser().parse(new StringReader(eventReport.getTranscript()), writer);
+        EventReport finishedReport = new EventReport();
+        finishedReport.setId(eventReport.getId());
+        finishedReport.setAttendees(eventReport.getAttendees());
+        finishedReport.setStartDateTime(eventReport.getStartDateTime());
+        finishedReport.setNormalizedTranscript(transcriptNormalizer.normalize(transcriptStore.iterate(writer)));
+
+        chatGptService.generateReportContent(finishedReport, null);
+        // as the automations get it: the stored transcript, attached as JSON
+        chatGptService.generateEventReportAutomation(eventReport, automation(1L, EMediaPlatform.LINKEDIN), true, null);
+
+        assertTrue(commonPrefix(llmClient.prompts).contains("Bob: I will write the release notes."));
+    }
+
+    private static Automation automation(Long id, EMediaPlatform mediaPlatform) {
+        return new Automation(id, "Recap " + id, EAutomationType.POST, mediaPlatform, "A short recap of the meeting", null, null);
+    }
+
+    private static String commonPrefix(List<String> prompts) {
+        String prefix = prompts.get(0);
+        for (String prompt : prompts) {
+            int length = 0;
+            while (length < Math.min(prefix.length(), prompt.length()) && prefix.charAt(length) == prompt.charAt(length)) {
+                length++;
+            }
+            prefix = prefix.substring(0, length);
+        }
+        return prefix;
+    }
+}
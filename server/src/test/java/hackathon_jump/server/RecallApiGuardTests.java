@@ -0,0 +1,151 @@
+package hackathon_jump.server;
+
+import hackathon_jump.server.business.service.external.RecallApiGuard;
+import hackathon_jump.server.model.enums.ERecallEndpoint;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RecallApiGuardTests {
+    private RecallApiGuard guard;
+
+    @BeforeEach
+    public void setUp() {
+        guard = new RecallApiGuard();
+        ReflectionTestUtils.setField(guard, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(guard, "maxConcurrentCalls", 2);
+        ReflectionTestUtils.setField(guard, "bulkheadWaitMs", 100L);
+        ReflectionTestUtils.setField(guard, "maxAttempts", 3);
+        ReflectionTestUtils.setField(guard, "baseBackoffMs", 1L);
+        ReflectionTestUtils.setField(guard, "maxBackoffMs", 5L);
+        ReflectionTestUtils.setField(guard, "failureThreshold", 3);
+        ReflectionTestUtils.setField(guard, "openMs", 60_000L);
+        guard.init();
+    }
+
+    @Test
+    public void testRetriesServerErrorsThenSucceeds() {
+        AtomicInteger calls = new AtomicInteger();
+        String result = guard.call(ERecallEndpoint.GET_BOT, () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new HttpServerErrorException(HttpStatus.BAD_GATEWAY);
+            }
+            return "ok";
+        });
+
+        assertEquals("ok", result);
+        assertEquals(3, calls.get());
+        assertTrue(guard.isAvailable(ERecallEndpoint.GET_BOT));
+    }
+
+    @Test
+    public void testDoesNotRetryClientErrors() {
+        AtomicInteger calls = new AtomicInteger();
+        assertThrows(HttpClientErrorException.class, () -> guard.call(ERecallEndpoint.GET_BOT, () -> {
+            calls.incrementAndGet();
+            throw new HttpClientErrorException(HttpStatus.NOT_FOUND);
+        }));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void testOpensCircuitPerEndpoint() {
+        assertThrows(HttpServerErrorException.class, () -> guard.call(ERecallEndpoint.GET_BOT, () -> {
+            throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+        }));
+
+        assertFalse(guard.isAvailable(ERecallEndpoint.GET_BOT));
+        assertTrue(guard.isAvailable(ERecallEndpoint.DELETE_BOT));
+        AtomicInteger calls = new AtomicInteger();
+        assertThrows(RecallApiGuard.CircuitOpenException.class, () -> guard.call(ERecallEndpoint.GET_BOT, calls::incrementAndGet));
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    public void testOnlyRetriesCreateBotWhenRequestWasNotProcessed() {
+        AtomicInteger calls = new AtomicInteger();
+        assertThrows(HttpServerErrorException.class, () -> guard.call(ERecallEndpoint.CREATE_BOT, () -> {
+            calls.incrementAndGet();
+            throw new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR);
+        }));
+        assertEquals(1, calls.get());
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "0");
+        AtomicInteger throttledCalls = new AtomicInteger();
+        String result = guard.call(ERecallEndpoint.CREATE_BOT, () -> {
+            if (throttledCalls.incrementAndGet() == 1) {
+                throw HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", headers, new byte[0], StandardCharsets.UTF_8);
+            }
+            return "bot";
+        });
+        assertEquals("bot", result);
+        assertEquals(2, throttledCalls.get());
+    }
+
+    @Test
+    public void testRetryAfterLongerThanTheMaxBackoffIsNotCutShort() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "60");
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(HttpClientErrorException.class, () -> guard.call(ERecallEndpoint.GET_BOT, () -> {
+            calls.incrementAndGet();
+            throw HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", headers, new byte[0], StandardCharsets.UTF_8);
+        }));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void testProbeWithoutASlotLeavesTheCircuitHalfOpen() throws Exception {
+        ReflectionTestUtils.setField(guard, "openMs", 50L);
+        assertThrows(HttpServerErrorException.class, () -> guard.call(ERecallEndpoint.GET_BOT, () -> {
+            throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+        }));
+        Thread.sleep(100);
+
+        // both slots are taken by other calls
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(2);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 2; i++) {
+                executor.submit(() -> guard.call(ERecallEndpoint.DELETE_BOT, () -> {
+                    started.countDown();
+                    try {
+                        return release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return false;
+                    }
+                }));
+            }
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            AtomicInteger calls = new AtomicInteger();
+            assertThrows(RuntimeException.class, () -> guard.call(ERecallEndpoint.GET_BOT, calls::incrementAndGet));
+            assertEquals(0, calls.get());
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+
+        // the probe never reached Recall, the next call probes
+        assertTrue(guard.isAvailable(ERecallEndpoint.GET_BOT));
+        assertEquals(1, (int) guard.call(ERecallEndpoint.GET_BOT, () -> 1));
+    }
+}
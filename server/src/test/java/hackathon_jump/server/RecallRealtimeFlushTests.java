@@ -0,0 +1,51 @@
+package hackathon_jump.server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hackathon_jump.server.business.service.webhook.RecallRealtimeService;
+import hackathon_jump.server.infrastructure.repository.IEventReportRepository;
+import hackathon_jump.server.infrastructure.repository.ITranscriptUtteranceRepository;
+import hackathon_jump.server.model.domain.EventReport;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class RecallRealtimeFlushTests {
+
+    @Test
+    public void testFailedBatchIsWrittenOnTheNextFlush() {
+        ITranscriptUtteranceRepository transcriptUtteranceRepository = mock(ITranscriptUtteranceRepository.class);
+        IEventReportRepository eventReportRepository = mock(IEventReportRepository.class);
+        EventReport eventReport = new EventReport();
+        eventReport.setId(7L);
+        when(eventReportRepository.findByBotId("bot-1")).thenReturn(Optional.of(eventReport));
+        when(transcriptUtteranceRepository.saveAll(anyList()))
+                .thenThrow(new RuntimeException("database is locked"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        RecallRealtimeService recallRealtimeService = new RecallRealtimeService();
+        ReflectionTestUtils.setField(recallRealtimeService, "transcriptUtteranceRepository", transcriptUtteranceRepository);
+        ReflectionTestUtils.setField(recallRealtimeService, "eventReportRepository", eventReportRepository);
+        ReflectionTestUtils.setField(recallRealtimeService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(recallRealtimeService, "flushSize", 50);
+
+        assertTrue(recallRealtimeService.ingest("""
+                {"event": "transcript.data", "data": {"bot": {"id": "bot-1"}, "data": {
+                    "participant": {"name": "Alice"},
+                    "words": [{"text": "hello", "start_timestamp": {"relative": 1.0}, "end_timestamp": {"relative": 1.5}}]}}}
+                """));
+
+        assertThrows(RuntimeException.class, () -> recallRealtimeService.flush(7L));
+        recallRealtimeService.flush(7L);
+
+        verify(transcriptUtteranceRepository, times(2)).saveAll(argThat(batch -> ((List<?>) batch).size() == 1));
+        // nothing left to write once stored
+        recallRealtimeService.flush(7L);
+        verify(transcriptUtteranceRepository, times(2)).saveAll(anyList());
+    }
+}
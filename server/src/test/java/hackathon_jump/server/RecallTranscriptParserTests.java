@@ -0,0 +1,65 @@
+package hackathon_jump.server;
+
+import hackathon_jump.server.business.service.external.RecallTranscriptParser;
+import hackathon_jump.server.model.dto.TranscriptTurn;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RecallTranscriptParserTests {
+    private final RecallTranscriptParser parser = new RecallTranscriptParser();
+
+    @Test
+    public void testParsesRecallTranscriptIntoSpeakerTurns() throws Exception {
+        List<TranscriptTurn> turns = new ArrayList<>();
+        try (InputStream in = getClass().getResourceAsStream("/transcripts/sample-recall-transcript.json")) {
+            parser.parse(in, turns::add);
+        }
+
+        assertEquals(14, turns.size());
+        TranscriptTurn first = turns.getFirst();
+        assertEquals("Alice Martin", first.speaker());
+        assertEquals(500, first.startMs());
+        assertTrue(first.endMs() > first.startMs());
+        assertTrue(first.text().startsWith("Um, okay, so let's get started."));
+        assertEquals("Bob Chen", turns.get(2).speaker());
+    }
+
+    @Test
+    public void testParsesLegacyTranscriptFormat() throws Exception {
+        String legacy = "[{\"speaker\":\"Alice\",\"words\":[{\"text\":\"Hello\",\"start_time\":1.5,\"end_time\":1.9}," +
+                "{\"text\":\"there\",\"start_time\":2.0,\"end_time\":2.4}]}]";
+        List<TranscriptTurn> turns = new ArrayList<>();
+        parser.parse(new StringReader(legacy), turns::add);
+
+        assertEquals(List.of(new TranscriptTurn("Alice", 1500, 2400, "Hello there")), turns);
+    }
+
+    @Test
+    public void testSegmentWithoutWordsDoesNotDesyncTheParser() throws Exception {
+        String transcript = "[{\"words\":null,\"participant\":{\"name\":\"Alice\"}}," +
+                "{\"participant\":{\"name\":\"Bob\"},\"words\":[{\"text\":\"Hi\",\"start_timestamp\":{\"relative\":1.0}," +
+                "\"end_timestamp\":{\"relative\":1.5}}]}]";
+        List<TranscriptTurn> turns = new ArrayList<>();
+        parser.parse(new StringReader(transcript), turns::add);
+
+        assertEquals(List.of(new TranscriptTurn("Bob", 1000, 1500, "Hi")), turns);
+    }
+
+    @Test
+    public void testCompactFormatRoundTrips() throws Exception {
+        List<TranscriptTurn> turns = List.of(
+                new TranscriptTurn("Alice", 0, 1200, "Hi \"all\""),
+                new TranscriptTurn("Bob", 1300, 2500, "Hello"));
+
+        List<TranscriptTurn> parsed = new ArrayList<>();
+        parser.parse(new StringReader(parser.toCompactJson(turns)), parsed::add);
+
+        assertEquals(turns, parsed);
+    }
+}
@@ -0,0 +1,92 @@
+package hackathon_jump.server;
+
+import hackathon_jump.server.business.service.webhook.RecallWebhookVerifier;
+import org.springframework.http.HttpHeaders;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Local stand-in for Recall's webhook deliveries, so the webhook endpoint can be tested offline.
+ *
+ * Usage against a running server:
+ * RecallWebhookSimulator http://localhost:8080/api/public/recall/webhook whsec_... botId [bot.done|transcript.done|bot.fatal]
+ */
+public class RecallWebhookSimulator {
+    private final RecallWebhookVerifier signer;
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    public RecallWebhookSimulator(String webhookSecret) {
+        this.signer = new RecallWebhookVerifier(webhookSecret);
+    }
+
+    public static String botStatusPayload(String botId, String event) {
+        String code = event.substring(event.indexOf('.') + 1);
+        return "{\"event\":\"" + event + "\",\"data\":{\"data\":{\"code\":\"" + code + "\",\"sub_code\":null," +
+                "\"updated_at\":\"" + Instant.now() + "\"},\"bot\":{\"id\":\"" + botId + "\",\"metadata\":{}}}}";
+    }
+
+    public static String transcriptDonePayload(String botId) {
+        return "{\"event\":\"transcript.done\",\"data\":{\"data\":{\"code\":\"done\",\"sub_code\":null}," +
+                "\"transcript\":{\"id\":\"" + UUID.randomUUID() + "\",\"metadata\":{}}," +
+                "\"bot\":{\"id\":\"" + botId + "\",\"metadata\":{}}}}";
+    }
+
+    /**
+     * A realtime endpoint event with one word per second, starting at startSeconds
+     */
+    public static String realtimeTranscriptPayload(String botId, String speaker, int startSeconds, String... words) {
+        StringBuilder wordsJson = new StringBuilder();
+        for (int i = 0; i < words.length; i++) {
+            if (i > 0) {
+                wordsJson.append(',');
+            }
+            wordsJson.append("{\"text\":\"").append(words[i]).append("\",")
+                    .append("\"start_timestamp\":{\"relative\":").append(startSeconds + i).append("},")
+                    .append("\"end_timestamp\":{\"relative\":").append(startSeconds + i + 0.8).append("}}");
+        }
+        return "{\"event\":\"transcript.data\",\"data\":{\"data\":{\"words\":[" + wordsJson + "]," +
+                "\"participant\":{\"id\":1,\"name\":\"" + speaker + "\"}}," +
+                "\"bot\":{\"id\":\"" + botId + "\",\"metadata\":{}}}}";
+    }
+
+    /**
+     * Builds the signature headers Recall would send for this body
+     */
+    public HttpHeaders signedHeaders(String messageId, Instant sentAt, String body) {
+        String timestamp = String.valueOf(sentAt.getEpochSecond());
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("webhook-id", messageId);
+        headers.set("webhook-timestamp", timestamp);
+        headers.set("webhook-signature", "v1," + signer.sign(messageId, timestamp, body));
+        return headers;
+    }
+
+    public int send(String url, String messageId, String body) throws Exception {
+        HttpHeaders headers = signedHeaders(messageId, Instant.now(), body);
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        headers.forEach((name, values) -> request.header(name, values.getFirst()));
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString()).statusCode();
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.out.println("usage: RecallWebhookSimulator <url> <webhookSecret> <botId> [event]");
+            return;
+        }
+        String event = args.length > 3 ? args[3] : "bot.done";
+        String body = "transcript.done".equals(event) ? transcriptDonePayload(args[2]) : botStatusPayload(args[2], event);
+        String messageId = "msg_" + UUID.randomUUID();
+
+        RecallWebhookSimulator simulator = new RecallWebhookSimulator(args[1]);
+        System.out.println("Sent " + event + " for bot " + args[2] + ": HTTP " + simulator.send(args[0], messageId, body));
+        // redeliver the same message, like Recall does on retries; it must be ignored by the server
+        System.out.println("Redelivered " + messageId + ": HTTP " + simulator.send(args[0], messageId, body));
+    }
+}
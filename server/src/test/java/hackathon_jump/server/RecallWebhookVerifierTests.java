@@ -0,0 +1,63 @@
+package hackathon_jump.server;
+
+import hackathon_jump.server.business.service.webhook.RecallWebhookVerifier;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RecallWebhookVerifierTests {
+    private static final String SECRET = "whsec_" + Base64.getEncoder().encodeToString("local-test-signing-secret".getBytes());
+    private static final String BOT_ID = "8a1c7e5e-5b86-4a1d-9d3b-2f6a0c1e9b11";
+
+    private final RecallWebhookVerifier verifier = new RecallWebhookVerifier(SECRET);
+    private final RecallWebhookSimulator simulator = new RecallWebhookSimulator(SECRET);
+
+    @Test
+    public void testValidSignatureIsAccepted() {
+        String body = RecallWebhookSimulator.botStatusPayload(BOT_ID, "bot.done");
+        HttpHeaders headers = simulator.signedHeaders("msg_1", Instant.now(), body);
+
+        assertEquals("msg_1", verifier.verify(headers, body));
+    }
+
+    @Test
+    public void testLegacySvixHeadersAreAccepted() {
+        String body = RecallWebhookSimulator.transcriptDonePayload(BOT_ID);
+        HttpHeaders signed = simulator.signedHeaders("msg_2", Instant.now(), body);
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("svix-id", signed.getFirst("webhook-id"));
+        headers.set("svix-timestamp", signed.getFirst("webhook-timestamp"));
+        headers.set("svix-signature", "v1,bm90LXRoZS1yaWdodC1vbmU= " + signed.getFirst("webhook-signature"));
+
+        assertEquals("msg_2", verifier.verify(headers, body));
+    }
+
+    @Test
+    public void testTamperedBodyIsRejected() {
+        String body = RecallWebhookSimulator.botStatusPayload(BOT_ID, "bot.done");
+        HttpHeaders headers = simulator.signedHeaders("msg_3", Instant.now(), body);
+
+        assertNull(verifier.verify(headers, body.replace(BOT_ID, "another-bot")));
+    }
+
+    @Test
+    public void testStaleTimestampIsRejected() {
+        String body = RecallWebhookSimulator.botStatusPayload(BOT_ID, "bot.done");
+        HttpHeaders headers = simulator.signedHeaders("msg_4", Instant.now().minus(10, ChronoUnit.MINUTES), body);
+
+        assertNull(verifier.verify(headers, body));
+    }
+
+    @Test
+    public void testMissingSecretRejectsEverything() {
+        String body = RecallWebhookSimulator.botStatusPayload(BOT_ID, "bot.done");
+        HttpHeaders headers = simulator.signedHeaders("msg_5", Instant.now(), body);
+
+        assertNull(new RecallWebhookVerifier("").verify(headers, body));
+    }
+}
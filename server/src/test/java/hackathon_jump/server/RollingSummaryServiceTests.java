@@ -0,0 +1,198 @@
+package hackathon_jump.server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hackathon_jump.server.business.service.external.ChatGptService;
+import hackathon_jump.server.business.service.external.RecallTranscriptParser;
+import hackathon_jump.server.business.service.summary.ChunkedSummarizer;
+import hackathon_jump.server.business.service.summary.RollingSummaryService;
+import hackathon_jump.server.business.service.transcript.TranscriptNormalizer;
+import hackathon_jump.server.infrastructure.repository.IMeetingSummaryRepository;
+import hackathon_jump.server.infrastructure.repository.ITranscriptUtteranceRepository;
+import hackathon_jump.server.model.domain.EventReport;
+import hackathon_jump.server.model.domain.MeetingSummary;
+import hackathon_jump.server.model.domain.TranscriptUtterance;
+import hackathon_jump.server.model.dto.RollingSummary;
+import hackathon_jump.server.model.dto.TranscriptTurn;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class RollingSummaryServiceTests {
+    private static final String SUMMARY = "{\"keyPoints\": [\"point\"], \"decisions\": [], \"actionItems\": []}";
+
+    private static final List<TranscriptTurn> TURNS = List.of(
+            new TranscriptTurn("Alice", 0, 1000, "We ship on Friday."), new TranscriptTurn("Bob", 1000, 2000, "Good."));
+
+    private final AtomicReference<MeetingSummary> stored = new AtomicReference<>();
+    private final List<String> foldedChunks = new CopyOnWriteArrayList<>();
+    private ITranscriptUtteranceRepository transcriptUtteranceRepository;
+    private ChatGptService chatGptService;
+    private ChunkedSummarizer chunkedSummarizer;
+    private RollingSummaryService rollingSummaryService;
+
+    @BeforeEach
+    public void setUp() {
+        IMeetingSummaryRepository meetingSummaryRepository = mock(IMeetingSummaryRepository.class);
+        when(meetingSummaryRepository.findByEventReportId(7L)).thenAnswer(invocation -> Optional.ofNullable(stored.get()));
+        when(meetingSummaryRepository.save(any())).thenAnswer(invocation -> {
+            MeetingSummary summary = invocation.getArgument(0);
+            summary.setId(1L);
+            stored.set(summary);
+            return summary;
+        });
+        transcriptUtteranceRepository = mock(ITranscriptUtteranceRepository.class);
+        when(transcriptUtteranceRepository.findEventReportIds()).thenReturn(List.of(7L));
+        chatGptService = mock(ChatGptService.class);
+        when(chatGptService.foldSummary(any(), anyString())).thenAnswer(invocation -> {
+            foldedChunks.add(invocation.getArgument(1));
+            return SUMMARY;
+        });
+        chunkedSummarizer = mock(ChunkedSummarizer.class);
+
+        TranscriptNormalizer transcriptNormalizer = new TranscriptNormalizer();
+        ReflectionTestUtils.setField(transcriptNormalizer, "recallTranscriptParser", new RecallTranscriptParser());
+        ReflectionTestUtils.setField(transcriptNormalizer, "cacheEntries", 16);
+
+        rollingSummaryService = new RollingSummaryService();
+        ReflectionTestUtils.setField(rollingSummaryService, "meetingSummaryRepository", meetingSummaryRepository);
+        ReflectionTestUtils.setField(rollingSummaryService, "transcriptUtteranceRepository", transcriptUtteranceRepository);
+        ReflectionTestUtils.setField(rollingSummaryService, "chatGptService", chatGptService);
+        ReflectionTestUtils.setField(rollingSummaryService, "transcriptNormalizer", transcriptNormalizer);
+        ReflectionTestUtils.setField(rollingSummaryService, "chunkedSummarizer", chunkedSummarizer);
+        ReflectionTestUtils.setField(rollingSummaryService, "objectMapper", new ObjectMapper());
+        // one turn per chunk
+        ReflectionTestUtils.setField(rollingSummaryService, "chunkChars", 10);
+        rollingSummaryService.init();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        rollingSummaryService.shutdown();
+    }
+
+    @Test
+    public void testLateUtteranceIsFoldedOnce() throws Exception {
+        when(chunkedSummarizer.exceedsThreshold(anyString())).thenReturn(true);
+        TranscriptUtterance first = utterance(1L, "Alice", 1000, "We ship on Friday.");
+        TranscriptUtterance second = utterance(2L, "Bob", 3000, "I write the release notes.");
+        // arrives after Bob's, but started before it
+        TranscriptUtterance late = utterance(3L, "Carol", 2000, "Marketing is ready.");
+        when(transcriptUtteranceRepository.findAllByEventReportIdOrderByIdAsc(7L)).thenReturn(List.of(first));
+        when(transcriptUtteranceRepository.findAllByEventReportIdAndIdGreaterThanOrderByIdAsc(7L, 1L)).thenReturn(List.of(second, late));
+        foldAndWait(1);
+        foldAndWait(3);
+        assertEquals(3L, stored.get().getCoveredUtteranceId());
+
+        // the bot is finished with the same utterances, drained in start order
+        Optional<RollingSummary> summary = rollingSummaryService.complete(7L, List.of(turn(first), turn(late), turn(second)));
+
+        assertTrue(summary.isPresent());
+        assertEquals(3, foldedChunks.size());
+        assertEquals(1, foldedChunks.stream().filter(chunk -> chunk.contains("Marketing")).count());
+        assertEquals(1, foldedChunks.stream().filter(chunk -> chunk.contains("release notes")).count());
+    }
+
+    @Test
+    public void testShortRunningMeetingIsNotFolded() throws Exception {
+        when(chunkedSummarizer.exceedsThreshold(anyString())).thenReturn(false);
+        when(transcriptUtteranceRepository.findAllByEventReportIdOrderByIdAsc(7L))
+                .thenReturn(List.of(utterance(1L, "Alice", 1000, "We ship on Friday.")));
+
+        rollingSummaryService.foldRunningMeetings();
+
+        verify(transcriptUtteranceRepository, timeout(2000)).findAllByEventReportIdOrderByIdAsc(7L);
+        Thread.sleep(100);
+        verify(chatGptService, never()).foldSummary(any(), anyString());
+    }
+
+    @Test
+    public void testFoldsDoNotHoldUpTheScheduler() throws Exception {
+        when(chunkedSummarizer.exceedsThreshold(anyString())).thenReturn(true);
+        CountDownLatch release = new CountDownLatch(1);
+        when(transcriptUtteranceRepository.findAllByEventReportIdOrderByIdAsc(7L)).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(utterance(1L, "Alice", 1000, "We ship on Friday."));
+        });
+
+        long start = System.currentTimeMillis();
+        rollingSummaryService.foldRunningMeetings();
+        // still folding: not queued a second time
+        rollingSummaryService.foldRunningMeetings();
+        assertTrue(System.currentTimeMillis() - start < 1000, "the tick returns while the fold runs");
+
+        release.countDown();
+        waitForFolds(1);
+        verify(transcriptUtteranceRepository, times(1)).findAllByEventReportIdOrderByIdAsc(7L);
+    }
+
+    @Test
+    public void testShortTranscriptWithoutLiveSummaryIsSentWhole() {
+        when(chunkedSummarizer.exceedsThreshold(anyString())).thenReturn(false);
+
+        Optional<RollingSummary> summary = rollingSummaryService.summaryForPrompts(eventReport(TURNS),
+                () -> fail("the turns are not read below the threshold"));
+
+        assertTrue(summary.isEmpty());
+        verify(chatGptService, never()).foldSummary(any(), anyString());
+    }
+
+    @Test
+    public void testReportAndAutomationsChooseTheSameMeetingText() {
+        // the threshold is checked on the normalized transcript sent in the prompts
+        when(chunkedSummarizer.exceedsThreshold(anyString()))
+                .thenAnswer(invocation -> ((String) invocation.getArgument(0)).startsWith("Alice: We ship on Friday."));
+        when(chunkedSummarizer.exceedsThreshold(anyList())).thenReturn(false);
+        EventReport eventReport = eventReport(TURNS);
+
+        // as passed by BotFinishingPipeline (turns of the downloaded transcript) and EventReportAutomationService (stored turns)
+        Optional<RollingSummary> forReport = rollingSummaryService.summaryForPrompts(eventReport, () -> TURNS);
+        Optional<RollingSummary> forAutomations = rollingSummaryService.summaryForPrompts(eventReport, () -> List.copyOf(TURNS));
+
+        assertTrue(forReport.isPresent());
+        assertEquals(forReport, forAutomations);
+        // the second call reuses the stored summary
+        assertEquals(2, foldedChunks.size());
+    }
+
+    private void foldAndWait(int count) throws InterruptedException {
+        rollingSummaryService.foldRunningMeetings();
+        waitForFolds(count);
+    }
+
+    private void waitForFolds(int count) throws InterruptedException {
+        Set<?> folding = (Set<?>) ReflectionTestUtils.getField(rollingSummaryService, "folding");
+        long deadline = System.currentTimeMillis() + 5000;
+        while ((foldedChunks.size() < count || !folding.isEmpty()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, foldedChunks.size());
+    }
+
+    private static EventReport eventReport(List<TranscriptTurn> turns) {
+        EventReport eventReport = new EventReport();
+        eventReport.setId(7L);
+        eventReport.setTranscript(new RecallTranscriptParser().toCompactJson(turns));
+        return eventReport;
+    }
+
+    private static TranscriptUtterance utterance(Long id, String speaker, long startMs, String text) {
+        return new TranscriptUtterance(id, 7L, startMs, startMs + 500, speaker, text);
+    }
+
+    private static TranscriptTurn turn(TranscriptUtterance utterance) {
+        return new TranscriptTurn(utterance.getSpeaker(), utterance.getStartMs(), utterance.getEndMs(), utterance.getText());
+    }
+}
@@ -0,0 +1,43 @@
+package hackathon_jump.server;
+
+import hackathon_jump.server.business.service.external.RecallTranscriptParser;
+import hackathon_jump.server.business.service.transcript.TranscriptBlockCodec;
+import hackathon_jump.server.model.dto.TranscriptTurn;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TranscriptBlockCodecTests {
+    @Test
+    public void testRoundTripsSampleTranscript() throws Exception {
+        List<TranscriptTurn> turns = new ArrayList<>();
+        try (InputStream in = getClass().getResourceAsStream("/transcripts/sample-recall-transcript.json")) {
+            new RecallTranscriptParser().parse(in, turns::add);
+        }
+        List<String> speakers = turns.stream().map(TranscriptTurn::speaker).distinct().toList();
+        int[] speakerIndexes = turns.stream().mapToInt(turn -> speakers.indexOf(turn.speaker())).toArray();
+
+        byte[] data = TranscriptBlockCodec.encode(turns, speakerIndexes);
+
+        assertEquals(turns, TranscriptBlockCodec.decode(data, speakers));
+        int textSize = turns.stream().mapToInt(turn -> turn.text().getBytes(StandardCharsets.UTF_8).length).sum();
+        assertTrue(data.length < textSize, "block should be smaller than its raw text");
+    }
+
+    @Test
+    public void testKeepsOutOfOrderTurns() {
+        List<TranscriptTurn> turns = List.of(
+                new TranscriptTurn("Bob", 9_000, 9_500, "late"),
+                new TranscriptTurn("Alice", 1_000, 2_000, "early"),
+                new TranscriptTurn("Bob", 1_000, 1_000, "éàü"));
+
+        byte[] data = TranscriptBlockCodec.encode(turns, new int[]{1, 0, 1});
+
+        assertEquals(turns, TranscriptBlockCodec.decode(data, List.of("Alice", "Bob")));
+    }
+}
@@ -0,0 +1,89 @@
+package hackathon_jump.server;
+
+import hackathon_jump.server.business.service.external.RecallTranscriptParser;
+import hackathon_jump.server.business.service.llm.TokenEstimator;
+import hackathon_jump.server.business.service.transcript.TranscriptNormalizer;
+import hackathon_jump.server.model.dto.TranscriptTurn;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TranscriptNormalizerTests {
+    private final RecallTranscriptParser parser = new RecallTranscriptParser();
+    private final TranscriptNormalizer normalizer = new TranscriptNormalizer();
+
+    @Test
+    public void testMergesTurnsAndStripsFillers() {
+        List<TranscriptTurn> turns = List.of(
+                new TranscriptTurn("Alice", 0, 1_000, "Um, okay, so let's get started."),
+                new TranscriptTurn("Alice", 1_000, 2_000, "I think we should, uh, cut the scope."),
+                new TranscriptTurn("Bob", 2_000, 3_000, "Hmm."),
+                new TranscriptTurn("Bob", 3_000, 4_000, "Yeah. You know, it was, like, about forty items. I like it."));
+
+        assertEquals("Alice: Okay, so let's get started. I think we should cut the scope.\n" +
+                        "Bob: Yeah. It was about forty items. I like it.\n",
+                normalizer.normalize(turns));
+    }
+
+    @Test
+    public void testKeepsDiscourseWordsThatAreNotFillers() {
+        List<TranscriptTurn> turns = List.of(
+                new TranscriptTurn("Alice", 0, 1_000, "Like the new design? I mean the budget, not the scope."),
+                new TranscriptTurn("Bob", 1_000, 2_000, "Basically, yes. Uh thanks."));
+
+        assertEquals("Alice: Like the new design? I mean the budget, not the scope.\n" +
+                        "Bob: Yes. Thanks.\n",
+                normalizer.normalize(turns));
+    }
+
+    /**
+     * Prints the estimated prompt size of each representation of the sample transcript, and of the
+     * Recall transcripts found in the directory given by the "transcripts.dir" system property, if any.
+     */
+    @Test
+    public void testShrinksSampleTranscript() throws Exception {
+        String raw;
+        try (InputStream in = getClass().getResourceAsStream("/transcripts/sample-recall-transcript.json")) {
+            raw = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        int[] tokens = report("sample-recall-transcript.json", raw);
+        assertTrue(tokens[2] * 2 < tokens[1], "normalized transcript should be less than half of the compact JSON");
+        assertTrue(tokens[2] * 10 < tokens[0], "normalized transcript should be a fraction of the raw JSON");
+
+        String dir = System.getProperty("transcripts.dir");
+        if (dir != null) {
+            try (Stream<Path> files = Files.list(Path.of(dir))) {
+                for (Path file : files.filter(path -> path.toString().endsWith(".json")).toList()) {
+                    report(file.getFileName().toString(), Files.readString(file));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the estimated tokens of the raw JSON, the compact JSON and the normalized text
+     */
+    private int[] report(String name, String raw) throws IOException {
+        List<TranscriptTurn> turns = new ArrayList<>();
+        parser.parse(new StringReader(raw), turns::add);
+        String normalized = normalizer.normalize(turns);
+
+        int[] tokens = {
+                TokenEstimator.estimate(raw),
+                TokenEstimator.estimate(parser.toCompactJson(turns)),
+                TokenEstimator.estimate(normalized)};
+        System.out.printf("%s: %d turns, ~%d tokens raw, ~%d compact JSON, ~%d normalized (%.1f%% of compact)%n",
+                name, turns.size(), tokens[0], tokens[1], tokens[2], 100.0 * tokens[2] / tokens[1]);
+        return tokens;
+    }
+}
@@ -0,0 +1,78 @@
+package hackathon_jump.server;
+
+import hackathon_jump.server.business.service.external.RecallTranscriptParser;
+import hackathon_jump.server.business.service.transcript.TranscriptStore;
+import hackathon_jump.server.infrastructure.repository.ITranscriptBlockRepository;
+import hackathon_jump.server.model.domain.TranscriptBlock;
+import hackathon_jump.server.model.dto.TranscriptTurn;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Range and speaker reads against the real block queries, on a throwaway SQLite database
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TranscriptStore.class, RecallTranscriptParser.class})
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:sqlite:file:transcript-store-tests?mode=memory&cache=shared",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "app.transcript.block-turns=2"
+})
+public class TranscriptStoreTests {
+    private static final long EVENT_REPORT_ID = 7L;
+
+    @Autowired
+    private TranscriptStore transcriptStore;
+    @MockitoSpyBean
+    private ITranscriptBlockRepository transcriptBlockRepository;
+
+    @BeforeEach
+    public void setUp() {
+        TranscriptStore.Writer writer = transcriptStore.newWriter();
+        // block 0
+        writer.accept(new TranscriptTurn("Alice", 0, 1000, "Welcome."));
+        writer.accept(new TranscriptTurn("Bob", 1000, 2000, "Thanks."));
+        // block 1, without Bob
+        writer.accept(new TranscriptTurn("Alice", 2000, 3000, "First the budget."));
+        writer.accept(new TranscriptTurn("Alice", 3000, 4000, "It is approved."));
+        // block 2
+        writer.accept(new TranscriptTurn("Carol", 4000, 5000, "Then the hiring."));
+        writer.accept(new TranscriptTurn("Bob", 5000, 6000, "Two roles."));
+        transcriptStore.save(EVENT_REPORT_ID, writer);
+        clearInvocations(transcriptBlockRepository);
+    }
+
+    @Test
+    public void testRangeDecodesTheOverlappingBlocksOnly() {
+        List<TranscriptTurn> turns = transcriptStore.readRange(EVENT_REPORT_ID, 2500, 4500);
+
+        // the turns crossing either edge of the range are included
+        assertEquals(List.of("First the budget.", "It is approved.", "Then the hiring."), turns.stream().map(TranscriptTurn::text).toList());
+        assertEquals(List.of(1, 2), transcriptBlockRepository.findOverlapping(EVENT_REPORT_ID, 2500, 4500).stream()
+                .map(TranscriptBlock::getBlockIndex).toList());
+        verify(transcriptBlockRepository, never()).findAllByEventReportIdOrderByBlockIndex(any());
+    }
+
+    @Test
+    public void testSpeakerDecodesTheBlocksTheSpeakerTalksInOnly() {
+        List<TranscriptTurn> turns = transcriptStore.readSpeaker(EVENT_REPORT_ID, "Bob");
+
+        assertEquals(List.of(new TranscriptTurn("Bob", 1000, 2000, "Thanks."), new TranscriptTurn("Bob", 5000, 6000, "Two roles.")), turns);
+        verify(transcriptBlockRepository).findAllByIdInOrderByBlockIndex(argThat(blockIds -> blockIds.size() == 2));
+        assertEquals(List.of(), transcriptStore.readSpeaker(EVENT_REPORT_ID, "Dave"));
+    }
+}
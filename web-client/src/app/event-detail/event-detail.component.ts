@@ -131,7 +131,6 @@ export class EventDetailComponent implements OnInit {
     if (!this.eventDetail) return;
 
     this.loading = true;
-    const headers = this.getAuthHeaders();
 
     // Get event report ID from the event detail
     const eventReportId = this.getEventReportId();
@@ -141,21 +140,77 @@ export class EventDetailComponent implements OnInit {
       return;
     }
 
-    this.http.get<EventReportAutomation>(
-      `${API_BASE_URL}/event-report-automations/automation/${automation.id}/event-report/${eventReportId}`,
-      { headers }
-    ).subscribe({
-      next: (eventReportAutomation) => {
-        this.selectedAutomation = eventReportAutomation;
-        this.showAutomationPopup = true;
-        this.loading = false;
-      },
-      error: (error) => {
-        console.error('Error loading automation data:', error);
-        this.error = 'Failed to load automation data';
-        this.loading = false;
-      }
+    // the text is shown while it is generated, the saved automation replaces it at the end
+    this.selectedAutomation = { id: 0, title: '', text: '', automation };
+    this.showAutomationPopup = true;
+    this.streamAutomation(
+      'GET',
+      `${API_BASE_URL}/event-report-automations/automation/${automation.id}/event-report/${eventReportId}/stream`
+    ).then(eventReportAutomation => {
+      this.selectedAutomation = eventReportAutomation;
+      this.loading = false;
+    }).catch(error => {
+      console.error('Error loading automation data:', error);
+      this.error = 'Failed to load automation data';
+      this.loading = false;
+    });
+  }
+
+  /**
+   * Reads the server-sent events of a streamed automation: "delta" events are appended to the
+   * selected automation's text, "done" carries the saved automation and "error" a failure.
+   * (EventSource cannot send the Authorization header, hence fetch.)
+   */
+  private async streamAutomation(method: string, url: string): Promise<EventReportAutomation> {
+    const token = localStorage.getItem('access_token');
+    const response = await fetch(url, {
+      method,
+      headers: { 'Authorization': `Bearer ${token}`, 'Accept': 'text/event-stream' }
     });
+    if (!response.ok || !response.body) {
+      throw new Error(`Streaming request failed with status ${response.status}`);
+    }
+
+    const reader = response.body.getReader();
+    const decoder = new TextDecoder();
+    let buffer = '';
+    while (true) {
+      const { done, value } = await reader.read();
+      if (done) {
+        throw new Error('Stream ended before the automation was complete');
+      }
+      buffer += decoder.decode(value, { stream: true });
+
+      let separator: number;
+      while ((separator = buffer.indexOf('\n\n')) >= 0) {
+        const rawEvent = buffer.substring(0, separator);
+        buffer = buffer.substring(separator + 2);
+
+        let name = 'message';
+        let data = '';
+        for (const line of rawEvent.split('\n')) {
+          if (line.startsWith('event:')) {
+            name = line.substring(6).trim();
+          } else if (line.startsWith('data:')) {
+            data += line.substring(5);
+          }
+        }
+        if (!data) {
+          continue;
+        }
+
+        const payload = JSON.parse(data);
+        if (name === 'delta' && this.selectedAutomation) {
+          this.selectedAutomation.text += payload.text;
+        } else if (name === 'done') {
+          await reader.cancel();
+          return payload as EventReportAutomation;
+        } else if (name === 'error') {
+          await reader.cancel();
+          throw new Error(payload.message);
+        }
+      }
+    }
   }
 
   private getEventReportId(): string | null {
@@ -186,23 +241,18 @@ export class EventDetailComponent implements OnInit {
     if (!this.selectedAutomation) return;
 
     this.loading = true;
-    const headers = this.getAuthHeaders();
 
-    this.http.put<EventReportAutomation>(
-      `${API_BASE_URL}/event-report-automations/${this.selectedAutomation.id}/refresh`,
-      {},
-      { headers }
-    ).subscribe({
-      next: (updatedAutomation) => {
+    const id = this.selectedAutomation.id;
+    this.selectedAutomation = { ...this.selectedAutomation, title: '', text: '' };
+    this.streamAutomation('PUT', `${API_BASE_URL}/event-report-automations/${id}/refresh/stream`)
+      .then(updatedAutomation => {
         this.selectedAutomation = updatedAutomation;
         this.loading = false;
-      },
-      error: (error) => {
+      }).catch(error => {
         console.error('Error regenerating automation:', error);
         this.error = 'Failed to regenerate automation';
         this.loading = false;
-      }
-    });
+      });
   }
 
 
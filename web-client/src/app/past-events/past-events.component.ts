@@ -13,6 +13,7 @@ export interface EventReport {
   startDateTime: string;
   platform: string;
   transcript: string;
+  transcriptAvailable: boolean;
   emailText: string;
   postText: string;
   event: {